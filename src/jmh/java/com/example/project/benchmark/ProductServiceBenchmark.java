@@ -0,0 +1,166 @@
+package com.example.project.benchmark;
+
+import com.example.project.ProductInventoryManagemntApplication;
+import com.example.project.entity.Product;
+import com.example.project.repository.ProductBatchRepository;
+import com.example.project.service.InventoryStatsService;
+import com.example.project.service.LowStockWatchlist;
+import com.example.project.service.ProductSearchIndex;
+import com.example.project.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Hot paths of ProductService and the dashboard, measured against an in-memory H2
+// catalog of catalogSize products (override with -p catalogSize=...).
+// createProduct grows the catalog while it runs, so compare it across runs of the same length.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+    
+    private static final String[] WORDS = {
+        "steel", "bolt", "widget", "cable", "usb", "charger", "lamp", "desk",
+        "chair", "pro", "mini", "max", "ultra", "blue", "red", "wireless"
+    };
+    private static final int CATEGORIES = 20;
+    private static final int SEED_CHUNK = 1000;
+    
+    @Param("10000")
+    private int catalogSize;
+    
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private MockMvc mockMvc;
+    private long[] productIds;
+    private final AtomicLong skuSequence = new AtomicLong();
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(ProductInventoryManagemntApplication.class)
+            .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN",
+                "spring.devtools.add-properties=false")
+            .run();
+        productService = context.getBean(ProductService.class);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        
+        seedCatalog();
+        productIds = context.getBean(JdbcTemplate.class)
+            .queryForList("SELECT id FROM products", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public Product createProduct() {
+        long n = skuSequence.incrementAndGet();
+        Product product = new Product("Bench widget " + n, "BENCH-" + n, BigDecimal.TEN, 100);
+        product.setCategory("Category 0");
+        return productService.createProduct(product);
+    }
+    
+    @Benchmark
+    public Product addStock() {
+        return productService.addStock(randomProductId(), 1);
+    }
+    
+    @Benchmark
+    public Product removeStock() {
+        return productService.removeStock(randomProductId(), 1);
+    }
+    
+    @Benchmark
+    public Page<Product> searchProductsByText() {
+        return productService.searchProducts("wireless ch", null, null, null, null, null, 0, 10);
+    }
+    
+    @Benchmark
+    public Page<Product> searchProductsByFilters() {
+        return productService.searchProducts(null, "Category 7", null, new BigDecimal("10"), new BigDecimal("50"),
+            null, 0, 10);
+    }
+    
+    @Benchmark
+    public List<Product> getLowStockProducts() {
+        return productService.getLowStockProducts();
+    }
+    
+    @Benchmark
+    public BigDecimal getTotalInventoryValue() {
+        return productService.getTotalInventoryValue();
+    }
+    
+    // Full home page: statistics, model and template rendering
+    @Benchmark
+    public String dashboard() throws Exception {
+        return mockMvc.perform(get("/")).andReturn().getResponse().getContentAsString();
+    }
+    
+    private long randomProductId() {
+        return productIds[ThreadLocalRandom.current().nextInt(productIds.length)];
+    }
+    
+    // Bulk-insert the catalog, then rebuild the in-memory views that normally follow events.
+    // Quantities start high enough that removeStock never runs a product dry; one product
+    // in twenty is below its minimum so the low-stock list is not empty.
+    private void seedCatalog() {
+        ProductBatchRepository batchRepository = context.getBean(ProductBatchRepository.class);
+        Random random = new Random(42);
+        List<Product> chunk = new ArrayList<>(SEED_CHUNK);
+        for (int i = 0; i < catalogSize; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            int quantity = 100_000 + random.nextInt(1000);
+            Product product = new Product(name, "SKU-" + i, BigDecimal.valueOf(1 + random.nextInt(10_000), 2), quantity);
+            product.setMinQuantity(i % 20 == 0 ? quantity + 10 : 10);
+            product.setCategory("Category " + (i % CATEGORIES));
+            product.setBrand("Brand " + (i % 50));
+            chunk.add(product);
+            if (chunk.size() == SEED_CHUNK) {
+                batchRepository.insertProducts(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            batchRepository.insertProducts(chunk);
+        }
+        context.getBean(InventoryStatsService.class).reload();
+        context.getBean(LowStockWatchlist.class).reload();
+        context.getBean(ProductSearchIndex.class).rebuild();
+    }
+}
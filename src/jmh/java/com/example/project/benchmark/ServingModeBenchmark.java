@@ -0,0 +1,135 @@
+package com.example.project.benchmark;
+
+import com.example.project.ProductInventoryManagemntApplication;
+import com.example.project.entity.Product;
+import com.example.project.repository.ProductBatchRepository;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Load comparison of the two serving modes: many concurrent clients (think handheld
+// scanners) opening the stock page of a random product over real HTTP. "platform" is Tomcat's default thread pool, "virtual" runs
+// with the virtual profile (JDK 21+ only). Compare both with -p threadMode=platform,virtual;
+// the number of clients is the JMH thread count (-t).
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(256)
+@State(Scope.Benchmark)
+public class ServingModeBenchmark {
+    
+    private static final int SEED_CHUNK = 1000;
+    
+    @Param("platform")
+    private String threadMode;
+    
+    @Param("10000")
+    private int catalogSize;
+    
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private long[] productIds;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = "virtual".equals(threadMode);
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need JDK 21 or newer, running on " + Runtime.version());
+        }
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(ProductInventoryManagemntApplication.class)
+            .profiles(virtual ? new String[] {"virtual"} : new String[0])
+            .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN",
+                "spring.devtools.add-properties=false")
+            .run();
+        seedCatalog();
+        
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        productIds = context.getBean(JdbcTemplate.class)
+            .queryForList("SELECT id FROM products", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    // One stock page view. Requests turned away by admission control (503) are counted
+    // separately in the "rejected" counter next to "served".
+    @Benchmark
+    public int stockPage(Responses responses) throws Exception {
+        long id = productIds[ThreadLocalRandom.current().nextInt(productIds.length)];
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + id + "/stock")).build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status == 503) {
+            responses.rejected++;
+        } else {
+            responses.served++;
+        }
+        return status;
+    }
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Responses {
+        
+        public long served;
+        public long rejected;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            served = 0;
+            rejected = 0;
+        }
+    }
+    
+    private void seedCatalog() {
+        ProductBatchRepository batchRepository = context.getBean(ProductBatchRepository.class);
+        List<Product> chunk = new ArrayList<>(SEED_CHUNK);
+        for (int i = 0; i < catalogSize; i++) {
+            Product product = new Product("Product " + i, "SKU-" + i, BigDecimal.valueOf(100 + i, 2), 100);
+            product.setCategory("Category " + (i % 20));
+            chunk.add(product);
+            if (chunk.size() == SEED_CHUNK) {
+                batchRepository.insertProducts(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            batchRepository.insertProducts(chunk);
+        }
+    }
+}
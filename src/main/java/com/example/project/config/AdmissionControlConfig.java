@@ -0,0 +1,30 @@
+package com.example.project.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Request admission control in front of the JDBC connection pool (see RequestAdmissionFilter)
+@Configuration
+@ConditionalOnProperty(name = "inventory.admission.enabled", havingValue = "true")
+public class AdmissionControlConfig {
+    
+    // Both limits together should leave one pooled connection for the stock ledger's writer
+    @Bean
+    public RequestAdmissionFilter requestAdmissionFilter(
+            @Value("${inventory.admission.max-concurrent-requests:7}") int maxConcurrent,
+            @Value("${inventory.admission.max-concurrent-transfers:2}") int maxConcurrentTransfers,
+            @Value("${inventory.admission.max-wait-ms:2000}") long maxWaitMillis) {
+        return new RequestAdmissionFilter(maxConcurrent, maxConcurrentTransfers, maxWaitMillis);
+    }
+    
+    @Bean
+    public FilterRegistrationBean<RequestAdmissionFilter> requestAdmissionFilterRegistration(RequestAdmissionFilter filter) {
+        FilterRegistrationBean<RequestAdmissionFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.project.config;
+
+import com.example.project.service.RequestMetrics;
+import org.hibernate.Interceptor;
+import org.hibernate.type.Type;
+
+// Session factory wide Hibernate interceptor that counts the entities each request loads
+public class EntityLoadCounter implements Interceptor {
+    
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        RequestMetrics.entityLoaded();
+        return false;
+    }
+}
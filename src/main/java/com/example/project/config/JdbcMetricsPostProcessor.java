@@ -0,0 +1,120 @@
+package com.example.project.config;
+
+import com.example.project.service.InventoryMetrics;
+import com.example.project.service.RequestMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Feeds InventoryMetrics from the JDBC layer. Every Hikari pool (primary and replicas) reports
+// how long each connection acquisition waited, and the application's DataSource hands out
+// connections that count the statements prepared on them, JPA and JdbcTemplate alike
+// (a JDBC batch counts once). InventoryMetrics is looked up lazily: pools start while the
+// entity manager factory is still being built.
+public class JdbcMetricsPostProcessor implements BeanPostProcessor {
+    
+    private final ObjectProvider<InventoryMetrics> metrics;
+    
+    public JdbcMetricsPostProcessor(ObjectProvider<InventoryMetrics> metrics) {
+        this.metrics = metrics;
+    }
+    
+    // Before the pool starts, which happens on the first getConnection()
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikari) {
+            track(hikari);
+        }
+        // Replica pools are built inside the routing data source rather than as beans
+        if (bean instanceof ReplicaRoutingDataSource routing) {
+            routing.getReplicaDataSources().forEach(replica -> {
+                if (replica instanceof HikariDataSource hikari) {
+                    track(hikari);
+                }
+            });
+        }
+        return bean;
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (beanName.equals("dataSource") && bean instanceof DataSource dataSource
+                && !(bean instanceof StatementCountingDataSource)) {
+            return new StatementCountingDataSource(dataSource);
+        }
+        return bean;
+    }
+    
+    private void track(HikariDataSource hikari) {
+        if (hikari.getMetricsTrackerFactory() == null) {
+            hikari.setMetricsTrackerFactory(new PoolMetricsTrackerFactory());
+        }
+    }
+    
+    private final class PoolMetricsTrackerFactory implements MetricsTrackerFactory {
+        
+        @Override
+        public IMetricsTracker create(String poolName, com.zaxxer.hikari.metrics.PoolStats poolStats) {
+            metrics.getObject().registerPool(poolName, poolStats);
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    metrics.getObject().recordConnectionAcquired(poolName, elapsedAcquiredNanos);
+                }
+                
+                @Override
+                public void recordConnectionTimeout() {
+                    metrics.getObject().recordConnectionTimeout(poolName);
+                }
+            };
+        }
+    }
+    
+    static final class StatementCountingDataSource extends DelegatingDataSource {
+        
+        StatementCountingDataSource(DataSource target) {
+            super(target);
+        }
+        
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+        
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+        
+        private static Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "prepareStatement", "prepareCall", "createStatement":
+                            RequestMetrics.statementPrepared();
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.project.config;
+
+import com.example.project.service.InventoryMetrics;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Hot-path instrumentation feeding InventoryMetrics (served at /metrics)
+@Configuration
+@ConditionalOnProperty(name = "inventory.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+    
+    // Static: post-processors are created before any other bean
+    @Bean
+    public static JdbcMetricsPostProcessor jdbcMetricsPostProcessor(ObjectProvider<InventoryMetrics> metrics) {
+        return new JdbcMetricsPostProcessor(metrics);
+    }
+    
+    @Bean
+    public ServiceMetricsAspect serviceMetricsAspect(InventoryMetrics metrics) {
+        return new ServiceMetricsAspect(metrics);
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer entityLoadCounter() {
+        return properties -> properties.put(AvailableSettings.INTERCEPTOR, new EntityLoadCounter());
+    }
+    
+    @Bean
+    public RequestMetricsFilter requestMetricsFilter(InventoryMetrics metrics) {
+        return new RequestMetricsFilter(metrics);
+    }
+    
+    // Outermost, so the time includes admission control and page cache hits are counted
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilterRegistration(RequestMetricsFilter filter) {
+        FilterRegistrationBean<RequestMetricsFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
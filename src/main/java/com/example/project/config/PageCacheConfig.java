@@ -0,0 +1,33 @@
+package com.example.project.config;
+
+import com.example.project.service.InventoryVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.Set;
+
+// Rendered page cache with ETags (see PageCacheFilter)
+@Configuration
+@ConditionalOnProperty(name = "inventory.page-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class PageCacheConfig {
+    
+    @Bean
+    public PageCacheFilter pageCacheFilter(
+            InventoryVersion inventoryVersion,
+            @Value("${inventory.page-cache.paths:/,/products,/categories}") Set<String> paths,
+            @Value("${inventory.page-cache.max-entries:1000}") int maxEntries) {
+        return new PageCacheFilter(inventoryVersion, paths, maxEntries);
+    }
+    
+    // Ahead of admission control: a cached page needs no database permit
+    @Bean
+    public FilterRegistrationBean<PageCacheFilter> pageCacheFilterRegistration(PageCacheFilter filter) {
+        FilterRegistrationBean<PageCacheFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.project.config;
+
+import com.example.project.service.InventoryVersion;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.support.SessionFlashMapManager;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Caches the rendered HTML of the inventory pages (home, product list, category list) under
+// InventoryVersion and the request parameters. While the version stands, a repeat request
+// is answered from memory, and one whose If-None-Match carries the page's ETag gets
+// 304 Not Modified, without touching the database or the template engine. The ETag is a
+// hash of the page bytes, so it is strong and the same on every instance.
+//
+// Requests that render something of their own are passed through: a pending flash message
+// after a redirect, or a read-your-writes window (which must read the primary, not a page
+// another client rendered from a replica).
+public class PageCacheFilter extends OncePerRequestFilter {
+    
+    private static final String FLASH_MAPS_ATTRIBUTE = SessionFlashMapManager.class.getName() + ".FLASH_MAPS";
+    
+    private final InventoryVersion inventoryVersion;
+    private final Set<String> paths;
+    private final int maxEntries;
+    
+    // Guarded by "this"; least recently used first
+    private final LinkedHashMap<String, Page> pages = new LinkedHashMap<>(16, 0.75f, true);
+    
+    public PageCacheFilter(InventoryVersion inventoryVersion, Set<String> paths, int maxEntries) {
+        this.inventoryVersion = inventoryVersion;
+        this.paths = paths;
+        this.maxEntries = maxEntries;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = key(request);
+        // Taken before rendering: a write committed meanwhile leaves the stored page already stale
+        long version = inventoryVersion.current();
+        Page page = get(key, version);
+        if (page != null) {
+            writeValidators(response, page.etag);
+            if (matches(request, page.etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            response.setContentType(page.contentType);
+            response.setContentLength(page.body.length);
+            response.getOutputStream().write(page.body);
+            return;
+        }
+        
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        if (isCacheable(wrapper)) {
+            byte[] body = wrapper.getContentAsByteArray();
+            String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+            put(key, new Page(version, etag, wrapper.getContentType(), body));
+            writeValidators(wrapper, etag);
+            if (matches(request, etag)) {
+                wrapper.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                wrapper.resetBuffer();
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!request.getMethod().equals("GET")) {
+            return true;
+        }
+        if (!paths.contains(request.getRequestURI().substring(request.getContextPath().length()))) {
+            return true;
+        }
+        return hasFlashMessage(request) || inReadYourWritesWindow(request);
+    }
+    
+    // Number of pages currently cached
+    public synchronized int size() {
+        return pages.size();
+    }
+    
+    public synchronized void clear() {
+        pages.clear();
+    }
+    
+    private synchronized Page get(String key, long version) {
+        Page page = pages.get(key);
+        if (page != null && page.version != version) {
+            pages.remove(key);
+            return null;
+        }
+        return page;
+    }
+    
+    private synchronized void put(String key, Page page) {
+        pages.put(key, page);
+        Iterator<Page> iterator = pages.values().iterator();
+        while (pages.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+    
+    // Path plus parameters in name order, so "?a=1&b=2" and "?b=2&a=1" share a page
+    private String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : parameter.getValue()) {
+                key.append(separator).append(parameter.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+    
+    private boolean isCacheable(ContentCachingResponseWrapper response) {
+        if (response.getStatus() != HttpServletResponse.SC_OK || response.containsHeader(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        String contentType = response.getContentType();
+        return contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.TEXT_HTML);
+    }
+    
+    // Browsers and proxies may keep the page but must revalidate it with the ETag each time
+    private void writeValidators(HttpServletResponse response, String etag) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+    }
+    
+    private boolean matches(HttpServletRequest request, String etag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || candidate.equals(etag) || candidate.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private boolean hasFlashMessage(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return false;
+        }
+        Object flashMaps = session.getAttribute(FLASH_MAPS_ATTRIBUTE);
+        return flashMaps instanceof Collection<?> maps && !maps.isEmpty();
+    }
+    
+    private boolean inReadYourWritesWindow(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (cookie.getName().equals(ReadYourWritesFilter.COOKIE_NAME)) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static final class Page {
+        
+        private final long version;
+        private final String etag;
+        private final String contentType;
+        private final byte[] body;
+        
+        Page(long version, String etag, String contentType, byte[] body) {
+            this.version = version;
+            this.etag = etag;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.project.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read/write splitting (see ReplicaRoutingDataSource). Only active when replica URLs are
+// configured; otherwise Spring Boot's single DataSource is used as before.
+@Configuration
+@ConditionalOnExpression("!'${inventory.datasource.replica.urls:}'.trim().isEmpty()")
+public class ReadReplicaConfig {
+    
+    // The primary, configured by the usual spring.datasource.* properties
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${inventory.datasource.replica.urls}") List<String> urls,
+            @Value("${inventory.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${inventory.datasource.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${inventory.datasource.replica.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${inventory.datasource.read-your-writes-ms:2000}") long readYourWritesMillis) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                .url(url.trim()).username(username).password(password).build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWritesMillis);
+    }
+    
+    // What JPA and JdbcTemplate use. The lazy proxy only fetches a real connection at the first
+    // statement, when the transaction's read-only flag is already set for the routing decision.
+    // Each transaction is only routed on its own while no session outlives it, hence
+    // spring.jpa.open-in-view=false.
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+    
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${inventory.datasource.read-your-writes-ms:2000}") long readYourWritesMillis) {
+        return new ReadYourWritesFilter(readYourWritesMillis);
+    }
+    
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilterRegistration(ReadYourWritesFilter filter) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.project.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Carries ReplicaRoutingDataSource's read-your-writes window across requests. A client that
+// sends a change (any request other than GET/HEAD/OPTIONS) gets a short-lived cookie, and
+// while it lasts the client's reads go to the primary, so the page it is redirected to shows
+// its own change even when the replicas are a little behind.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    
+    static final String COOKIE_NAME = "inventory-primary-until";
+    
+    private final long readYourWritesMillis;
+    
+    public ReadYourWritesFilter(long readYourWritesMillis) {
+        this.readYourWritesMillis = readYourWritesMillis;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        long until = primaryUntil(request);
+        if (isMutation(request)) {
+            until = now + readYourWritesMillis;
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(until));
+            cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (readYourWritesMillis + 999) / 1000));
+            response.addCookie(cookie);
+        }
+        if (until > now) {
+            ReplicaRoutingDataSource.readFromPrimaryUntil(until);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.clearReadYourWrites();
+        }
+    }
+    
+    private boolean isMutation(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !method.equals("GET") && !method.equals("HEAD") && !method.equals("OPTIONS");
+    }
+    
+    private long primaryUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (cookie.getName().equals(COOKIE_NAME)) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.project.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends read-only transactions to a healthy replica and everything else to the primary.
+//
+// The decision is made when a connection is actually fetched, so this must sit behind a
+// LazyConnectionDataSourceProxy: by the time the first statement runs, the transaction's
+// read-only flag is known. A replica that fails to hand out a connection, or fails the
+// periodic health check, is skipped until a check succeeds again; with no healthy replica
+// reads fall back to the primary.
+//
+// Read-your-writes: once a thread has used a read-write transaction, its read-only work
+// stays on the primary for readYourWritesMillis, so it never reads a replica that has not
+// caught up with its own write yet. ReadYourWritesFilter carries that window across the
+// requests of one client.
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    
+    // Until when (epoch millis) this thread's reads stay on the primary
+    private static final ThreadLocal<Long> primaryUntil = new ThreadLocal<>();
+    
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long readYourWritesMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long readYourWritesMillis) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+        }
+        this.readYourWritesMillis = readYourWritesMillis;
+    }
+    
+    // Keep this thread's reads on the primary until the given time
+    public static void readFromPrimaryUntil(long epochMillis) {
+        Long current = primaryUntil.get();
+        if (current == null || current < epochMillis) {
+            primaryUntil.set(epochMillis);
+        }
+    }
+    
+    // Until when this thread's reads stay on the primary, or 0
+    public static long getPrimaryUntil() {
+        Long until = primaryUntil.get();
+        return until != null ? until : 0;
+    }
+    
+    // Forget the read-your-writes window, e.g. when a pooled request thread is done
+    public static void clearReadYourWrites() {
+        primaryUntil.remove();
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = chooseReplica();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+        return primary.getConnection();
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = chooseReplica();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection(username, password);
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+    
+    // Null means the primary
+    private Replica chooseReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readFromPrimaryUntil(System.currentTimeMillis() + readYourWritesMillis);
+            }
+            return null;
+        }
+        if (getPrimaryUntil() > System.currentTimeMillis()) {
+            return null;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+    
+    // Probe every replica; brings recovered ones back and takes failing ones out
+    @Scheduled(fixedDelayString = "${inventory.datasource.replica.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(2)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(new SQLException("Connection is not valid"));
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+    
+    // The replica data sources, in configuration order
+    public List<DataSource> getReplicaDataSources() {
+        return replicas.stream().map(replica -> replica.dataSource).toList();
+    }
+    
+    // Number of replicas currently taking reads
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+    
+    @Override
+    public void destroy() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+    
+    private static final class Replica {
+        
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+        
+        void markUp() {
+            if (!healthy) {
+                healthy = true;
+                log.info("Read replica {} is back, routing reads to it again", name);
+            }
+        }
+        
+        void markDown(SQLException cause) {
+            if (healthy) {
+                healthy = false;
+                log.warn("Read replica {} is unavailable, reading from the primary: {}", name, cause.getMessage());
+            }
+        }
+    }
+}
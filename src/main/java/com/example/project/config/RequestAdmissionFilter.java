@@ -0,0 +1,90 @@
+package com.example.project.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lets at most maxConcurrent requests run at once and makes the rest wait briefly for a
+// permit, answering 503 with Retry-After when none frees up in time. Sized to the
+// connection pool, this keeps request threads (platform or virtual) from piling up
+// on the pool and timing out there, which is where a burst of virtual threads would go.
+//
+// Streaming imports, exports and bulk adjustments hold their permit for as long as the
+// transfer takes, so they draw from a separate, smaller set of permits and cannot starve
+// ordinary page requests.
+public class RequestAdmissionFilter extends OncePerRequestFilter {
+    
+    private static final Set<String> TRANSFER_PATHS = Set.of("/products/import", "/products/export", "/products/stock/bulk");
+    
+    private final Semaphore permits;
+    private final Semaphore transferPermits;
+    private final int maxConcurrent;
+    private final long maxWaitMillis;
+    private final AtomicLong rejected = new AtomicLong();
+    
+    public RequestAdmissionFilter(int maxConcurrent, int maxConcurrentTransfers, long maxWaitMillis) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.transferPermits = new Semaphore(maxConcurrentTransfers, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Semaphore permits = isTransfer(request) ? transferPermits : this.permits;
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejected.incrementAndGet();
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server busy, please retry");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+    
+    // The live stock feed stays open for minutes and never holds a connection
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/products/stock/feed");
+    }
+    
+    private static boolean isTransfer(HttpServletRequest request) {
+        return TRANSFER_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+    
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+    
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+    
+    public int getQueued() {
+        return permits.getQueueLength();
+    }
+    
+    public long getRejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.project.config;
+
+import com.example.project.service.InventoryMetrics;
+import com.example.project.service.RequestMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+// Outermost filter: counts each request's database work (see RequestMetrics), records it in
+// InventoryMetrics under the request's route, and reports it in an X-Request-Metrics header.
+// Headers cannot change once the body starts, so the header describes the work done before
+// the first byte of the response; the recorded metrics cover the whole request.
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    
+    static final String HEADER = "X-Request-Metrics";
+    
+    private final InventoryMetrics metrics;
+    
+    public RequestMetricsFilter(InventoryMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestMetrics requestMetrics = RequestMetrics.begin();
+        SummaryHeaderResponse wrapper = new SummaryHeaderResponse(response, requestMetrics);
+        boolean failed = true;
+        try {
+            chain.doFilter(request, wrapper);
+            failed = wrapper.getStatus() >= 500;
+        } finally {
+            wrapper.writeHeader();
+            metrics.recordRequest(route(request, wrapper), requestMetrics, failed);
+            RequestMetrics.end();
+        }
+    }
+    
+    // "GET /products/{id}"; requests no handler took (e.g. served by the page cache) keep their
+    // path, and unmatched ones share one entry so stray URLs cannot flood the table
+    private String route(HttpServletRequest request, HttpServletResponse response) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            pattern = response.getStatus() < 400
+                ? request.getRequestURI().substring(request.getContextPath().length())
+                : "(unmatched)";
+        }
+        return request.getMethod() + " " + pattern;
+    }
+    
+    // Sets the summary header just before the body starts (or at the end, for an empty body)
+    private static final class SummaryHeaderResponse extends HttpServletResponseWrapper {
+        
+        private final RequestMetrics requestMetrics;
+        private boolean headerWritten;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        
+        SummaryHeaderResponse(HttpServletResponse response, RequestMetrics requestMetrics) {
+            super(response);
+            this.requestMetrics = requestMetrics;
+        }
+        
+        void writeHeader() {
+            if (!headerWritten) {
+                headerWritten = true;
+                if (!isCommitted()) {
+                    setHeader(HEADER, requestMetrics.summary());
+                }
+            }
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream target = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        writeHeader();
+                        target.write(b);
+                    }
+                    
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        writeHeader();
+                        target.write(b, off, len);
+                    }
+                    
+                    @Override
+                    public void flush() throws IOException {
+                        writeHeader();
+                        target.flush();
+                    }
+                    
+                    @Override
+                    public void close() throws IOException {
+                        writeHeader();
+                        target.close();
+                    }
+                    
+                    @Override
+                    public boolean isReady() {
+                        return target.isReady();
+                    }
+                    
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        target.setWriteListener(listener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                PrintWriter target = super.getWriter();
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] buffer, int off, int len) {
+                        writeHeader();
+                        target.write(buffer, off, len);
+                    }
+                    
+                    @Override
+                    public void flush() {
+                        writeHeader();
+                        target.flush();
+                    }
+                    
+                    @Override
+                    public void close() {
+                        writeHeader();
+                        target.close();
+                    }
+                });
+            }
+            return writer;
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+        
+        @Override
+        public void sendError(int status) throws IOException {
+            writeHeader();
+            super.sendError(status);
+        }
+        
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            writeHeader();
+            super.sendError(status, message);
+        }
+        
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.project.config;
+
+import com.example.project.service.InventoryMetrics;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Times every public ProductService/CategoryService method and every ProductRepository/
+// CategoryRepository method (inherited ones included) into InventoryMetrics, counting the
+// calls that throw. Calls a class makes to itself bypass the proxy and are not timed.
+@Aspect
+public class ServiceMetricsAspect {
+    
+    private final InventoryMetrics metrics;
+    private final Map<Method, String> names = new ConcurrentHashMap<>();
+    
+    public ServiceMetricsAspect(InventoryMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    @Around("execution(public * com.example.project.service.ProductService.*(..)) || " +
+            "execution(public * com.example.project.service.CategoryService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, null);
+    }
+    
+    @Around("this(com.example.project.repository.ProductRepository) && !execution(* java.lang.Object.*(..))")
+    public Object timeProductRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "ProductRepository");
+    }
+    
+    @Around("this(com.example.project.repository.CategoryRepository) && !execution(* java.lang.Object.*(..))")
+    public Object timeCategoryRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "CategoryRepository");
+    }
+    
+    private Object time(ProceedingJoinPoint joinPoint, String type) throws Throwable {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            metrics.recordCall(name(joinPoint, type), System.nanoTime() - start, failed);
+        }
+    }
+    
+    // "ProductRepository.findAll(Pageable)"; repository methods are named after the repository,
+    // not the Spring Data interface that declares them
+    private String name(ProceedingJoinPoint joinPoint, String type) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return names.computeIfAbsent(method, key ->
+            (type != null ? type : key.getDeclaringClass().getSimpleName()) + "." + key.getName() +
+            Arrays.stream(key.getParameterTypes()).map(Class::getSimpleName).collect(Collectors.joining(", ", "(", ")")));
+    }
+}
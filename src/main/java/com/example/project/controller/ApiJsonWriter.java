@@ -0,0 +1,132 @@
+package com.example.project.controller;
+
+import com.example.project.entity.Category;
+import com.example.project.entity.Product;
+import com.example.project.repository.ProductSummary;
+import com.example.project.service.CategoryService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Writes the /api/v1 responses field by field with Jackson's streaming generator, straight to
+// the response: no intermediate tree or reflection per row. Category names come from the
+// in-memory category dictionary.
+@Component
+class ApiJsonWriter {
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    // One keyset page: a full page may have more after it, a short one is the last
+    void writeProductPage(HttpServletResponse response, List<ProductSummary> products, int limit) throws IOException {
+        Long next = products.size() == limit ? products.get(products.size() - 1).getId() : null;
+        writeProducts(response, products, next);
+    }
+    
+    // {"items": [...], "next": <id to pass as "after" for the next page, or null on the last page>}
+    void writeProducts(HttpServletResponse response, List<ProductSummary> products, Long next) throws IOException {
+        try (JsonGenerator json = start(response)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("items");
+            for (ProductSummary product : products) {
+                json.writeStartObject();
+                writeSummaryFields(json, product);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            writeNullableNumber(json, "next", next);
+            json.writeEndObject();
+        }
+    }
+    
+    // One product with everything the lists leave out
+    void writeProduct(HttpServletResponse response, Product product) throws IOException {
+        try (JsonGenerator json = start(response)) {
+            json.writeStartObject();
+            writeSummaryFields(json, new ProductSummary(product.getId(), product.getSku(), product.getName(),
+                product.getCategoryId(), product.getBrand(), product.getPrice(), product.getQuantity(),
+                product.getMinQuantity(), product.getIsActive()));
+            json.writeStringField("description", product.getDescription());
+            json.writeStringField("unit", product.getUnit());
+            writeTimestamp(json, "createdAt", product.getCreatedAt());
+            writeTimestamp(json, "updatedAt", product.getUpdatedAt());
+            json.writeEndObject();
+        }
+    }
+    
+    void writeCategories(HttpServletResponse response, List<Category> categories) throws IOException {
+        try (JsonGenerator json = start(response)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("items");
+            for (Category category : categories) {
+                json.writeStartObject();
+                json.writeNumberField("id", category.getId());
+                json.writeStringField("name", category.getName());
+                json.writeStringField("description", category.getDescription());
+                writeNullableBoolean(json, "isActive", category.getIsActive());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+    
+    private JsonGenerator start(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        return objectMapper.getFactory().createGenerator(response.getOutputStream());
+    }
+    
+    private void writeSummaryFields(JsonGenerator json, ProductSummary product) throws IOException {
+        json.writeNumberField("id", product.getId());
+        json.writeStringField("sku", product.getSku());
+        json.writeStringField("name", product.getName());
+        writeNullableNumber(json, "categoryId", product.getCategoryId());
+        json.writeStringField("category", categoryService.getCategoryName(product.getCategoryId()));
+        json.writeStringField("brand", product.getBrand());
+        writeNullableDecimal(json, "price", product.getPrice());
+        writeNullableNumber(json, "quantity", product.getQuantity());
+        writeNullableNumber(json, "minQuantity", product.getMinQuantity());
+        json.writeStringField("stockStatus", product.getStockStatus().name());
+        writeNullableBoolean(json, "isActive", product.getIsActive());
+    }
+    
+    private void writeNullableNumber(JsonGenerator json, String field, Number value) throws IOException {
+        if (value != null) {
+            json.writeNumberField(field, value.longValue());
+        } else {
+            json.writeNullField(field);
+        }
+    }
+    
+    private void writeNullableDecimal(JsonGenerator json, String field, BigDecimal value) throws IOException {
+        if (value != null) {
+            json.writeNumberField(field, value);
+        } else {
+            json.writeNullField(field);
+        }
+    }
+    
+    private void writeNullableBoolean(JsonGenerator json, String field, Boolean value) throws IOException {
+        if (value != null) {
+            json.writeBooleanField(field, value);
+        } else {
+            json.writeNullField(field);
+        }
+    }
+    
+    private void writeTimestamp(JsonGenerator json, String field, LocalDateTime value) throws IOException {
+        json.writeStringField(field, value != null ? value.toString() : null);
+    }
+}
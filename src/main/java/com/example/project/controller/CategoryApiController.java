@@ -0,0 +1,48 @@
+package com.example.project.controller;
+
+import com.example.project.service.CategoryService;
+import com.example.project.service.ProductService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.IOException;
+
+// Versioned JSON API for categories, served from the in-memory category dictionary
+@Controller
+@RequestMapping("/api/v1/categories")
+public class CategoryApiController {
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ApiJsonWriter apiJsonWriter;
+    
+    // All categories, in id order
+    @GetMapping
+    public void listCategories(HttpServletResponse response) throws IOException {
+        apiJsonWriter.writeCategories(response, categoryService.getAllCategories());
+    }
+    
+    // A category's products in id order, paged like /api/v1/products
+    @GetMapping("/{id}/products")
+    public void categoryProducts(@PathVariable Long id,
+                                 @RequestParam(defaultValue = "0") long after,
+                                 @RequestParam(defaultValue = "100") int limit,
+                                 HttpServletResponse response) throws IOException {
+        if (categoryService.getCategoryById(id).isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Category not found with id: " + id);
+            return;
+        }
+        int pageSize = ProductApiController.pageSize(limit);
+        apiJsonWriter.writeProductPage(response, productService.getProductSummaries(id, after, pageSize), pageSize);
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.project.controller;
 
 import com.example.project.entity.Category;
+import com.example.project.service.CategoryCacheStats;
+import com.example.project.service.CategoryOverview;
+import com.example.project.service.CategoryOverviewService;
 import com.example.project.service.CategoryService;
+import com.example.project.service.EditConflictException;
 import com.example.project.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -21,21 +25,32 @@ public class CategoryController {
     
     @Autowired
     private CategoryService categoryService;
-
+    
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private CategoryOverviewService categoryOverviewService;
+    
     // Display all categories
     @GetMapping
     public String listCategories(Model model) {
-        List<Category> categories = categoryService.getAllCategories();
-        Map<Long, Integer> categoryCounts = new HashMap<>();
-        categories.forEach(cat -> categoryCounts.put(cat.getId(), productService.getProductsByCategory(cat.getName()).size()));
-        model.addAttribute("categories", categories);
+        List<CategoryOverview> overviews = categoryOverviewService.getCategoryOverviews();
+        Map<Long, Long> categoryCounts = new HashMap<>();
+        overviews.forEach(overview -> categoryCounts.put(overview.getCategory().getId(), overview.getProductCount()));
+        model.addAttribute("categories", overviews.stream().map(CategoryOverview::getCategory).toList());
+        model.addAttribute("categoryOverviews", overviews);
         model.addAttribute("categoryCounts", categoryCounts);
         return "categories/list";
     }
     
+    // Category dictionary statistics
+    @GetMapping("/cache-stats")
+    @ResponseBody
+    public CategoryCacheStats cacheStats() {
+        return categoryService.getCacheStats();
+    }
+    
     // Display category creation form
     @GetMapping("/new")
     public String showCreateForm(Model model) {
@@ -71,25 +86,34 @@ public class CategoryController {
             .orElseThrow(() -> new RuntimeException("Category not found"));
         
         model.addAttribute("category", category);
+        model.addAttribute("editBase", categoryService.getEditBase(category));
         return "categories/form";
     }
     
-    // Update category
+    // Update category; editBase holds the values the form was opened with, for merging
     @PostMapping("/{id}")
     public String updateCategory(@PathVariable Long id, 
                                @Valid @ModelAttribute Category category, 
                                BindingResult result, 
+                               @RequestParam(required = false) String editBase,
                                Model model,
                                RedirectAttributes redirectAttributes) {
         
+        model.addAttribute("editBase", editBase);
         if (result.hasErrors()) {
             return "categories/form";
         }
         
         try {
-            categoryService.updateCategory(id, category);
+            categoryService.updateCategory(id, category, editBase);
             redirectAttributes.addFlashAttribute("success", "Category updated successfully!");
             return "redirect:/categories";
+        } catch (EditConflictException e) {
+            // Show the form again on top of the current version, so saving it again overwrites
+            category.setVersion(e.getCurrentVersion());
+            model.addAttribute("editBase", e.getCurrentBase());
+            model.addAttribute("error", e.getMessage());
+            return "categories/form";
         } catch (Exception e) {
             model.addAttribute("error", e.getMessage());
             return "categories/form";
@@ -115,7 +139,7 @@ public class CategoryController {
             .orElseThrow(() -> new RuntimeException("Category not found"));
         
         model.addAttribute("category", category);
-        model.addAttribute("products", productService.getProductsByCategory(category.getName()));
+        model.addAttribute("products", productService.getProductsByCategory(category.getId()));
         return "categories/view";
     }
 }
@@ -1,19 +1,18 @@
 package com.example.project.controller;
 
-import com.example.project.service.ProductService;
 import com.example.project.service.CategoryService;
+import com.example.project.service.InventoryStats;
+import com.example.project.service.InventoryStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
-import java.math.BigDecimal;
-
 @Controller
 public class MainController {
     
     @Autowired
-    private ProductService productService;
+    private InventoryStatsService inventoryStatsService;
     
     @Autowired
     private CategoryService categoryService;
@@ -22,12 +21,13 @@ public class MainController {
     @GetMapping("/")
     public String home(Model model) {
         // Get dashboard statistics
-        model.addAttribute("totalProducts", productService.getAllProducts().size());
-        model.addAttribute("lowStockProducts", productService.getLowStockProducts().size());
-        model.addAttribute("outOfStockProducts", productService.getOutOfStockProducts().size());
-        model.addAttribute("totalInventoryValue", productService.getTotalInventoryValue());
-        model.addAttribute("categoryStats", productService.getProductCountByCategory());
-        model.addAttribute("recentProducts", productService.getAllProducts().subList(0, Math.min(5, productService.getAllProducts().size())));
+        InventoryStats stats = inventoryStatsService.getStats();
+        model.addAttribute("totalProducts", stats.getTotalProducts());
+        model.addAttribute("lowStockProducts", stats.getLowStockProducts());
+        model.addAttribute("outOfStockProducts", stats.getOutOfStockProducts());
+        model.addAttribute("totalInventoryValue", stats.getTotalInventoryValue());
+        model.addAttribute("categoryStats", stats.getCategoryStats());
+        model.addAttribute("recentProducts", stats.getRecentProducts());
         
         return "index";
     }
@@ -35,11 +35,12 @@ public class MainController {
     // Dashboard
     @GetMapping("/dashboard")
     public String dashboard(Model model) {
-        model.addAttribute("totalProducts", productService.getAllProducts().size());
-        model.addAttribute("lowStockProducts", productService.getLowStockProducts().size());
-        model.addAttribute("outOfStockProducts", productService.getOutOfStockProducts().size());
-        model.addAttribute("totalInventoryValue", productService.getTotalInventoryValue());
-        model.addAttribute("categoryStats", productService.getProductCountByCategory());
+        InventoryStats stats = inventoryStatsService.getStats();
+        model.addAttribute("totalProducts", stats.getTotalProducts());
+        model.addAttribute("lowStockProducts", stats.getLowStockProducts());
+        model.addAttribute("outOfStockProducts", stats.getOutOfStockProducts());
+        model.addAttribute("totalInventoryValue", stats.getTotalInventoryValue());
+        model.addAttribute("categoryStats", stats.getCategoryStats());
         model.addAttribute("totalCategories", categoryService.getCategoryCount());
         
         return "redirect:/";
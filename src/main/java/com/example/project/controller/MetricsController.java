@@ -0,0 +1,24 @@
+package com.example.project.controller;
+
+import com.example.project.service.InventoryMetrics;
+import com.example.project.service.MetricsSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+@Controller
+@RequestMapping("/metrics")
+public class MetricsController {
+    
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+    
+    // Request, method and connection pool metrics
+    @GetMapping
+    @ResponseBody
+    public MetricsSnapshot metrics() {
+        return inventoryMetrics.snapshot();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.project.controller;
+
+import com.example.project.entity.Product;
+import com.example.project.service.ProductService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.IOException;
+import java.util.Optional;
+
+// Versioned JSON API for products. Lists carry only the columns a list shows (ProductSummary)
+// and page by id: pass the response's "next" as "after" to get the following page.
+@Controller
+@RequestMapping("/api/v1/products")
+public class ProductApiController {
+    
+    static final int MAX_LIMIT = 1000;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ApiJsonWriter apiJsonWriter;
+    
+    // All products, or one category's, in id order
+    @GetMapping
+    public void listProducts(@RequestParam(defaultValue = "0") long after,
+                             @RequestParam(defaultValue = "100") int limit,
+                             @RequestParam(required = false) Long categoryId,
+                             HttpServletResponse response) throws IOException {
+        int pageSize = pageSize(limit);
+        apiJsonWriter.writeProductPage(response, productService.getProductSummaries(categoryId, after, pageSize), pageSize);
+    }
+    
+    // Low-stock products, largest deficit first
+    @GetMapping("/low-stock")
+    public void lowStockProducts(HttpServletResponse response) throws IOException {
+        apiJsonWriter.writeProducts(response, productService.getLowStockSummaries(), null);
+    }
+    
+    // Out-of-stock products
+    @GetMapping("/out-of-stock")
+    public void outOfStockProducts(HttpServletResponse response) throws IOException {
+        apiJsonWriter.writeProducts(response, productService.getOutOfStockSummaries(), null);
+    }
+    
+    // One product, including description, unit and timestamps
+    @GetMapping("/{id}")
+    public void getProduct(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        Optional<Product> product = productService.getProductById(id);
+        if (product.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Product not found with id: " + id);
+            return;
+        }
+        apiJsonWriter.writeProduct(response, product.get());
+    }
+    
+    // Requested page size, kept between 1 and MAX_LIMIT
+    static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -1,18 +1,43 @@
 package com.example.project.controller;
 
+import com.example.project.entity.PriceChange;
 import com.example.project.entity.Product;
+import com.example.project.repository.RepricingPreview;
 import com.example.project.service.ProductService;
+import com.example.project.service.BulkStockAdjustmentResult;
 import com.example.project.service.CategoryService;
+import com.example.project.service.EditConflictException;
+import com.example.project.service.PartialEditException;
+import com.example.project.service.InventoryStats;
+import com.example.project.service.InventoryStatsService;
+import com.example.project.service.ProductCacheStats;
+import com.example.project.service.ProductImportResult;
+import com.example.project.service.ProductSlice;
+import com.example.project.service.RepricingRequest;
+import com.example.project.service.RepricingResult;
+import com.example.project.service.StockAdjustment;
+import com.example.project.service.StockFeedService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 @Controller
@@ -25,6 +50,12 @@ public class ProductController {
     @Autowired
     private CategoryService categoryService;
     
+    @Autowired
+    private InventoryStatsService inventoryStatsService;
+    
+    @Autowired
+    private StockFeedService stockFeedService;
+    
     // Display all products with pagination
     @GetMapping
     public String listProducts(
@@ -32,8 +63,26 @@ public class ProductController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String cursor,
             Model model) {
         
+        // Cursor mode: keyset paging, same cost for every page
+        if (cursor != null) {
+            ProductSlice slice;
+            try {
+                slice = productService.getProductsByCursor(cursor, size, sortBy, sortDir);
+            } catch (IllegalArgumentException e) {
+                model.addAttribute("error", e.getMessage());
+                slice = productService.getProductsByCursor(null, size, sortBy, sortDir);
+            }
+            addCursorAttributes(model, slice);
+            model.addAttribute("totalItems", slice.getApproximateTotal());
+            model.addAttribute("sortBy", sortBy);
+            model.addAttribute("sortDir", sortDir);
+            model.addAttribute("categories", categoryService.getActiveCategories());
+            return "products/list";
+        }
+        
         Page<Product> productPage = productService.getAllProducts(page, size, sortBy, sortDir);
         
         model.addAttribute("products", productPage.getContent());
@@ -85,27 +134,41 @@ public class ProductController {
             .orElseThrow(() -> new RuntimeException("Product not found"));
         
         model.addAttribute("product", product);
+        model.addAttribute("editBase", productService.getEditBase(product));
         model.addAttribute("categories", categoryService.getActiveCategories());
         return "products/form";
     }
     
-    // Update product
+    // Update product; editBase holds the values the form was opened with, for merging
     @PostMapping("/{id}")
     public String updateProduct(@PathVariable Long id, 
                               @Valid @ModelAttribute Product product, 
                               BindingResult result, 
+                              @RequestParam(required = false) String editBase,
                               Model model,
                               RedirectAttributes redirectAttributes) {
         
+        model.addAttribute("editBase", editBase);
         if (result.hasErrors()) {
             model.addAttribute("categories", categoryService.getActiveCategories());
             return "products/form";
         }
         
         try {
-            productService.updateProduct(id, product);
+            productService.updateProduct(id, product, editBase);
             redirectAttributes.addFlashAttribute("success", "Product updated successfully!");
             return "redirect:/products";
+        } catch (EditConflictException e) {
+            // Show the form again on top of the current version, so saving it again overwrites
+            product.setVersion(e.getCurrentVersion());
+            model.addAttribute("editBase", e.getCurrentBase());
+            model.addAttribute("error", e.getMessage());
+            model.addAttribute("categories", categoryService.getActiveCategories());
+            return "products/form";
+        } catch (PartialEditException e) {
+            // Part of the edit is saved, so the form no longer matches the product
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/products";
         } catch (Exception e) {
             model.addAttribute("error", e.getMessage());
             model.addAttribute("categories", categoryService.getActiveCategories());
@@ -146,15 +209,31 @@ public class ProductController {
             @RequestParam(required = false) Integer minQuantity,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal,
             Model model) {
         
-        Page<Product> productPage = productService.searchProducts(
-            name, category, brand, minPrice, maxPrice, minQuantity, page, size);
-        
-        model.addAttribute("products", productPage.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", productPage.getTotalPages());
-        model.addAttribute("totalItems", productPage.getTotalElements());
+        if (cursor != null) {
+            ProductSlice slice;
+            try {
+                slice = productService.searchProductsByCursor(
+                    name, category, brand, minPrice, maxPrice, minQuantity, cursor, size, withTotal);
+            } catch (IllegalArgumentException e) {
+                model.addAttribute("error", e.getMessage());
+                slice = productService.searchProductsByCursor(
+                    name, category, brand, minPrice, maxPrice, minQuantity, null, size, withTotal);
+            }
+            addCursorAttributes(model, slice);
+            model.addAttribute("totalItems", slice.getApproximateTotal());
+        } else {
+            Page<Product> productPage = productService.searchProducts(
+                name, category, brand, minPrice, maxPrice, minQuantity, page, size);
+            
+            model.addAttribute("products", productPage.getContent());
+            model.addAttribute("currentPage", page);
+            model.addAttribute("totalPages", productPage.getTotalPages());
+            model.addAttribute("totalItems", productPage.getTotalElements());
+        }
         model.addAttribute("categories", categoryService.getActiveCategories());
         
         // Add search parameters to model for form persistence
@@ -193,6 +272,7 @@ public class ProductController {
             .orElseThrow(() -> new RuntimeException("Product not found"));
         
         model.addAttribute("product", product);
+        model.addAttribute("movements", productService.getRecentStockMovements(id));
         return "products/stock";
     }
     
@@ -226,15 +306,133 @@ public class ProductController {
         return "redirect:/products/" + id + "/stock";
     }
     
+    // Live quantity changes as Server-Sent Events, optionally only for some products or one category
+    @GetMapping(value = "/stock/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stockFeed(@RequestParam(required = false) List<Long> productId,
+                                                @RequestParam(required = false) String category) {
+        try {
+            return ResponseEntity.ok(stockFeedService.subscribe(productId, category));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
+    // Bulk stock adjustment from a "sku,delta" CSV body (positive delta adds, negative removes)
+    @PostMapping(value = "/stock/bulk", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    @ResponseBody
+    public BulkStockAdjustmentResult bulkAdjustStockCsv(Reader body) throws IOException {
+        return productService.bulkAdjustStock(StockAdjustment.parseCsv(body));
+    }
+    
+    // Bulk stock adjustment from a JSON array of {"sku": ..., "delta": ...}
+    @PostMapping(value = "/stock/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public BulkStockAdjustmentResult bulkAdjustStockJson(@RequestBody List<StockAdjustment> adjustments) {
+        for (int i = 0; i < adjustments.size(); i++) {
+            adjustments.get(i).setLineNumber(i + 1);
+        }
+        return productService.bulkAdjustStock(adjustments);
+    }
+    
+    // Preview a bulk repricing (?dryRun=true): what would change, without changing anything
+    @PostMapping(value = "/reprice", params = "dryRun=true", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public RepricingPreview previewRepricing(@RequestBody RepricingRequest request) {
+        try {
+            return productService.previewRepricing(request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    // Bulk repricing of every product matching the filters: percentage or absolute change,
+    // rounding and a price floor, applied in chunked set-based updates
+    @PostMapping(value = "/reprice", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public RepricingResult repriceProducts(@RequestBody RepricingRequest request) {
+        try {
+            return productService.repriceProducts(request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    // Latest price changes of a product, newest first
+    @GetMapping("/{id}/price-history")
+    @ResponseBody
+    public List<PriceChange> priceHistory(@PathVariable Long id) {
+        return productService.getPriceHistory(id);
+    }
+    
+    // Import products from an uploaded CSV file; runs in the background, poll the returned job for progress
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseBody
+    public ResponseEntity<ProductImportResult> importProducts(@RequestParam("file") MultipartFile file) throws IOException {
+        // The upload is removed when the request ends, so hand the import its own copy
+        Path copy = Files.createTempFile("product-import-", ".csv");
+        file.transferTo(copy);
+        return ResponseEntity.accepted().body(productService.startProductImport(copy, file.getOriginalFilename()));
+    }
+    
+    // Import products streamed in a text/csv request body; responds when the import is done
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @ResponseBody
+    public ProductImportResult importProductsCsv(Reader body) {
+        return productService.importProducts(body, null);
+    }
+    
+    // Product import progress and error report
+    @GetMapping("/import/{jobId}")
+    @ResponseBody
+    public ResponseEntity<ProductImportResult> importStatus(@PathVariable String jobId) {
+        return ResponseEntity.of(productService.getProductImport(jobId));
+    }
+    
+    // Export the whole catalog as CSV or NDJSON, streamed row by row
+    @GetMapping("/export")
+    public void exportProducts(@RequestParam(defaultValue = "csv") String format,
+                               HttpServletResponse response) throws IOException {
+        boolean ndjson = format.equalsIgnoreCase("ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType(ndjson ? "application/x-ndjson" : "text/csv");
+        response.setHeader("Content-Disposition",
+            "attachment; filename=\"products." + (ndjson ? "ndjson" : "csv") + "\"");
+        if (ndjson) {
+            productService.exportProductsAsNdjson(response.getWriter());
+        } else {
+            productService.exportProductsAsCsv(response.getWriter());
+        }
+        response.flushBuffer();
+    }
+    
+    // Product lookup cache statistics
+    @GetMapping("/cache-stats")
+    @ResponseBody
+    public ProductCacheStats cacheStats() {
+        return productService.getProductCacheStats();
+    }
+    
     // Dashboard (optional)
     @GetMapping("/dashboard")
     public String dashboard(Model model) {
-        model.addAttribute("totalProducts", productService.getAllProducts().size());
-        model.addAttribute("lowStockProducts", productService.getLowStockProducts().size());
-        model.addAttribute("outOfStockProducts", productService.getOutOfStockProducts().size());
-        model.addAttribute("totalInventoryValue", productService.getTotalInventoryValue());
-        model.addAttribute("categoryStats", productService.getProductCountByCategory());
+        InventoryStats stats = inventoryStatsService.getStats();
+        model.addAttribute("totalProducts", stats.getTotalProducts());
+        model.addAttribute("lowStockProducts", stats.getLowStockProducts());
+        model.addAttribute("outOfStockProducts", stats.getOutOfStockProducts());
+        model.addAttribute("totalInventoryValue", stats.getTotalInventoryValue());
+        model.addAttribute("categoryStats", stats.getCategoryStats());
+        model.addAttribute("recentProducts", stats.getRecentProducts());
         
         return "index";
     }
+    
+    // Model attributes shared by the cursor-paged list and search views
+    private void addCursorAttributes(Model model, ProductSlice slice) {
+        model.addAttribute("products", slice.getContent());
+        model.addAttribute("cursorMode", true);
+        model.addAttribute("nextCursor", slice.getNextCursor());
+        model.addAttribute("previousCursor", slice.getPreviousCursor());
+        model.addAttribute("currentPage", 0);
+        model.addAttribute("totalPages", 0);
+    }
 }
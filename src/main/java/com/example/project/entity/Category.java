@@ -30,7 +30,12 @@ public class Category {
     @Column(name = "is_active")
     private Boolean isActive = true;
     
-    // Relationship to products removed. Products reference category by name (String) in this model.
+    // Optimistic lock, bumped by every update of the row
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
+    // Products reference a category by id (products.category_id); no collection is mapped here.
     
     // Default constructor
     public Category() {
@@ -93,7 +98,13 @@ public class Category {
         this.isActive = isActive;
     }
     
-    // No products collection maintained in this simplified model
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
     
     @PreUpdate
     public void preUpdate() {
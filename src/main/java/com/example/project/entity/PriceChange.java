@@ -0,0 +1,125 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One price change in a product's price history. Edits on the product form are saved one by
+// one; a bulk repricing writes its rows with INSERT ... SELECT (RepricingRepository) and tags
+// them with the id of the run.
+@Entity
+@Table(name = "price_changes", indexes = {
+    @Index(name = "idx_price_changes_product", columnList = "product_id, id"),
+    @Index(name = "idx_price_changes_repricing", columnList = "repricing_id")
+})
+public class PriceChange {
+    
+    public enum Type {
+        EDIT,     // price changed on the product form
+        REPRICE   // part of a bulk repricing
+    }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(name = "old_price", precision = 10, scale = 2, nullable = false)
+    private BigDecimal oldPrice;
+    
+    @Column(name = "new_price", precision = 10, scale = 2, nullable = false)
+    private BigDecimal newPrice;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", length = 10, nullable = false)
+    private Type type;
+    
+    @Column(name = "repricing_id", length = 36)
+    private String repricingId;
+    
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+    
+    // Default constructor
+    public PriceChange() {
+        this.changedAt = LocalDateTime.now();
+    }
+    
+    public PriceChange(Long productId, BigDecimal oldPrice, BigDecimal newPrice, Type type) {
+        this();
+        this.productId = productId;
+        this.oldPrice = oldPrice;
+        this.newPrice = newPrice;
+        this.type = type;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public BigDecimal getOldPrice() {
+        return oldPrice;
+    }
+    
+    public void setOldPrice(BigDecimal oldPrice) {
+        this.oldPrice = oldPrice;
+    }
+    
+    public BigDecimal getNewPrice() {
+        return newPrice;
+    }
+    
+    public void setNewPrice(BigDecimal newPrice) {
+        this.newPrice = newPrice;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public void setType(Type type) {
+        this.type = type;
+    }
+    
+    public String getRepricingId() {
+        return repricingId;
+    }
+    
+    public void setRepricingId(String repricingId) {
+        this.repricingId = repricingId;
+    }
+    
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+    
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "PriceChange{" +
+                "id=" + id +
+                ", productId=" + productId +
+                ", oldPrice=" + oldPrice +
+                ", newPrice=" + newPrice +
+                ", type=" + type +
+                '}';
+    }
+}
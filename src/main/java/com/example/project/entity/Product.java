@@ -1,14 +1,47 @@
 package com.example.project.entity;
 
+import com.example.project.service.CategoryNameListener;
+import com.example.project.service.StockLedgerQuantityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    // countLowStockProducts, findByStockStatus / countByStockStatus
+    @Index(name = "idx_products_stock_status", columnList = "stock_status, min_quantity"),
+    // findByCategory, category counts and searches filtered by category (+ brand, price)
+    @Index(name = "idx_products_category_brand_price", columnList = "category_id, brand, price"),
+    // a category's products in id order (keyset pages of findSummariesByCategoryAfter)
+    @Index(name = "idx_products_category_id", columnList = "category_id, id"),
+    // findByBrand and searches filtered by brand (+ price)
+    @Index(name = "idx_products_brand_price", columnList = "brand, price"),
+    // price range finders and price-only searches
+    @Index(name = "idx_products_price", columnList = "price"),
+    // findByIsActiveTrue / countByIsActiveTrue
+    @Index(name = "idx_products_is_active", columnList = "is_active")
+})
+@EntityListeners({StockLedgerQuantityListener.class, CategoryNameListener.class})
 public class Product {
     
+    // Stock level bucket, stored so the low-stock and out-of-stock lookups can use an index
+    public enum StockStatus {
+        IN_STOCK,
+        LOW,  // 0 < quantity <= minQuantity
+        OUT;  // quantity == 0
+        
+        public static StockStatus of(Integer quantity, Integer minQuantity) {
+            if (quantity == null) {
+                return IN_STOCK;
+            }
+            if (quantity == 0) {
+                return OUT;
+            }
+            return minQuantity != null && minQuantity > 0 && quantity <= minQuantity ? LOW : IN_STOCK;
+        }
+    }
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -29,22 +62,39 @@ public class Product {
     
     @NotNull(message = "Price is required")
     @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+    @Digits(integer = 8, fraction = 2, message = "Price must fit 8 digits and 2 decimals")
     @Column(name = "price", precision = 10, scale = 2, nullable = false)
     private BigDecimal price;
     
     @NotNull(message = "Quantity is required")
     @Min(value = 0, message = "Quantity cannot be negative")
-    @Column(name = "quantity", nullable = false)
+    // Set on insert, then only moved by StockLedger compaction; the current value is overlaid on load
+    @Column(name = "quantity", nullable = false, updatable = false)
     private Integer quantity;
     
     @Min(value = 0, message = "Minimum quantity cannot be negative")
     @Column(name = "min_quantity")
     private Integer minQuantity;
     
+    // Reference into the categories table; the name below is looked up from CategoryService
+    @Column(name = "category_id")
+    private Long categoryId;
+    
+    // Mapped only so the schema gets the foreign key; never read
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", insertable = false, updatable = false,
+                foreignKey = @ForeignKey(name = "fk_products_category"))
+    private Category categoryReference;
+    
+    // Category name, filled in on load; services turn it into categoryId on writes
     @Size(max = 50, message = "Category cannot exceed 50 characters")
-    @Column(name = "category", length = 50)
+    @Transient
     private String category;
     
+    // Free-text category from before category_id existed. Emptied row by row by CategoryMigration.
+    @Column(name = "category", length = 50, insertable = false, updatable = false)
+    private String legacyCategory;
+    
     @Size(max = 50, message = "Brand cannot exceed 50 characters")
     @Column(name = "brand", length = 50)
     private String brand;
@@ -62,6 +112,17 @@ public class Product {
     @Column(name = "is_active")
     private Boolean isActive = true;
     
+    // Refreshed on every insert/update and by StockLedger compaction (see StockStatus.of)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "stock_status", length = 10)
+    private StockStatus stockStatus;
+    
+    // Optimistic lock, bumped by every update of the row and by bulk repricing. Stock movements
+    // go through the stock ledger and leave it alone, so they never conflict with product edits.
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     // Default constructor
     public Product() {
         this.createdAt = LocalDateTime.now();
@@ -134,6 +195,14 @@ public class Product {
         this.minQuantity = minQuantity;
     }
     
+    public Long getCategoryId() {
+        return categoryId;
+    }
+    
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+    
     public String getCategory() {
         return category;
     }
@@ -142,6 +211,14 @@ public class Product {
         this.category = category;
     }
     
+    public String getLegacyCategory() {
+        return legacyCategory;
+    }
+    
+    public void setLegacyCategory(String legacyCategory) {
+        this.legacyCategory = legacyCategory;
+    }
+    
     public String getBrand() {
         return brand;
     }
@@ -182,9 +259,33 @@ public class Product {
         this.isActive = isActive;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    // Derived from the current quantity, which may be ahead of the stored column
+    public StockStatus getStockStatus() {
+        return StockStatus.of(quantity, minQuantity);
+    }
+    
+    // The stored value; recomputed from the quantity on every insert/update
+    public void setStockStatus(StockStatus stockStatus) {
+        this.stockStatus = stockStatus;
+    }
+    
+    @PrePersist
+    public void prePersist() {
+        this.stockStatus = getStockStatus();
+    }
+    
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
+        this.stockStatus = getStockStatus();
     }
     
     @Override
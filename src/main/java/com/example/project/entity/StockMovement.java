@@ -0,0 +1,127 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One stock change in the append-only ledger. Rows are only ever inserted (by StockLedger,
+// in JDBC batches) and later marked compacted once their delta has been folded into
+// products.quantity.
+@Entity
+@Table(name = "stock_movements", indexes = {
+    @Index(name = "idx_stock_movements_product", columnList = "product_id, id"),
+    @Index(name = "idx_stock_movements_compacted", columnList = "compacted, id")
+})
+public class StockMovement {
+    
+    public enum Type {
+        ADD,     // goods received
+        REMOVE,  // goods issued
+        SET,     // stock count correction
+        BULK,    // line of a bulk adjustment
+        EDIT     // quantity changed on the product form
+    }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(name = "delta", nullable = false)
+    private Integer delta;
+    
+    @Column(name = "quantity_after", nullable = false)
+    private Integer quantityAfter;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", length = 10, nullable = false)
+    private Type type;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "compacted", nullable = false)
+    private Boolean compacted = false;
+    
+    // Default constructor
+    public StockMovement() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public StockMovement(Long productId, int delta, int quantityAfter, Type type) {
+        this();
+        this.productId = productId;
+        this.delta = delta;
+        this.quantityAfter = quantityAfter;
+        this.type = type;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public Integer getDelta() {
+        return delta;
+    }
+    
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+    
+    public Integer getQuantityAfter() {
+        return quantityAfter;
+    }
+    
+    public void setQuantityAfter(Integer quantityAfter) {
+        this.quantityAfter = quantityAfter;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public void setType(Type type) {
+        this.type = type;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public Boolean getCompacted() {
+        return compacted;
+    }
+    
+    public void setCompacted(Boolean compacted) {
+        this.compacted = compacted;
+    }
+    
+    @Override
+    public String toString() {
+        return "StockMovement{" +
+                "id=" + id +
+                ", productId=" + productId +
+                ", delta=" + delta +
+                ", quantityAfter=" + quantityAfter +
+                ", type=" + type +
+                '}';
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.project.event;
+
+// Published by ProductService for every product write.
+// before is null for a newly created product, after is null for a hard delete.
+public class ProductChangedEvent {
+    
+    private final ProductSnapshot before;
+    private final ProductSnapshot after;
+    
+    public ProductChangedEvent(ProductSnapshot before, ProductSnapshot after) {
+        if (before == null && after == null) {
+            throw new IllegalArgumentException("Either before or after state is required");
+        }
+        this.before = before;
+        this.after = after;
+    }
+    
+    public static ProductChangedEvent created(ProductSnapshot after) {
+        return new ProductChangedEvent(null, after);
+    }
+    
+    public static ProductChangedEvent updated(ProductSnapshot before, ProductSnapshot after) {
+        return new ProductChangedEvent(before, after);
+    }
+    
+    public static ProductChangedEvent deleted(ProductSnapshot before) {
+        return new ProductChangedEvent(before, null);
+    }
+    
+    public ProductSnapshot getBefore() {
+        return before;
+    }
+    
+    public ProductSnapshot getAfter() {
+        return after;
+    }
+    
+    public Long getProductId() {
+        return after != null ? after.getId() : before.getId();
+    }
+    
+    public boolean isCreated() {
+        return before == null;
+    }
+    
+    public boolean isDeleted() {
+        return after == null;
+    }
+    
+    // Net quantity change (a create counts up from 0, a hard delete down to 0)
+    public int getQuantityDelta() {
+        int oldQuantity = before != null && before.getQuantity() != null ? before.getQuantity() : 0;
+        int newQuantity = after != null && after.getQuantity() != null ? after.getQuantity() : 0;
+        return newQuantity - oldQuantity;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductChangedEvent{" +
+                "before=" + before +
+                ", after=" + after +
+                '}';
+    }
+}
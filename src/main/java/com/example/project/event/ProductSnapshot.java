@@ -0,0 +1,140 @@
+package com.example.project.event;
+
+import com.example.project.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Immutable copy of the product fields that in-memory components care about.
+// Safe to hand out after the persistence context that loaded the product is gone.
+public final class ProductSnapshot {
+    
+    private final Long id;
+    private final String name;
+    private final String sku;
+    private final BigDecimal price;
+    private final Integer quantity;
+    private final Integer minQuantity;
+    private final Long categoryId;
+    private final String category;
+    private final String brand;
+    private final Boolean isActive;
+    private final LocalDateTime createdAt;
+    
+    public ProductSnapshot(Long id, String name, String sku, BigDecimal price, Integer quantity,
+                           Integer minQuantity, Long categoryId, String category, String brand,
+                           Boolean isActive, LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.sku = sku;
+        this.price = price;
+        this.quantity = quantity;
+        this.minQuantity = minQuantity;
+        this.categoryId = categoryId;
+        this.category = category;
+        this.brand = brand;
+        this.isActive = isActive;
+        this.createdAt = createdAt;
+    }
+    
+    // Copy the current state of a product entity
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(product.getId(), product.getName(), product.getSku(), product.getPrice(),
+                product.getQuantity(), product.getMinQuantity(), product.getCategoryId(), product.getCategory(),
+                product.getBrand(), product.getIsActive(), product.getCreatedAt());
+    }
+    
+    // Same product with a different quantity
+    public ProductSnapshot withQuantity(Integer newQuantity) {
+        return new ProductSnapshot(id, name, sku, price, newQuantity, minQuantity, categoryId, category,
+                brand, isActive, createdAt);
+    }
+    
+    // Same product with a different price
+    public ProductSnapshot withPrice(BigDecimal newPrice) {
+        return new ProductSnapshot(id, name, sku, newPrice, quantity, minQuantity, categoryId, category,
+                brand, isActive, createdAt);
+    }
+    
+    // Stock value of this product (price * quantity)
+    public BigDecimal getStockValue() {
+        if (price == null || quantity == null) {
+            return BigDecimal.ZERO;
+        }
+        return price.multiply(BigDecimal.valueOf(quantity));
+    }
+    
+    // Stock level bucket, by the same rule as the stored products.stock_status
+    public Product.StockStatus getStockStatus() {
+        return Product.StockStatus.of(quantity, minQuantity);
+    }
+    
+    // At or below a positive minimum, empty included (as ProductRepository.countLowStockProducts)
+    public boolean isLowStock() {
+        return quantity != null && minQuantity != null && minQuantity > 0 && quantity <= minQuantity;
+    }
+    
+    public boolean isOutOfStock() {
+        return getStockStatus() == Product.StockStatus.OUT;
+    }
+    
+    public boolean isActiveProduct() {
+        return Boolean.TRUE.equals(isActive);
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getSku() {
+        return sku;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public Integer getMinQuantity() {
+        return minQuantity;
+    }
+    
+    public Long getCategoryId() {
+        return categoryId;
+    }
+    
+    // Category name at the time of the snapshot; use getCategoryId to group or filter
+    public String getCategory() {
+        return category;
+    }
+    
+    public String getBrand() {
+        return brand;
+    }
+    
+    public Boolean getIsActive() {
+        return isActive;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductSnapshot{" +
+                "id=" + id +
+                ", sku='" + sku + '\'' +
+                ", quantity=" + quantity +
+                ", category='" + category + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.project.event;
+
+// Published by LowStockWatchlist when a committed write moves a product across a stock threshold.
+// One write can cross more than one threshold (e.g. LOW_STOCK and OUT_OF_STOCK together).
+public class StockThresholdEvent {
+    
+    public enum Crossing {
+        LOW_STOCK,        // quantity fell to or below minQuantity
+        STOCK_RECOVERED,  // quantity rose back above minQuantity
+        OUT_OF_STOCK,     // quantity reached zero
+        BACK_IN_STOCK     // quantity rose from zero
+    }
+    
+    private final Crossing crossing;
+    private final ProductSnapshot product;
+    
+    public StockThresholdEvent(Crossing crossing, ProductSnapshot product) {
+        this.crossing = crossing;
+        this.product = product;
+    }
+    
+    public Crossing getCrossing() {
+        return crossing;
+    }
+    
+    public ProductSnapshot getProduct() {
+        return product;
+    }
+    
+    @Override
+    public String toString() {
+        return "StockThresholdEvent{" +
+                "crossing=" + crossing +
+                ", product=" + product +
+                '}';
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.project.repository;
+
+import com.example.project.entity.PriceChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// Price history; bulk repricing rows are written by RepricingRepository
+@Repository
+public interface PriceChangeRepository extends JpaRepository<PriceChange, Long> {
+    
+    // Latest price changes of one product, newest first
+    List<PriceChange> findTop20ByProductIdOrderByIdDesc(Long productId);
+}
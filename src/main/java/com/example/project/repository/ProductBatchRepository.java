@@ -0,0 +1,91 @@
+package com.example.project.repository;
+
+import com.example.project.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Plain JDBC batch statements for bulk work where going through the entity manager
+// would mean one round trip per row. Runs inside the caller's transaction.
+@Repository
+public class ProductBatchRepository {
+    
+    private static final String INSERT_PRODUCT_SQL =
+        "INSERT INTO products (name, description, sku, price, quantity, min_quantity, category_id, brand, unit, " +
+        "created_at, updated_at, is_active, stock_status, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    
+    private static final String FIND_LEGACY_CATEGORIES_SQL =
+        "SELECT id, category FROM products WHERE id > ? AND category IS NOT NULL ORDER BY id LIMIT ?";
+    
+    // A category_id set by an edit since the row was read wins over the old name
+    private static final String ASSIGN_CATEGORY_SQL =
+        "UPDATE products SET category_id = COALESCE(category_id, ?), category = NULL WHERE id = ?";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Insert new products as one JDBC batch. Product ids are IDENTITY columns, which keeps
+    // Hibernate from batching persist() calls, so bulk loads go through here instead.
+    public void insertProducts(List<Product> products) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Product product = products.get(i);
+                ps.setString(1, product.getName());
+                ps.setString(2, product.getDescription());
+                ps.setString(3, product.getSku());
+                ps.setBigDecimal(4, product.getPrice());
+                ps.setInt(5, product.getQuantity());
+                ps.setObject(6, product.getMinQuantity(), Types.INTEGER);
+                ps.setObject(7, product.getCategoryId(), Types.BIGINT);
+                ps.setString(8, product.getBrand());
+                ps.setString(9, product.getUnit());
+                ps.setTimestamp(10, now);
+                ps.setTimestamp(11, now);
+                ps.setObject(12, product.getIsActive(), Types.BOOLEAN);
+                ps.setString(13, product.getStockStatus().name());
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return products.size();
+            }
+        });
+    }
+    
+    // Next rows after the given id that still carry a free-text category, as id -> name in id order
+    public Map<Long, String> findLegacyCategories(long afterId, int limit) {
+        Map<Long, String> categories = new LinkedHashMap<>();
+        jdbcTemplate.query(FIND_LEGACY_CATEGORIES_SQL,
+            rs -> { categories.put(rs.getLong(1), rs.getString(2)); }, afterId, limit);
+        return categories;
+    }
+    
+    // Point products at their category ids (product id -> category id) and clear the old names
+    public void assignCategories(Map<Long, Long> categoryIds) {
+        List<Map.Entry<Long, Long>> rows = List.copyOf(categoryIds.entrySet());
+        jdbcTemplate.batchUpdate(ASSIGN_CATEGORY_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setObject(1, rows.get(i).getValue(), Types.BIGINT);
+                ps.setLong(2, rows.get(i).getKey());
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+}
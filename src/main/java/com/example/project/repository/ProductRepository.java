@@ -1,28 +1,33 @@
 package com.example.project.repository;
 
 import com.example.project.entity.Product;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
     
     // Find by SKU
     Optional<Product> findBySku(String sku);
     
-    // Find by name containing (case-insensitive)
-    List<Product> findByNameContainingIgnoreCase(String name);
-    
     // Find by category
-    List<Product> findByCategory(String category);
+    List<Product> findByCategoryId(Long categoryId);
+    
+    // Check if any product is filed under a category
+    boolean existsByCategoryId(Long categoryId);
     
     // Find by brand
     List<Product> findByBrand(String brand);
@@ -30,12 +35,42 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Find active products
     List<Product> findByIsActiveTrue();
     
-    // Find products with low stock (quantity <= minQuantity)
-    @Query("SELECT p FROM Product p WHERE p.quantity <= p.minQuantity AND p.minQuantity > 0")
-    List<Product> findLowStockProducts();
+    // Count products with low stock (quantity <= minQuantity), including empty ones with a minimum
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.stockStatus IN (com.example.project.entity.Product.StockStatus.LOW, " +
+           "com.example.project.entity.Product.StockStatus.OUT) AND p.minQuantity > 0")
+    long countLowStockProducts();
+    
+    // Find products by stock status
+    List<Product> findByStockStatus(Product.StockStatus stockStatus);
+    
+    // Count products by stock status
+    long countByStockStatus(Product.StockStatus stockStatus);
+    
+    // Count active products
+    long countByIsActiveTrue();
+    
+    // Find most recently created products
+    List<Product> findTop5ByOrderByIdDesc();
+    
+    // Product list rows in id order after the given id (keyset pagination), as ProductSummary DTOs
+    @Query("SELECT new com.example.project.repository.ProductSummary(p.id, p.sku, p.name, p.categoryId, p.brand, " +
+           "p.price, p.quantity, p.minQuantity, p.isActive) FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSummary> findSummariesAfter(@Param("afterId") long afterId, Limit limit);
     
-    // Find products with zero stock
-    List<Product> findByQuantity(Integer quantity);
+    // Same, for one category
+    @Query("SELECT new com.example.project.repository.ProductSummary(p.id, p.sku, p.name, p.categoryId, p.brand, " +
+           "p.price, p.quantity, p.minQuantity, p.isActive) FROM Product p " +
+           "WHERE p.categoryId = :categoryId AND p.id > :afterId ORDER BY p.id")
+    List<ProductSummary> findSummariesByCategoryAfter(@Param("categoryId") Long categoryId,
+                                                      @Param("afterId") long afterId, Limit limit);
+    
+    // Stream every product in id order through a server-side cursor (caller must hold a transaction)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAll();
     
     // Find products by price range
     List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
@@ -46,28 +81,24 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Find products by price greater than
     List<Product> findByPriceGreaterThan(BigDecimal price);
     
-    // Search products by multiple criteria
-    @Query("SELECT p FROM Product p WHERE " +
-           "(:name IS NULL OR p.name LIKE %:name%) AND " +
-           "(:category IS NULL OR p.category = :category) AND " +
-           "(:brand IS NULL OR p.brand = :brand) AND " +
-           "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
-           "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
-           "(:minQuantity IS NULL OR p.quantity >= :minQuantity)")
-    Page<Product> searchProducts(
-            @Param("name") String name,
-            @Param("category") String category,
-            @Param("brand") String brand,
-            @Param("minPrice") BigDecimal minPrice,
-            @Param("maxPrice") BigDecimal maxPrice,
-            @Param("minQuantity") Integer minQuantity,
-            Pageable pageable
-    );
-    
-    // Count products by category
-    @Query("SELECT p.category, COUNT(p) FROM Product p GROUP BY p.category")
+    // Count products by category, as [category id, count] rows
+    @Query("SELECT p.categoryId, COUNT(p) FROM Product p GROUP BY p.categoryId")
     List<Object[]> countProductsByCategory();
     
+    // Per-category totals as [category id, products, active, low stock, stock value] rows.
+    // products.quantity trails the stock ledger, so the movements not yet compacted into it
+    // are added here rather than compacting first.
+    @Query("SELECT p.categoryId, COUNT(p), " +
+           "SUM(CASE WHEN p.isActive = true THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN p.minQuantity > 0 " +
+           "AND p.quantity + COALESCE(pending.delta, 0) <= p.minQuantity THEN 1 ELSE 0 END), " +
+           "SUM(p.price * (p.quantity + COALESCE(pending.delta, 0))) " +
+           "FROM Product p LEFT JOIN (SELECT m.productId AS productId, SUM(m.delta) AS delta " +
+           "FROM StockMovement m WHERE m.compacted = false GROUP BY m.productId) pending " +
+           "ON pending.productId = p.id " +
+           "GROUP BY p.categoryId")
+    List<Object[]> summarizeByCategory();
+    
     // Get total inventory value
     @Query("SELECT SUM(p.price * p.quantity) FROM Product p")
     BigDecimal getTotalInventoryValue();
@@ -75,6 +106,21 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Check if SKU exists
     boolean existsBySku(String sku);
     
+    // Resolve many SKUs at once, as [sku, id] rows
+    @Query("SELECT p.sku, p.id FROM Product p WHERE p.sku IN :skus")
+    List<Object[]> findIdsBySkuIn(@Param("skus") Collection<String> skus);
+    
+    // Which of these SKUs already exist
+    @Query("SELECT p.sku FROM Product p WHERE p.sku IN :skus")
+    List<String> findExistingSkus(@Param("skus") Collection<String> skus);
+    
+    // Find by many SKUs
+    List<Product> findBySkuIn(Collection<String> skus);
+    
+    // Read the stored (compacted) quantity without loading the entity
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
+    
     // Find products expiring soon (if you add expiry date later)
     // @Query("SELECT p FROM Product p WHERE p.expiryDate <= :date")
     // List<Product> findExpiringProducts(@Param("date") LocalDate date);
@@ -0,0 +1,42 @@
+package com.example.project.repository;
+
+import com.example.project.entity.Product;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Criteria-API product search. Only the criteria actually given become predicates, so each
+// search can use the matching index on products (see Product's @Table indexes).
+public final class ProductSpecifications {
+    
+    private ProductSpecifications() {
+    }
+    
+    // Null or blank criteria are ignored. There is no text criterion: a LIKE '%text%' cannot
+    // use an index, so text searches go through ProductSearchIndex instead.
+    public static Specification<Product> matching(Long categoryId, String brand,
+                                                  BigDecimal minPrice, BigDecimal maxPrice, Integer minQuantity) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (categoryId != null) {
+                predicates.add(cb.equal(root.get("categoryId"), categoryId));
+            }
+            if (brand != null && !brand.isBlank()) {
+                predicates.add(cb.equal(root.get("brand"), brand));
+            }
+            if (minPrice != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+            }
+            if (minQuantity != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("quantity"), minQuantity));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
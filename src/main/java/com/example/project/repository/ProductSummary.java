@@ -0,0 +1,87 @@
+package com.example.project.repository;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductSnapshot;
+
+import java.math.BigDecimal;
+
+// Columns a product list shows, selected straight into this DTO by the summary finders in
+// ProductRepository: no description or audit columns are read, and nothing enters the
+// persistence context, so there is nothing to dirty-check. quantity is products.quantity,
+// the compacted snapshot; callers replace it with the stock ledger's current value.
+public final class ProductSummary {
+    
+    private final Long id;
+    private final String sku;
+    private final String name;
+    private final Long categoryId;
+    private final String brand;
+    private final BigDecimal price;
+    private final Integer quantity;
+    private final Integer minQuantity;
+    private final Boolean isActive;
+    
+    public ProductSummary(Long id, String sku, String name, Long categoryId, String brand, BigDecimal price,
+                          Integer quantity, Integer minQuantity, Boolean isActive) {
+        this.id = id;
+        this.sku = sku;
+        this.name = name;
+        this.categoryId = categoryId;
+        this.brand = brand;
+        this.price = price;
+        this.quantity = quantity;
+        this.minQuantity = minQuantity;
+        this.isActive = isActive;
+    }
+    
+    public static ProductSummary of(ProductSnapshot product) {
+        return new ProductSummary(product.getId(), product.getSku(), product.getName(), product.getCategoryId(),
+            product.getBrand(), product.getPrice(), product.getQuantity(), product.getMinQuantity(),
+            product.getIsActive());
+    }
+    
+    // Same product with a different quantity
+    public ProductSummary withQuantity(Integer newQuantity) {
+        return new ProductSummary(id, sku, name, categoryId, brand, price, newQuantity, minQuantity, isActive);
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getSku() {
+        return sku;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public Long getCategoryId() {
+        return categoryId;
+    }
+    
+    public String getBrand() {
+        return brand;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public Integer getMinQuantity() {
+        return minQuantity;
+    }
+    
+    public Boolean getIsActive() {
+        return isActive;
+    }
+    
+    public Product.StockStatus getStockStatus() {
+        return Product.StockStatus.of(quantity, minQuantity);
+    }
+}
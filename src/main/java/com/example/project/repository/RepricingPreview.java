@@ -0,0 +1,58 @@
+package com.example.project.repository;
+
+import java.math.BigDecimal;
+
+// Outcome of a repricing without applying it (RepricingRepository.preview). Totals are sums of
+// unit prices over the matched products; min and max are null when nothing matches.
+public final class RepricingPreview {
+    
+    private final long matched;
+    private final long changed;
+    private final long floored;
+    private final BigDecimal currentPriceTotal;
+    private final BigDecimal newPriceTotal;
+    private final BigDecimal minNewPrice;
+    private final BigDecimal maxNewPrice;
+    
+    public RepricingPreview(long matched, long changed, long floored, BigDecimal currentPriceTotal,
+                            BigDecimal newPriceTotal, BigDecimal minNewPrice, BigDecimal maxNewPrice) {
+        this.matched = matched;
+        this.changed = changed;
+        this.floored = floored;
+        this.currentPriceTotal = currentPriceTotal;
+        this.newPriceTotal = newPriceTotal;
+        this.minNewPrice = minNewPrice;
+        this.maxNewPrice = maxNewPrice;
+    }
+    
+    // Products matching the filter
+    public long getMatched() {
+        return matched;
+    }
+    
+    // Matched products whose price would change
+    public long getChanged() {
+        return changed;
+    }
+    
+    // Matched products held up by the price floor
+    public long getFloored() {
+        return floored;
+    }
+    
+    public BigDecimal getCurrentPriceTotal() {
+        return currentPriceTotal;
+    }
+    
+    public BigDecimal getNewPriceTotal() {
+        return newPriceTotal;
+    }
+    
+    public BigDecimal getMinNewPrice() {
+        return minNewPrice;
+    }
+    
+    public BigDecimal getMaxNewPrice() {
+        return maxNewPrice;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.project.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Set-based statements behind bulk repricing. A chunk is a range of product ids: its rows are
+// locked, their price history written with one INSERT ... SELECT and their prices changed with
+// one UPDATE, all in the caller's transaction. Only products whose price actually changes are
+// touched, so a rerun that changes nothing writes nothing.
+@Repository
+public class RepricingRepository {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Lock the next products after afterId whose price the rule changes; id -> current price in id order
+    public Map<Long, BigDecimal> lockNextChunk(RepricingRule rule, long afterId, int limit) {
+        String sql = "SELECT id, price FROM products WHERE " + rule.condition() + " AND id > ? AND " +
+            rule.newPrice() + " <> price ORDER BY id LIMIT ? FOR UPDATE";
+        List<Object> args = new ArrayList<>(rule.conditionArgs());
+        args.add(afterId);
+        args.add(rule.roundedPriceArg());
+        args.add(rule.getFloor());
+        args.add(limit);
+        
+        Map<Long, BigDecimal> prices = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> { prices.put(rs.getLong(1), rs.getBigDecimal(2)); }, args.toArray());
+        return prices;
+    }
+    
+    // Record the old and new price of every product the rule changes in (afterId, lastId]
+    public int insertPriceChanges(RepricingRule rule, long afterId, long lastId, String repricingId, LocalDateTime at) {
+        String sql = "INSERT INTO price_changes (product_id, old_price, new_price, type, repricing_id, changed_at) " +
+            "SELECT id, price, " + rule.newPrice() + ", 'REPRICE', ?, ? FROM products WHERE " + chunkCondition(rule);
+        List<Object> args = new ArrayList<>();
+        args.add(rule.roundedPriceArg());
+        args.add(rule.getFloor());
+        args.add(repricingId);
+        args.add(Timestamp.valueOf(at));
+        args.addAll(chunkArgs(rule, afterId, lastId));
+        return jdbcTemplate.update(sql, args.toArray());
+    }
+    
+    // Change the price of every product the rule changes in (afterId, lastId]
+    public int updatePrices(RepricingRule rule, long afterId, long lastId, LocalDateTime at) {
+        // Bumps the optimistic lock, so a product form opened before the repricing merges with it
+        String sql = "UPDATE products SET price = " + rule.newPrice() + ", updated_at = ?, version = version + 1 WHERE " +
+            chunkCondition(rule);
+        List<Object> args = new ArrayList<>();
+        args.add(rule.roundedPriceArg());
+        args.add(rule.getFloor());
+        args.add(Timestamp.valueOf(at));
+        args.addAll(chunkArgs(rule, afterId, lastId));
+        return jdbcTemplate.update(sql, args.toArray());
+    }
+    
+    // What the rule would do to all matching products, in one aggregate query
+    public RepricingPreview preview(RepricingRule rule) {
+        String sql = "SELECT COUNT(*), " +
+            "COALESCE(SUM(CASE WHEN new_price <> old_price THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN rounded_price < new_price THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(old_price), 0), COALESCE(SUM(new_price), 0), MIN(new_price), MAX(new_price) " +
+            "FROM (SELECT old_price, rounded_price, GREATEST(rounded_price, " + RepricingRule.FLOOR_SQL + ") AS new_price " +
+            "FROM (SELECT price AS old_price, " + rule.roundedPrice() + " AS rounded_price " +
+            "FROM products WHERE " + rule.condition() + ") r) p";
+        List<Object> args = new ArrayList<>();
+        args.add(rule.getFloor());
+        args.add(rule.roundedPriceArg());
+        args.addAll(rule.conditionArgs());
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new RepricingPreview(rs.getLong(1), rs.getLong(2),
+            rs.getLong(3), rs.getBigDecimal(4), rs.getBigDecimal(5), rs.getBigDecimal(6), rs.getBigDecimal(7)),
+            args.toArray());
+    }
+    
+    private static String chunkCondition(RepricingRule rule) {
+        return rule.condition() + " AND id > ? AND id <= ? AND " + rule.newPrice() + " <> price";
+    }
+    
+    private static List<Object> chunkArgs(RepricingRule rule, long afterId, long lastId) {
+        List<Object> args = new ArrayList<>(rule.conditionArgs());
+        args.add(afterId);
+        args.add(lastId);
+        args.add(rule.roundedPriceArg());
+        args.add(rule.getFloor());
+        return args;
+    }
+}
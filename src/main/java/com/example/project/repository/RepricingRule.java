@@ -0,0 +1,150 @@
+package com.example.project.repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// A price change for every product matching a filter, with the SQL fragments the repricing
+// statements share. The change, the rounding and the floor are evaluated by the database over
+// the price column, so a whole chunk of products is repriced by one UPDATE.
+public final class RepricingRule {
+    
+    public enum Change {
+        PERCENT,  // price * (1 + amount / 100)
+        AMOUNT    // price + amount
+    }
+    
+    public enum Rounding {
+        CENT("ROUND(%s, 2)"),
+        WHOLE("ROUND(%s, 0)"),
+        NINETY_NINE("ROUND(%s + 0.01, 0) - 0.01");  // nearest price ending in .99
+        
+        private final String sql;
+        
+        Rounding(String sql) {
+            this.sql = sql;
+        }
+    }
+    
+    // Placeholder for the floor, which keeps the column's scale
+    static final String FLOOR_SQL = "CAST(? AS DECIMAL(10, 2))";
+    
+    private final Long categoryId;
+    private final String brand;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final Change change;
+    private final BigDecimal amount;
+    private final Rounding rounding;
+    private final BigDecimal floor;
+    
+    public RepricingRule(Long categoryId, String brand, BigDecimal minPrice, BigDecimal maxPrice,
+                         Change change, BigDecimal amount, Rounding rounding, BigDecimal floor) {
+        this.categoryId = categoryId;
+        this.brand = brand;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.change = change;
+        this.amount = amount;
+        this.rounding = rounding;
+        this.floor = floor;
+    }
+    
+    // WHERE conditions selecting the products to reprice
+    String condition() {
+        StringBuilder sql = new StringBuilder("1 = 1");
+        if (categoryId != null) {
+            sql.append(" AND category_id = ?");
+        }
+        if (brand != null) {
+            sql.append(" AND brand = ?");
+        }
+        if (minPrice != null) {
+            sql.append(" AND price >= ?");
+        }
+        if (maxPrice != null) {
+            sql.append(" AND price <= ?");
+        }
+        return sql.toString();
+    }
+    
+    List<Object> conditionArgs() {
+        List<Object> args = new ArrayList<>();
+        if (categoryId != null) {
+            args.add(categoryId);
+        }
+        if (brand != null) {
+            args.add(brand);
+        }
+        if (minPrice != null) {
+            args.add(minPrice);
+        }
+        if (maxPrice != null) {
+            args.add(maxPrice);
+        }
+        return args;
+    }
+    
+    // Changed and rounded price, before the floor; one argument (the multiplier or the amount)
+    String roundedPrice() {
+        String changed = change == Change.PERCENT ? "price * CAST(? AS DECIMAL(19, 6))" : "price + CAST(? AS DECIMAL(19, 6))";
+        return String.format(rounding.sql, "(" + changed + ")");
+    }
+    
+    Object roundedPriceArg() {
+        return change == Change.PERCENT
+            ? BigDecimal.ONE.add(amount.movePointLeft(2))
+            : amount;
+    }
+    
+    // Final price; arguments are roundedPriceArg() and then the floor
+    String newPrice() {
+        return "GREATEST(" + roundedPrice() + ", " + FLOOR_SQL + ")";
+    }
+    
+    public Long getCategoryId() {
+        return categoryId;
+    }
+    
+    public String getBrand() {
+        return brand;
+    }
+    
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+    
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+    
+    public Change getChange() {
+        return change;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public Rounding getRounding() {
+        return rounding;
+    }
+    
+    public BigDecimal getFloor() {
+        return floor;
+    }
+    
+    @Override
+    public String toString() {
+        return "RepricingRule{" +
+                "categoryId=" + categoryId +
+                ", brand='" + brand + '\'' +
+                ", minPrice=" + minPrice +
+                ", maxPrice=" + maxPrice +
+                ", change=" + change +
+                ", amount=" + amount +
+                ", rounding=" + rounding +
+                ", floor=" + floor +
+                '}';
+    }
+}
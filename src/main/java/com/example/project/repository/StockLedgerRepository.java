@@ -0,0 +1,160 @@
+package com.example.project.repository;
+
+import com.example.project.entity.StockMovement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// JDBC statements behind StockLedger: the writer's batches (on its own connection) and the
+// compaction that folds movements into products.quantity (in the caller's transaction).
+//
+// Both lock the product rows they work on before reading any movements of them. Every writer
+// of a product's movements, on any instance, holds that lock until it commits, so the sums read
+// afterwards include every committed movement of the locked products and no other can be added
+// until the lock is released. The locking read comes first in the transaction on purpose: on
+// MySQL the snapshot of plain reads is taken at the first one, which is then after the locks.
+@Repository
+public class StockLedgerRepository {
+    
+    private static final String INSERT_MOVEMENT_SQL =
+        "INSERT INTO stock_movements (product_id, delta, quantity_after, type, created_at, compacted) " +
+        "VALUES (?, ?, ?, ?, ?, FALSE)";
+    
+    // Locks in id order, like every other statement taking several product locks here
+    private static final String LOCK_PRODUCTS_SQL =
+        "SELECT id, quantity FROM products WHERE id IN (%s) ORDER BY id FOR UPDATE";
+    
+    private static final String SUM_UNCOMPACTED_SQL =
+        "SELECT product_id, SUM(delta) FROM stock_movements WHERE compacted = FALSE AND product_id IN (%s) " +
+        "GROUP BY product_id";
+    
+    private static final String FIND_UNCOMPACTED_PRODUCTS_SQL =
+        "SELECT DISTINCT product_id FROM stock_movements WHERE compacted = FALSE ORDER BY product_id";
+    
+    // Product.StockStatus.of in SQL, over the given quantity expression
+    private static final String STOCK_STATUS_CASE =
+        "CASE WHEN %1$s = 0 THEN 'OUT' WHEN min_quantity > 0 AND %1$s <= min_quantity THEN 'LOW' ELSE 'IN_STOCK' END";
+    
+    // stock_status comes first: MySQL evaluates SET assignments left to right
+    private static final String FOLD_INTO_SNAPSHOT_SQL =
+        "UPDATE products SET stock_status = " + String.format(STOCK_STATUS_CASE, "(quantity + ?)") +
+        ", quantity = quantity + ?, updated_at = ? WHERE id = ?";
+    
+    private static final String FILL_STOCK_STATUS_SQL =
+        "UPDATE products SET stock_status = " + String.format(STOCK_STATUS_CASE, "quantity") +
+        " WHERE stock_status IS NULL";
+    
+    private static final String MARK_COMPACTED_SQL =
+        "UPDATE stock_movements SET compacted = TRUE WHERE compacted = FALSE AND product_id IN (%s)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Append movements as one JDBC batch on the given connection, in list order; the caller commits
+    public void insertMovements(Connection connection, List<StockMovement> movements) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_MOVEMENT_SQL)) {
+            for (StockMovement movement : movements) {
+                ps.setLong(1, movement.getProductId());
+                ps.setInt(2, movement.getDelta());
+                ps.setInt(3, movement.getQuantityAfter());
+                ps.setString(4, movement.getType().name());
+                ps.setTimestamp(5, Timestamp.valueOf(movement.getCreatedAt()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+    
+    // Lock the given products and return their current quantity (snapshot plus unfolded
+    // movements) by id; products that do not exist are missing from the result
+    public Map<Long, Integer> lockCurrentQuantities(Connection connection, Collection<Long> productIds) throws SQLException {
+        Map<Long, Integer> quantities = new HashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement(String.format(LOCK_PRODUCTS_SQL, placeholders(productIds.size())))) {
+            setIds(ps, productIds);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    quantities.put(rs.getLong(1), rs.getInt(2));
+                }
+            }
+        }
+        if (quantities.isEmpty()) {
+            return quantities;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(String.format(SUM_UNCOMPACTED_SQL, placeholders(quantities.size())))) {
+            setIds(ps, quantities.keySet());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    quantities.merge(rs.getLong(1), rs.getInt(2), Integer::sum);
+                }
+            }
+        }
+        return quantities;
+    }
+    
+    // Products with movements not yet folded into the snapshot, in id order
+    public List<Long> findUncompactedProductIds() {
+        return jdbcTemplate.queryForList(FIND_UNCOMPACTED_PRODUCTS_SQL, Long.class);
+    }
+    
+    // Lock the given products, add their unfolded movements to products.quantity and mark those
+    // movements as folded; returns the number of products folded
+    public int compact(List<Long> productIds) {
+        String ids = placeholders(productIds.size());
+        Object[] args = productIds.toArray();
+        jdbcTemplate.query(String.format(LOCK_PRODUCTS_SQL, ids), rs -> { }, args);
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        jdbcTemplate.query(String.format(SUM_UNCOMPACTED_SQL, ids),
+            rs -> { deltas.put(rs.getLong(1), rs.getInt(2)); }, args);
+        
+        List<Map.Entry<Long, Integer>> rows = List.copyOf(deltas.entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(FOLD_INTO_SNAPSHOT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, rows.get(i).getValue());
+                ps.setInt(2, rows.get(i).getValue());
+                ps.setInt(3, rows.get(i).getValue());
+                ps.setTimestamp(4, now);
+                ps.setLong(5, rows.get(i).getKey());
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+        // Movements of products deleted since are marked too, so they are not summed again
+        jdbcTemplate.update(String.format(MARK_COMPACTED_SQL, ids), args);
+        return rows.size();
+    }
+    
+    // Set stock_status on rows written before the column existed; returns the number of rows
+    public int fillMissingStockStatus() {
+        return jdbcTemplate.update(FILL_STOCK_STATUS_SQL);
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
+    private static void setIds(PreparedStatement ps, Collection<Long> ids) throws SQLException {
+        int index = 1;
+        for (Long id : ids) {
+            ps.setLong(index++, id);
+        }
+    }
+}
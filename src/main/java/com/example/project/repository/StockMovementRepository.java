@@ -0,0 +1,15 @@
+package com.example.project.repository;
+
+import com.example.project.entity.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// Read side of the stock ledger; rows are written by StockLedgerRepository
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+    
+    // Latest movements of one product, newest first
+    List<StockMovement> findTop20ByProductIdOrderByIdDesc(Long productId);
+}
@@ -0,0 +1,101 @@
+package com.example.project.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Summary of a bulk stock adjustment; failed lines are listed, applied lines only counted
+public class BulkStockAdjustmentResult {
+    
+    public enum FailureReason {
+        INVALID_LINE,
+        UNKNOWN_SKU,
+        INSUFFICIENT_STOCK,
+        ERROR
+    }
+    
+    private final int totalLines;
+    private int applied;
+    private final List<LineFailure> failures = new ArrayList<>();
+    private long elapsedMillis;
+    
+    public BulkStockAdjustmentResult(int totalLines) {
+        this.totalLines = totalLines;
+    }
+    
+    void addApplied(int count) {
+        applied += count;
+    }
+    
+    void addFailure(StockAdjustment line, FailureReason reason, String message) {
+        failures.add(new LineFailure(line.getLineNumber(), line.getSku(), line.getDelta(), reason, message));
+    }
+    
+    // Fold in the outcome of one committed chunk
+    void merge(BulkStockAdjustmentResult chunkResult) {
+        applied += chunkResult.applied;
+        failures.addAll(chunkResult.failures);
+    }
+    
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    public int getTotalLines() {
+        return totalLines;
+    }
+    
+    public int getApplied() {
+        return applied;
+    }
+    
+    public int getFailed() {
+        return failures.size();
+    }
+    
+    public List<LineFailure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    // One rejected input line
+    public static class LineFailure {
+        
+        private final int line;
+        private final String sku;
+        private final Integer delta;
+        private final FailureReason reason;
+        private final String message;
+        
+        public LineFailure(int line, String sku, Integer delta, FailureReason reason, String message) {
+            this.line = line;
+            this.sku = sku;
+            this.delta = delta;
+            this.reason = reason;
+            this.message = message;
+        }
+        
+        public int getLine() {
+            return line;
+        }
+        
+        public String getSku() {
+            return sku;
+        }
+        
+        public Integer getDelta() {
+            return delta;
+        }
+        
+        public FailureReason getReason() {
+            return reason;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+    }
+}
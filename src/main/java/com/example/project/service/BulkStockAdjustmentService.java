@@ -0,0 +1,161 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.entity.StockMovement;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import com.example.project.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Applies large (sku, delta) batches in chunks. Each chunk resolves its SKUs with one query,
+// hands all its deltas to the stock ledger at once (so they share the writer's batches) and
+// publishes its events in a transaction of its own, so a bad line never aborts the batch.
+@Service
+public class BulkStockAdjustmentService {
+    
+    private static final Logger log = LoggerFactory.getLogger(BulkStockAdjustmentService.class);
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private InventoryStatsService inventoryStatsService;
+    
+    @Value("${inventory.bulk.chunk-size:1000}")
+    private int chunkSize;
+    
+    // Apply all adjustments, chunk by chunk; call outside a transaction
+    public BulkStockAdjustmentResult adjustStock(List<StockAdjustment> adjustments) {
+        long start = System.currentTimeMillis();
+        BulkStockAdjustmentResult result = new BulkStockAdjustmentResult(adjustments.size());
+        
+        for (int from = 0; from < adjustments.size(); from += chunkSize) {
+            List<StockAdjustment> chunk = adjustments.subList(from, Math.min(from + chunkSize, adjustments.size()));
+            // The chunk's changes are in the ledger before their events are published
+            inventoryStatsService.beginWrite();
+            try {
+                result.merge(applyChunk(chunk));
+            } catch (RuntimeException e) {
+                // Failed while resolving SKUs, before anything was appended
+                log.warn("Bulk stock chunk starting at line {} failed", chunk.get(0).getLineNumber(), e);
+                chunk.forEach(line -> result.addFailure(line, BulkStockAdjustmentResult.FailureReason.ERROR,
+                        "Chunk failed: " + e.getMessage()));
+            } finally {
+                inventoryStatsService.endWrite();
+            }
+        }
+        
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("Bulk stock adjustment: {} lines, {} applied, {} failed in {} ms",
+                result.getTotalLines(), result.getApplied(), result.getFailed(), result.getElapsedMillis());
+        return result;
+    }
+    
+    private BulkStockAdjustmentResult applyChunk(List<StockAdjustment> chunk) {
+        BulkStockAdjustmentResult chunkResult = new BulkStockAdjustmentResult(chunk.size());
+        
+        // Resolve every SKU of the chunk with a single IN query
+        Set<String> skus = chunk.stream()
+            .filter(StockAdjustment::isValid)
+            .map(StockAdjustment::getSku)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<String, Long> idsBySku = new HashMap<>();
+        if (!skus.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Object[] row : productRepository.findIdsBySkuIn(skus)) {
+                    idsBySku.put((String) row[0], (Long) row[1]);
+                }
+            });
+        }
+        
+        List<StockAdjustment> resolved = new ArrayList<>();
+        for (StockAdjustment line : chunk) {
+            if (!line.isValid()) {
+                chunkResult.addFailure(line, BulkStockAdjustmentResult.FailureReason.INVALID_LINE, line.getError());
+            } else if (!idsBySku.containsKey(line.getSku())) {
+                chunkResult.addFailure(line, BulkStockAdjustmentResult.FailureReason.UNKNOWN_SKU,
+                        "Product not found with SKU: " + line.getSku());
+            } else {
+                resolved.add(line);
+            }
+        }
+        if (resolved.isEmpty()) {
+            return chunkResult;
+        }
+        
+        // Append every line to the ledger in input order, remembering the quantity each
+        // product had before its first line and after its last one
+        List<Long> ids = new ArrayList<>(resolved.size());
+        List<Integer> deltas = new ArrayList<>(resolved.size());
+        for (StockAdjustment line : resolved) {
+            ids.add(idsBySku.get(line.getSku()));
+            deltas.add(line.getDelta());
+        }
+        List<StockLedger.Append> appends = stockLedger.addAll(ids, deltas, StockMovement.Type.BULK);
+        
+        Map<Long, Integer> firstBefore = new HashMap<>();
+        Map<Long, Integer> lastAfter = new LinkedHashMap<>();
+        int applied = 0;
+        for (int i = 0; i < resolved.size(); i++) {
+            StockAdjustment line = resolved.get(i);
+            Long id = ids.get(i);
+            StockLedger.Append append = appends.get(i);
+            if (append.isApplied()) {
+                applied++;
+                firstBefore.putIfAbsent(id, append.getBefore());
+                lastAfter.put(id, append.getAfter());
+            } else if (append.getStatus() == StockMutationResult.Status.NOT_FOUND) {
+                chunkResult.addFailure(line, BulkStockAdjustmentResult.FailureReason.UNKNOWN_SKU,
+                        "Product not found with SKU: " + line.getSku());
+            } else {
+                chunkResult.addFailure(line, BulkStockAdjustmentResult.FailureReason.INSUFFICIENT_STOCK,
+                        "Insufficient stock. Available: " + append.getBefore());
+            }
+        }
+        chunkResult.addApplied(applied);
+        
+        // Read the touched rows back once to notify listeners
+        lastAfter.keySet().removeIf(id -> lastAfter.get(id).equals(firstBefore.get(id)));
+        if (!lastAfter.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> publishChanges(firstBefore, lastAfter));
+            } catch (RuntimeException e) {
+                // The stock changes stand; in-memory views catch up on their next resync
+                log.warn("Could not publish stock changes of {} products", lastAfter.size(), e);
+            }
+        }
+        return chunkResult;
+    }
+    
+    private void publishChanges(Map<Long, Integer> firstBefore, Map<Long, Integer> lastAfter) {
+        for (Product product : productRepository.findAllById(lastAfter.keySet())) {
+            ProductSnapshot after = ProductSnapshot.of(product).withQuantity(lastAfter.get(product.getId()));
+            eventPublisher.publishEvent(ProductChangedEvent.updated(
+                    after.withQuantity(firstBefore.get(product.getId())), after));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.project.service;
+
+// Calls, errors and latency of one service or repository method
+public class CallStats {
+    
+    private final String name;
+    private final long calls;
+    private final long errors;
+    private final double totalMs;
+    private final double meanMs;
+    private final double p50Ms;
+    private final double p99Ms;
+    private final double maxMs;
+    
+    public CallStats(String name, long calls, long errors, double totalMs, double meanMs,
+                     double p50Ms, double p99Ms, double maxMs) {
+        this.name = name;
+        this.calls = calls;
+        this.errors = errors;
+        this.totalMs = totalMs;
+        this.meanMs = meanMs;
+        this.p50Ms = p50Ms;
+        this.p99Ms = p99Ms;
+        this.maxMs = maxMs;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public long getCalls() {
+        return calls;
+    }
+    
+    // Calls that ended with an exception
+    public long getErrors() {
+        return errors;
+    }
+    
+    public double getTotalMs() {
+        return totalMs;
+    }
+    
+    public double getMeanMs() {
+        return meanMs;
+    }
+    
+    public double getP50Ms() {
+        return p50Ms;
+    }
+    
+    public double getP99Ms() {
+        return p99Ms;
+    }
+    
+    public double getMaxMs() {
+        return maxMs;
+    }
+}
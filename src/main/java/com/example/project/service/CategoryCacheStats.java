@@ -0,0 +1,55 @@
+package com.example.project.service;
+
+// Counters reported by CategoryService's in-memory category dictionary
+public class CategoryCacheStats {
+    
+    private final int size;
+    private final long version;
+    private final long hits;
+    private final long misses;
+    private final long reloads;
+    private final long invalidations;
+    
+    public CategoryCacheStats(int size, long version, long hits, long misses, long reloads, long invalidations) {
+        this.size = size;
+        this.version = version;
+        this.hits = hits;
+        this.misses = misses;
+        this.reloads = reloads;
+        this.invalidations = invalidations;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    // Dictionary version; changes whenever the cached categories do
+    public long getVersion() {
+        return version;
+    }
+    
+    // Id lookups answered from memory
+    public long getHits() {
+        return hits;
+    }
+    
+    // Id lookups that had to query the categories table (ids created by another instance)
+    public long getMisses() {
+        return misses;
+    }
+    
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+    
+    // Full reloads from the categories table
+    public long getReloads() {
+        return reloads;
+    }
+    
+    // Entries replaced or dropped because a category was written
+    public long getInvalidations() {
+        return invalidations;
+    }
+}
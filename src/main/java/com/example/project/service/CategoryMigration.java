@@ -0,0 +1,94 @@
+package com.example.project.service;
+
+import com.example.project.repository.ProductBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Online backfill of products.category_id from the old free-text category column. Works
+// through the table in primary-key order, one short transaction per batch, so products stay
+// writable throughout. Each name becomes an id through CategoryService, which creates the
+// category if the name never had a row. New writes only set category_id, so one pass is enough.
+@Component
+public class CategoryMigration {
+    
+    private static final Logger log = LoggerFactory.getLogger(CategoryMigration.class);
+    
+    @Autowired
+    private ProductBatchRepository productBatchRepository;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private InventoryStatsService inventoryStatsService;
+    
+    @Autowired
+    private CategoryOverviewService categoryOverviewService;
+    
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Value("${inventory.categories.migration-batch-size:1000}")
+    private int batchSize;
+    
+    // Only touched by the scheduler thread
+    private long lastId;
+    private long migrated;
+    private volatile boolean finished;
+    
+    @Scheduled(initialDelayString = "${inventory.categories.migration-interval-ms:100}",
+               fixedDelayString = "${inventory.categories.migration-interval-ms:100}")
+    public void migrateNextBatch() {
+        if (finished) {
+            return;
+        }
+        Map<Long, String> names = transactionTemplate.execute(
+            status -> productBatchRepository.findLegacyCategories(lastId, batchSize));
+        if (!names.isEmpty()) {
+            Map<Long, Long> categoryIds = new LinkedHashMap<>();
+            names.forEach((productId, name) -> {
+                categoryIds.put(productId, categoryService.resolveCategoryId(name));
+                lastId = productId;
+            });
+            transactionTemplate.executeWithoutResult(status -> productBatchRepository.assignCategories(categoryIds));
+            migrated += categoryIds.size();
+            // The batch bypassed ProductService, so no change event evicts the cached rows
+            categoryIds.keySet().forEach(productCache::evict);
+            categoryOverviewService.invalidate();
+            log.debug("Category migration: {} products moved to category ids", migrated);
+        }
+        if (names.size() < batchSize) {
+            finish();
+        }
+    }
+    
+    public boolean isFinished() {
+        return finished;
+    }
+    
+    // Figures grouped by category id counted unmigrated rows as uncategorized; recount once.
+    // Cached products are dropped as well, so none is left with the old free-text category.
+    private void finish() {
+        if (migrated > 0) {
+            log.info("Category migration finished: {} products moved to category ids", migrated);
+            inventoryStatsService.reload();
+            productSearchIndex.rebuild();
+            productCache.clear();
+        }
+        finished = true;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import jakarta.persistence.PostLoad;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// JPA listener on Product: products store only category_id, so every loaded product gets its
+// category name from the in-memory dictionary. Rows CategoryMigration has not reached yet
+// still show their old free-text category.
+@Component
+public class CategoryNameListener {
+    
+    @Autowired
+    @Lazy
+    private CategoryService categoryService;
+    
+    @PostLoad
+    public void fillCategoryName(Product product) {
+        if (product.getCategoryId() != null) {
+            product.setCategory(categoryService.getCategoryName(product.getCategoryId()));
+        } else {
+            product.setCategory(product.getLegacyCategory());
+        }
+    }
+}
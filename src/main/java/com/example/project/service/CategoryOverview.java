@@ -0,0 +1,61 @@
+package com.example.project.service;
+
+import com.example.project.entity.Category;
+
+import java.math.BigDecimal;
+
+// A category together with the totals of the products filed under it
+public class CategoryOverview {
+    
+    private final Category category;
+    private final String name;
+    private final long productCount;
+    private final long activeCount;
+    private final long lowStockCount;
+    private final BigDecimal stockValue;
+    
+    public CategoryOverview(Category category, String name, long productCount, long activeCount,
+                            long lowStockCount, BigDecimal stockValue) {
+        this.category = category;
+        this.name = name;
+        this.productCount = productCount;
+        this.activeCount = activeCount;
+        this.lowStockCount = lowStockCount;
+        this.stockValue = stockValue != null ? stockValue : BigDecimal.ZERO;
+    }
+    
+    // Category with no products
+    public static CategoryOverview empty(Category category) {
+        return new CategoryOverview(category, category.getName(), 0, 0, 0, BigDecimal.ZERO);
+    }
+    
+    // Same totals attached to a category
+    public CategoryOverview withCategory(Category category) {
+        return new CategoryOverview(category, name, productCount, activeCount, lowStockCount, stockValue);
+    }
+    
+    // Null until attached by CategoryOverviewService.getCategoryOverviews
+    public Category getCategory() {
+        return category;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public long getProductCount() {
+        return productCount;
+    }
+    
+    public long getActiveCount() {
+        return activeCount;
+    }
+    
+    public long getLowStockCount() {
+        return lowStockCount;
+    }
+    
+    public BigDecimal getStockValue() {
+        return stockValue;
+    }
+}
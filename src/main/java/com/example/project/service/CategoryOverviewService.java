@@ -0,0 +1,82 @@
+package com.example.project.service;
+
+import com.example.project.entity.Category;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-category product totals for the categories page. One grouped aggregate query
+// covers every category, and its result is reused until the next product write.
+@Service
+public class CategoryOverviewService {
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    // Bumped on every product write; a result computed under an older generation is not cached
+    private long generation;
+    private volatile Map<Long, CategoryOverview> cachedTotals;
+    
+    // Every category with its totals, in the order of getAllCategories()
+    public List<CategoryOverview> getCategoryOverviews() {
+        Map<Long, CategoryOverview> totals = getTotalsByCategoryId();
+        List<Category> categories = categoryService.getAllCategories();
+        List<CategoryOverview> overviews = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            CategoryOverview overview = totals.get(category.getId());
+            overviews.add(overview != null ? overview.withCategory(category) : CategoryOverview.empty(category));
+        }
+        return overviews;
+    }
+    
+    // Totals keyed by the category id stored on products
+    public Map<Long, CategoryOverview> getTotalsByCategoryId() {
+        Map<Long, CategoryOverview> totals = cachedTotals;
+        if (totals != null) {
+            return totals;
+        }
+        
+        long startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+        totals = new HashMap<>();
+        for (Object[] row : productRepository.summarizeByCategory()) {
+            Long categoryId = (Long) row[0];
+            totals.put(categoryId, new CategoryOverview(null, categoryService.getCategoryName(categoryId),
+                    toLong(row[1]), toLong(row[2]), toLong(row[3]), (BigDecimal) row[4]));
+        }
+        synchronized (this) {
+            if (generation == startGeneration) {
+                cachedTotals = totals;
+            }
+        }
+        return totals;
+    }
+    
+    // Drop the cached totals once a product write has committed
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate();
+    }
+    
+    public synchronized void invalidate() {
+        generation++;
+        cachedTotals = null;
+    }
+    
+    private long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+}
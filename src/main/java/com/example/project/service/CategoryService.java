@@ -2,77 +2,257 @@ package com.example.project.service;
 
 import com.example.project.entity.Category;
 import com.example.project.repository.CategoryRepository;
+import com.example.project.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
 
+// Categories are few and read on almost every page, so all of them are kept in an in-memory
+// dictionary: lookups and id <-> name translation never query. The dictionary is replaced
+// once a category write here commits, and reloaded periodically for other instances' writes.
+// It holds detached copies and hands out copies of those, so no caller shares an instance with
+// the dictionary or with a persistence context. It stands in for a second-level/query cache on
+// Category; getCacheStats reports how often id lookups still reach the table.
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class CategoryService {
     
+    private static final Logger log = LoggerFactory.getLogger(CategoryService.class);
+    
+    private static final String UPDATE_CATEGORY = "CategoryService.updateCategory";
+    
+    // Fields of the category form, for merging an edit with concurrent changes
+    private static final FieldMerge<Category> CATEGORY_FORM = new FieldMerge<Category>()
+        .field("name", Category::getName, (category, form) -> category.setName(form.getName()))
+        .field("description", Category::getDescription, (category, form) -> category.setDescription(form.getDescription()))
+        .field("isActive", Category::getIsActive, (category, form) -> category.setIsActive(form.getIsActive()));
+    
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private InventoryVersion inventoryVersion;
+    
+    @Autowired
+    private OptimisticRetryExecutor retryExecutor;
+    
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+    
+    // Creates categories in a transaction of their own, so an id is only cached once committed
+    private TransactionTemplate requiresNewTemplate;
+    
+    private volatile Dictionary dictionary = new Dictionary(List.of(), 0);
+    
+    // Dictionary counters; LongAdder keeps the read path free of contention. Hits and misses
+    // count id lookups only: every other read is answered by the dictionary and cannot miss.
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    
+    @PostConstruct
+    public void start() {
+        requiresNewTemplate = new TransactionTemplate(transactionManager);
+        requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        reload();
+    }
+    
+    // Reload the dictionary from the categories table
+    @Scheduled(initialDelayString = "${inventory.categories.reload-interval-ms:60000}",
+               fixedDelayString = "${inventory.categories.reload-interval-ms:60000}")
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void reload() {
+        List<Category> categories = copies(categoryRepository.findAll());
+        replaceDictionary(categories);
+        reloads.increment();
+        log.debug("Category dictionary loaded: {} categories", categories.size());
+    }
+    
     // Create a new category
+    @Transactional
     public Category createCategory(Category category) {
-        if (categoryRepository.existsByName(category.getName())) {
+        if (categoryExistsByName(category.getName())) {
             throw new RuntimeException("Category with name " + category.getName() + " already exists");
         }
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        afterCommit(() -> put(saved));
+        return saved;
     }
     
-    // Get all categories
+    // Get all categories, in id order
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        return copies(dictionary.all);
     }
     
-    // Get active categories
+    // Get active categories, in id order
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Category> getActiveCategories() {
-        return categoryRepository.findByIsActiveTrue();
+        return copies(dictionary.active);
     }
     
-    // Get category by ID
+    // Get category by ID; like getCategoryName, an id not seen yet is looked up and added
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Category> getCategoryById(Long id) {
-        return categoryRepository.findById(id);
+        return Optional.ofNullable(id != null ? lookup(id) : null).map(CategoryService::copy);
     }
     
     // Get category by name
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Category> getCategoryByName(String name) {
-        return categoryRepository.findByName(name);
+        return Optional.ofNullable(name != null ? dictionary.byName.get(name) : null).map(CategoryService::copy);
     }
     
-    // Update category
-    public Category updateCategory(Long id, Category categoryDetails) {
-        Category category = categoryRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
-        
-        // Check if name is being changed and if new name already exists
-        if (!category.getName().equals(categoryDetails.getName()) && 
-            categoryRepository.existsByName(categoryDetails.getName())) {
-            throw new RuntimeException("Category with name " + categoryDetails.getName() + " already exists");
+    // Name of a category id, or null for no category. An id this instance has not seen yet
+    // (created elsewhere) is looked up once and added.
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getCategoryName(Long id) {
+        if (id == null) {
+            return null;
         }
-        
-        category.setName(categoryDetails.getName());
-        category.setDescription(categoryDetails.getDescription());
-        category.setIsActive(categoryDetails.getIsActive());
-        
-        return categoryRepository.save(category);
+        Category category = lookup(id);
+        return category != null ? category.getName() : null;
+    }
+    
+    // Id of a category name, or null when the name is blank or unknown
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Long getCategoryId(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        Category category = dictionary.byName.get(name);
+        return category != null ? category.getId() : null;
+    }
+    
+    // Id of a category name, creating the category when there is none yet; null for a blank name.
+    // Keeps free-text categories (product forms, CSV imports, old rows) working.
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Long resolveCategoryId(String name) {
+        Long id = getCategoryId(name);
+        if (id != null || name == null || name.isBlank()) {
+            return id;
+        }
+        synchronized (this) {
+            id = getCategoryId(name);
+            if (id != null) {
+                return id;
+            }
+            Category category;
+            try {
+                category = requiresNewTemplate.execute(status -> categoryRepository.save(new Category(name)));
+            } catch (DataIntegrityViolationException e) {
+                // Created concurrently by another instance
+                category = requiresNewTemplate.execute(status -> categoryRepository.findByName(name))
+                    .orElseThrow(() -> e);
+            }
+            put(category);
+            return category.getId();
+        }
+    }
+    
+    // Bumped whenever the dictionary changes; lets callers cache id -> name translations
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long getDictionaryVersion() {
+        return dictionary.version;
+    }
+    
+    // Update category from a form of the current version (no merge base; see ProductService.updateProduct)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Category updateCategory(Long id, Category categoryDetails) {
+        return updateCategory(id, categoryDetails, null);
+    }
+    
+    // Update category from an edit form, merged with changes made since it was opened (see
+    // ProductService.updateProduct). Products reference it by id, so a rename needs no product writes.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Category updateCategory(Long id, Category categoryDetails, String editBase) {
+        return retryExecutor.execute(UPDATE_CATEGORY, () -> {
+            Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
+            
+            // Check if name is being changed and if new name already exists
+            if (!category.getName().equals(categoryDetails.getName()) &&
+                categoryRepository.existsByName(categoryDetails.getName())) {
+                throw new RuntimeException("Category with name " + categoryDetails.getName() + " already exists");
+            }
+            
+            // Without a base, only a form of the current version starts from the current values
+            // (see ProductService.applyEdit)
+            String base = editBase;
+            if (base == null && category.getVersion().equals(categoryDetails.getVersion())) {
+                base = CATEGORY_FORM.base(category);
+            }
+            FieldMerge.Result merge = CATEGORY_FORM.merge(base, categoryDetails, category);
+            if (merge.hasConflicts()) {
+                inventoryMetrics.recordConflict(UPDATE_CATEGORY);
+                throw new EditConflictException("category", merge.getConflicts(), category.getVersion(),
+                    CATEGORY_FORM.base(category));
+            }
+            if (merge.isMerged()) {
+                inventoryMetrics.recordMerge(UPDATE_CATEGORY);
+            }
+            
+            Category saved = categoryRepository.saveAndFlush(category);
+            afterCommit(() -> put(saved));
+            return saved;
+        });
+    }
+    
+    // Token of the values an edit form of this category starts from
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getEditBase(Category category) {
+        return CATEGORY_FORM.base(category);
     }
     
     // Delete category (soft delete)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteCategory(Long id) {
-        Category category = categoryRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
-        category.setIsActive(false);
-        categoryRepository.save(category);
+        retryExecutor.run("CategoryService.deleteCategory", () -> {
+            Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
+            category.setIsActive(false);
+            Category saved = categoryRepository.save(category);
+            afterCommit(() -> put(saved));
+        });
     }
     
     // Hard delete category
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void hardDeleteCategory(Long id) {
-        categoryRepository.deleteById(id);
+        retryExecutor.run("CategoryService.hardDeleteCategory", () -> {
+            if (productRepository.existsByCategoryId(id)) {
+                throw new RuntimeException("Category with id " + id + " still has products");
+            }
+            categoryRepository.deleteById(id);
+            afterCommit(() -> remove(id));
+        });
     }
     
     // Search categories by name
@@ -81,12 +261,122 @@ public class CategoryService {
     }
     
     // Check if category exists by name
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean categoryExistsByName(String name) {
-        return categoryRepository.existsByName(name);
+        return name != null && dictionary.byName.containsKey(name);
     }
     
     // Get category count
+    @Transactional(propagation = Propagation.SUPPORTS)
     public long getCategoryCount() {
-        return categoryRepository.count();
+        return dictionary.all.size();
+    }
+    
+    // Dictionary size, and the hit ratio of id lookups
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CategoryCacheStats getCacheStats() {
+        Dictionary current = dictionary;
+        return new CategoryCacheStats(current.all.size(), current.version, hits.sum(), misses.sum(),
+            reloads.sum(), invalidations.sum());
+    }
+    
+    // Category by id from the dictionary, falling back to the table for ids created elsewhere
+    private Category lookup(Long id) {
+        Category category = dictionary.byId.get(id);
+        if (category != null) {
+            hits.increment();
+            return category;
+        }
+        misses.increment();
+        category = categoryRepository.findById(id).orElse(null);
+        if (category != null) {
+            put(category);
+        }
+        return category;
+    }
+    
+    // Add or replace one category
+    private synchronized void put(Category category) {
+        List<Category> categories = new ArrayList<>(dictionary.all);
+        categories.removeIf(existing -> existing.getId().equals(category.getId()));
+        categories.add(copy(category));
+        replaceDictionary(categories);
+    }
+    
+    private synchronized void remove(Long id) {
+        List<Category> categories = new ArrayList<>(dictionary.all);
+        categories.removeIf(category -> category.getId().equals(id));
+        replaceDictionary(categories);
+    }
+    
+    // Apply a category write to the dictionary once the current transaction has committed,
+    // or right away without one; a rolled back write leaves the dictionary alone
+    private void afterCommit(Runnable action) {
+        Runnable invalidation = () -> {
+            action.run();
+            invalidations.increment();
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidation.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidation.run();
+            }
+        });
+    }
+    
+    // Detached copy of a category, sharing no state with the original
+    private static Category copy(Category category) {
+        Category copy = new Category(category.getName());
+        copy.setId(category.getId());
+        copy.setDescription(category.getDescription());
+        copy.setCreatedAt(category.getCreatedAt());
+        copy.setUpdatedAt(category.getUpdatedAt());
+        copy.setIsActive(category.getIsActive());
+        copy.setVersion(category.getVersion());
+        return copy;
+    }
+    
+    private static List<Category> copies(List<Category> categories) {
+        List<Category> copies = new ArrayList<>(categories.size());
+        categories.forEach(category -> copies.add(copy(category)));
+        return copies;
+    }
+    
+    private synchronized void replaceDictionary(List<Category> categories) {
+        dictionary = new Dictionary(categories, dictionary.version + 1);
+        inventoryVersion.bump();
+    }
+    
+    // Immutable view of every category (detached copies, never handed out); replaced as a whole,
+    // never modified
+    private static final class Dictionary {
+        
+        private final List<Category> all;
+        private final List<Category> active;
+        private final Map<Long, Category> byId;
+        private final Map<String, Category> byName;
+        private final long version;
+        
+        Dictionary(List<Category> categories, long version) {
+            TreeMap<Long, Category> sorted = new TreeMap<>();
+            categories.forEach(category -> sorted.put(category.getId(), category));
+            Map<String, Category> names = new HashMap<>();
+            List<Category> activeCategories = new ArrayList<>();
+            for (Category category : sorted.values()) {
+                names.put(category.getName(), category);
+                if (Boolean.TRUE.equals(category.getIsActive())) {
+                    activeCategories.add(category);
+                }
+            }
+            this.all = List.copyOf(sorted.values());
+            this.active = Collections.unmodifiableList(activeCategories);
+            this.byId = Collections.unmodifiableMap(sorted);
+            this.byName = Collections.unmodifiableMap(names);
+            this.version = version;
+        }
     }
 }
@@ -0,0 +1,73 @@
+package com.example.project.service;
+
+// Connection acquisition and occupancy of one JDBC connection pool
+public class ConnectionPoolStats {
+    
+    private final String pool;
+    private final long acquisitions;
+    private final double waitP50Ms;
+    private final double waitP99Ms;
+    private final double waitMaxMs;
+    private final long timeouts;
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int maxConnections;
+    private final int pendingThreads;
+    
+    public ConnectionPoolStats(String pool, long acquisitions, double waitP50Ms, double waitP99Ms, double waitMaxMs,
+                               long timeouts, int activeConnections, int idleConnections, int maxConnections,
+                               int pendingThreads) {
+        this.pool = pool;
+        this.acquisitions = acquisitions;
+        this.waitP50Ms = waitP50Ms;
+        this.waitP99Ms = waitP99Ms;
+        this.waitMaxMs = waitMaxMs;
+        this.timeouts = timeouts;
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.maxConnections = maxConnections;
+        this.pendingThreads = pendingThreads;
+    }
+    
+    public String getPool() {
+        return pool;
+    }
+    
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+    
+    public double getWaitP50Ms() {
+        return waitP50Ms;
+    }
+    
+    public double getWaitP99Ms() {
+        return waitP99Ms;
+    }
+    
+    public double getWaitMaxMs() {
+        return waitMaxMs;
+    }
+    
+    // Threads that gave up waiting for a connection
+    public long getTimeouts() {
+        return timeouts;
+    }
+    
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+    
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+    
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+    
+    // Threads waiting for a connection right now
+    public int getPendingThreads() {
+        return pendingThreads;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.project.service;
+
+import java.util.List;
+
+// An edit that changes fields someone else changed since the form was opened. Carries the
+// current version and base token, so the form can be shown again on top of the current state:
+// submitting it once more then overwrites the other change on purpose.
+public class EditConflictException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final List<String> fields;
+    private final Long currentVersion;
+    private final String currentBase;
+    
+    public EditConflictException(String what, List<String> fields, Long currentVersion, String currentBase) {
+        super("Someone else changed " + String.join(", ", fields) + " of this " + what +
+              " since you opened it. Check the values and save again to overwrite their change.");
+        this.fields = List.copyOf(fields);
+        this.currentVersion = currentVersion;
+        this.currentBase = currentBase;
+    }
+    
+    public List<String> getFields() {
+        return fields;
+    }
+    
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+    
+    public String getCurrentBase() {
+        return currentBase;
+    }
+}
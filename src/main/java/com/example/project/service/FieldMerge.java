@@ -0,0 +1,157 @@
+package com.example.project.service;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// Three-way merge of a submitted edit form into the current state of an entity. The form carries
+// the values it was opened with (its base) as an opaque token. A field the user changed is taken
+// unless someone else changed it too in the meantime (a conflict); a field only someone else
+// changed keeps their value. Values are compared in a normalized text form, so "" equals null
+// and 10.0 equals 10.00.
+public final class FieldMerge<T> {
+    
+    private final Map<String, Function<T, Object>> getters = new LinkedHashMap<>();
+    private final Map<String, BiConsumer<T, T>> copiers = new HashMap<>();
+    
+    // A field copied from the submitted form onto the entity when taken
+    public FieldMerge<T> field(String name, Function<T, Object> getter, BiConsumer<T, T> copier) {
+        getters.put(name, getter);
+        copiers.put(name, copier);
+        return this;
+    }
+    
+    // A field the caller applies itself when the result takes it
+    public FieldMerge<T> field(String name, Function<T, Object> getter) {
+        getters.put(name, getter);
+        return this;
+    }
+    
+    // Token of the values an edit form opened on this state starts from
+    public String base(T current) {
+        StringBuilder raw = new StringBuilder();
+        getters.forEach((name, getter) -> {
+            String value = normalize(getter.apply(current));
+            if (value != null) {
+                raw.append(raw.length() > 0 ? ";" : "")
+                    .append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        });
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Merge the submitted form into current and copy the taken fields, unless there is a
+    // conflict. A null base token means the form's starting values are unknown, so every field
+    // the form has different from current is a conflict.
+    public Result merge(String baseToken, T submitted, T current) {
+        Map<String, String> base = baseToken != null ? decode(baseToken) : null;
+        Set<String> taken = new LinkedHashSet<>();
+        List<String> conflicts = new ArrayList<>();
+        boolean merged = false;
+        for (Map.Entry<String, Function<T, Object>> field : getters.entrySet()) {
+            String mine = normalize(field.getValue().apply(submitted));
+            String theirs = normalize(field.getValue().apply(current));
+            if (Objects.equals(mine, theirs)) {
+                continue;
+            }
+            if (base == null) {
+                conflicts.add(field.getKey());
+                continue;
+            }
+            String original = base.get(field.getKey());
+            if (Objects.equals(mine, original)) {
+                merged = true;  // only someone else changed it: keep theirs
+            } else if (Objects.equals(theirs, original)) {
+                taken.add(field.getKey());
+            } else {
+                conflicts.add(field.getKey());
+            }
+        }
+        if (conflicts.isEmpty()) {
+            for (String name : taken) {
+                BiConsumer<T, T> copier = copiers.get(name);
+                if (copier != null) {
+                    copier.accept(current, submitted);
+                }
+            }
+        }
+        return new Result(taken, conflicts, merged);
+    }
+    
+    // Values of a base token; a token that is not one (bad Base64 or escapes) is refused
+    private static Map<String, String> decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            Map<String, String> values = new HashMap<>();
+            for (String part : raw.split(";")) {
+                int separator = part.indexOf('=');
+                if (separator > 0) {
+                    values.put(part.substring(0, separator),
+                        URLDecoder.decode(part.substring(separator + 1), StandardCharsets.UTF_8));
+                }
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid edit token");
+        }
+    }
+    
+    private static String normalize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.stripTrailingZeros().toPlainString();
+        }
+        String text = value.toString();
+        return text.isEmpty() ? null : text;
+    }
+    
+    // Outcome of a merge: fields taken from the form, fields in conflict, and whether a
+    // concurrent change was kept alongside the user's
+    public static final class Result {
+        
+        private final Set<String> taken;
+        private final List<String> conflicts;
+        private final boolean merged;
+        
+        Result(Set<String> taken, List<String> conflicts, boolean merged) {
+            this.taken = Collections.unmodifiableSet(taken);
+            this.conflicts = Collections.unmodifiableList(conflicts);
+            this.merged = merged;
+        }
+        
+        public boolean takes(String field) {
+            return taken.contains(field);
+        }
+        
+        public Set<String> getTaken() {
+            return taken;
+        }
+        
+        public List<String> getConflicts() {
+            return conflicts;
+        }
+        
+        public boolean hasConflicts() {
+            return !conflicts.isEmpty();
+        }
+        
+        public boolean isMerged() {
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.project.service;
+
+// Session factory totals from Hibernate's own statistics (hibernate.generate_statistics)
+public class HibernateStats {
+    
+    private final long queryExecutions;
+    private final long queryExecutionMaxMs;
+    private final String slowestQuery;
+    private final long prepareStatements;
+    private final long entityLoads;
+    private final long entityFetches;
+    private final long collectionLoads;
+    private final long sessionsOpened;
+    
+    public HibernateStats(long queryExecutions, long queryExecutionMaxMs, String slowestQuery,
+                          long prepareStatements, long entityLoads, long entityFetches,
+                          long collectionLoads, long sessionsOpened) {
+        this.queryExecutions = queryExecutions;
+        this.queryExecutionMaxMs = queryExecutionMaxMs;
+        this.slowestQuery = slowestQuery;
+        this.prepareStatements = prepareStatements;
+        this.entityLoads = entityLoads;
+        this.entityFetches = entityFetches;
+        this.collectionLoads = collectionLoads;
+        this.sessionsOpened = sessionsOpened;
+    }
+    
+    public long getQueryExecutions() {
+        return queryExecutions;
+    }
+    
+    public long getQueryExecutionMaxMs() {
+        return queryExecutionMaxMs;
+    }
+    
+    public String getSlowestQuery() {
+        return slowestQuery;
+    }
+    
+    public long getPrepareStatements() {
+        return prepareStatements;
+    }
+    
+    public long getEntityLoads() {
+        return entityLoads;
+    }
+    
+    // Entities loaded one at a time by a separate select (lazy loads, N+1 patterns)
+    public long getEntityFetches() {
+        return entityFetches;
+    }
+    
+    public long getCollectionLoads() {
+        return collectionLoads;
+    }
+    
+    public long getSessionsOpened() {
+        return sessionsOpened;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.project.service;
+
+import com.zaxxer.hikari.metrics.PoolStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-process metrics for the hot paths: latency histograms and call/error counts per service and
+// repository method, per-route request latency with statements and entities loaded per request,
+// connection pool wait times and optimistic write retries and conflicts. Recording is lock-free; snapshot() builds the /metrics view.
+// The hooks that feed it live in config (ServiceMetricsAspect, RequestMetricsFilter,
+// JdbcMetricsPostProcessor, EntityLoadCounter) and OptimisticRetryExecutor.
+@Component
+public class InventoryMetrics {
+    
+    // Lazily: connection pools register here while the entity manager factory is still starting
+    @Autowired
+    @Lazy
+    private EntityManagerFactory entityManagerFactory;
+    
+    private final Map<String, Call> calls = new ConcurrentHashMap<>();
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private final Map<String, Writes> writes = new ConcurrentHashMap<>();
+    
+    public void recordCall(String name, long nanos, boolean failed) {
+        Call call = calls.computeIfAbsent(name, key -> new Call());
+        call.latency.record(nanos);
+        if (failed) {
+            call.errors.increment();
+        }
+    }
+    
+    public void recordRequest(String route, RequestMetrics metrics, boolean failed) {
+        Route stats = routes.computeIfAbsent(route, key -> new Route());
+        stats.latency.record(metrics.getElapsedNanos());
+        stats.statements.record(metrics.getStatements());
+        stats.entitiesLoaded.record(metrics.getEntitiesLoaded());
+        stats.connectionWait.record(metrics.getConnectionWaitNanos());
+        if (failed) {
+            stats.errors.increment();
+        }
+    }
+    
+    public void registerPool(String name, PoolStats poolStats) {
+        pools.put(name, new Pool(poolStats));
+    }
+    
+    public void recordConnectionAcquired(String pool, long waitNanos) {
+        Pool stats = pools.get(pool);
+        if (stats != null) {
+            stats.wait.record(waitNanos);
+        }
+        RequestMetrics.connectionAcquired(waitNanos);
+    }
+    
+    public void recordConnectionTimeout(String pool) {
+        Pool stats = pools.get(pool);
+        if (stats != null) {
+            stats.timeouts.increment();
+        }
+    }
+    
+    public void recordWrite(String operation) {
+        writes(operation).writes.increment();
+    }
+    
+    public void recordRetry(String operation) {
+        writes(operation).retries.increment();
+    }
+    
+    public void recordRetriesExhausted(String operation) {
+        writes(operation).retriesExhausted.increment();
+    }
+    
+    public void recordMerge(String operation) {
+        writes(operation).merged.increment();
+    }
+    
+    public void recordConflict(String operation) {
+        writes(operation).conflicts.increment();
+    }
+    
+    public MetricsSnapshot snapshot() {
+        List<RequestStats> requestStats = routes.entrySet().stream()
+            .map(entry -> entry.getValue().toStats(entry.getKey()))
+            .sorted(Comparator.comparingLong(RequestStats::getRequests).reversed())
+            .toList();
+        List<CallStats> callStats = calls.entrySet().stream()
+            .map(entry -> entry.getValue().toStats(entry.getKey()))
+            .sorted(Comparator.comparingDouble(CallStats::getTotalMs).reversed())
+            .toList();
+        List<ConnectionPoolStats> poolStats = pools.entrySet().stream()
+            .map(entry -> entry.getValue().toStats(entry.getKey()))
+            .sorted(Comparator.comparing(ConnectionPoolStats::getPool))
+            .toList();
+        List<OptimisticWriteStats> writeStats = writes.entrySet().stream()
+            .map(entry -> entry.getValue().toStats(entry.getKey()))
+            .sorted(Comparator.comparing(OptimisticWriteStats::getOperation))
+            .toList();
+        return new MetricsSnapshot(requestStats, callStats, poolStats, writeStats, hibernateStats());
+    }
+    
+    private Writes writes(String operation) {
+        return writes.computeIfAbsent(operation, key -> new Writes());
+    }
+    
+    private HibernateStats hibernateStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return null;
+        }
+        return new HibernateStats(statistics.getQueryExecutionCount(), statistics.getQueryExecutionMaxTime(),
+            statistics.getQueryExecutionMaxTimeQueryString(), statistics.getPrepareStatementCount(),
+            statistics.getEntityLoadCount(), statistics.getEntityFetchCount(),
+            statistics.getCollectionLoadCount(), statistics.getSessionOpenCount());
+    }
+    
+    private static double millis(double nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+    
+    private static final class Call {
+        
+        private final Histogram latency = new Histogram();
+        private final LongAdder errors = new LongAdder();
+        
+        CallStats toStats(String name) {
+            return new CallStats(name, latency.getCount(), errors.sum(), millis(latency.getTotal()),
+                millis(latency.getMean()), millis(latency.percentile(0.5)), millis(latency.percentile(0.99)),
+                millis(latency.getMax()));
+        }
+    }
+    
+    private static final class Route {
+        
+        private final Histogram latency = new Histogram();
+        private final Histogram statements = new Histogram();
+        private final Histogram entitiesLoaded = new Histogram();
+        private final Histogram connectionWait = new Histogram();
+        private final LongAdder errors = new LongAdder();
+        
+        RequestStats toStats(String route) {
+            return new RequestStats(route, latency.getCount(), errors.sum(), millis(latency.percentile(0.5)),
+                millis(latency.percentile(0.99)), millis(latency.getMax()),
+                statements.getMean(), statements.percentile(0.99), statements.getMax(),
+                entitiesLoaded.getMean(), entitiesLoaded.getMax(), millis(connectionWait.percentile(0.99)));
+        }
+    }
+    
+    private static final class Pool {
+        
+        private final PoolStats occupancy;
+        private final Histogram wait = new Histogram();
+        private final LongAdder timeouts = new LongAdder();
+        
+        Pool(PoolStats occupancy) {
+            this.occupancy = occupancy;
+        }
+        
+        ConnectionPoolStats toStats(String name) {
+            return new ConnectionPoolStats(name, wait.getCount(), millis(wait.percentile(0.5)),
+                millis(wait.percentile(0.99)), millis(wait.getMax()), timeouts.sum(),
+                occupancy.getActiveConnections(), occupancy.getIdleConnections(),
+                occupancy.getMaxConnections(), occupancy.getPendingThreads());
+        }
+    }
+    
+    private static final class Writes {
+        
+        private final LongAdder writes = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder retriesExhausted = new LongAdder();
+        private final LongAdder merged = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        
+        OptimisticWriteStats toStats(String operation) {
+            return new OptimisticWriteStats(operation, writes.sum(), retries.sum(), retriesExhausted.sum(),
+                merged.sum(), conflicts.sum());
+        }
+    }
+}
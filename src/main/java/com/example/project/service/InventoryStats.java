@@ -0,0 +1,68 @@
+package com.example.project.service;
+
+import com.example.project.event.ProductSnapshot;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Point-in-time copy of the dashboard figures kept by InventoryStatsService
+public class InventoryStats {
+    
+    private final long totalProducts;
+    private final long lowStockProducts;
+    private final long outOfStockProducts;
+    private final long activeProducts;
+    private final BigDecimal totalInventoryValue;
+    private final Map<String, Long> categoryCounts;
+    private final List<ProductSnapshot> recentProducts;
+    
+    public InventoryStats(long totalProducts, long lowStockProducts, long outOfStockProducts,
+                          long activeProducts, BigDecimal totalInventoryValue,
+                          Map<String, Long> categoryCounts, List<ProductSnapshot> recentProducts) {
+        this.totalProducts = totalProducts;
+        this.lowStockProducts = lowStockProducts;
+        this.outOfStockProducts = outOfStockProducts;
+        this.activeProducts = activeProducts;
+        this.totalInventoryValue = totalInventoryValue;
+        this.categoryCounts = Collections.unmodifiableMap(categoryCounts);
+        this.recentProducts = Collections.unmodifiableList(recentProducts);
+    }
+    
+    public long getTotalProducts() {
+        return totalProducts;
+    }
+    
+    public long getLowStockProducts() {
+        return lowStockProducts;
+    }
+    
+    public long getOutOfStockProducts() {
+        return outOfStockProducts;
+    }
+    
+    public long getActiveProducts() {
+        return activeProducts;
+    }
+    
+    public BigDecimal getTotalInventoryValue() {
+        return totalInventoryValue;
+    }
+    
+    public Map<String, Long> getCategoryCounts() {
+        return categoryCounts;
+    }
+    
+    // Category counts in the [category, count] row shape the templates already use
+    public List<Object[]> getCategoryStats() {
+        List<Object[]> stats = new ArrayList<>(categoryCounts.size());
+        categoryCounts.forEach((category, count) -> stats.add(new Object[]{category, count}));
+        return stats;
+    }
+    
+    public List<ProductSnapshot> getRecentProducts() {
+        return recentProducts;
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import com.example.project.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// Dashboard statistics kept in memory and updated from ProductChangedEvents,
+// so the home page never has to load product rows.
+@Service
+public class InventoryStatsService {
+    
+    private static final Logger log = LoggerFactory.getLogger(InventoryStatsService.class);
+    
+    static final int RECENT_PRODUCTS_LIMIT = 5;
+    
+    private static final int RELOAD_ATTEMPTS = 3;
+    private static final long WRITES_IN_FLIGHT_WAIT_MS = 1000;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    // All state below is guarded by "this"
+    private long totalProducts;
+    private long lowStockProducts;
+    private long outOfStockProducts;
+    private long activeProducts;
+    private BigDecimal totalInventoryValue = BigDecimal.ZERO;
+    private final Map<Long, Long> categoryCounts = new HashMap<>();
+    private final NavigableMap<Long, ProductSnapshot> recentProducts = new TreeMap<>(Comparator.reverseOrder());
+    private InventoryStats cachedStats;
+    private long cachedCategoryVersion;
+    // Bumped whenever a write starts to commit and when its event is applied; a load that
+    // started under an older generation may have missed the write or may count it twice
+    private long generation;
+    // Writes whose change may already be in the tables but whose event is not applied yet
+    private int writesInFlight;
+    private boolean loaded;
+    
+    // Load the figures with aggregate queries only. The queries run outside the lock, so a load
+    // that overlapped a write is retried, and if writes keep racing it is dropped in favour of
+    // the incrementally maintained figures.
+    @PostConstruct
+    public void reload() {
+        for (int attempt = 1; attempt <= RELOAD_ATTEMPTS; attempt++) {
+            long startGeneration;
+            synchronized (this) {
+                awaitWritesInFlight();
+                startGeneration = generation;
+            }
+            // Quantities are aggregated in SQL, so fold the movements of announced changes in first
+            stockLedger.settle();
+            long total = productRepository.count();
+            long lowStock = productRepository.countLowStockProducts();
+            long outOfStock = productRepository.countByStockStatus(Product.StockStatus.OUT);
+            long active = productRepository.countByIsActiveTrue();
+            BigDecimal value = productRepository.getTotalInventoryValue();
+            List<Object[]> byCategory = productRepository.countProductsByCategory();
+            List<Product> recent = productRepository.findTop5ByOrderByIdDesc();
+            
+            synchronized (this) {
+                // Nothing to fall back on before the first load
+                if ((generation != startGeneration || writesInFlight > 0) && loaded) {
+                    continue;
+                }
+                totalProducts = total;
+                lowStockProducts = lowStock;
+                outOfStockProducts = outOfStock;
+                activeProducts = active;
+                totalInventoryValue = value != null ? value : BigDecimal.ZERO;
+                categoryCounts.clear();
+                for (Object[] row : byCategory) {
+                    categoryCounts.put((Long) row[0], ((Number) row[1]).longValue());
+                }
+                replaceRecent(recent);
+                loaded = true;
+            }
+            log.debug("Inventory statistics loaded: {} products", total);
+            return;
+        }
+        log.debug("Inventory statistics reload skipped: products kept changing");
+    }
+    
+    // Periodic resync to correct any drift from writes made outside ProductService
+    @Scheduled(initialDelayString = "${inventory.stats.resync-interval-ms:300000}",
+               fixedDelayString = "${inventory.stats.resync-interval-ms:300000}")
+    public void resync() {
+        reload();
+    }
+    
+    // A product write is about to commit; it is in flight until its transaction completes
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onProductChanging(ProductChangedEvent event) {
+        beginWrite();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                endWrite();
+            }
+        });
+    }
+    
+    // Stock changes are committed, and may be compacted, by the StockLedger before their event
+    // is published, so their callers bracket the whole change with beginWrite and endWrite
+    public synchronized void beginWrite() {
+        writesInFlight++;
+        generation++;
+    }
+    
+    public synchronized void endWrite() {
+        writesInFlight--;
+        generation++;
+        notifyAll();
+    }
+    
+    // Apply a committed product write
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        boolean refillRecent;
+        synchronized (this) {
+            generation++;
+            if (event.getBefore() != null) {
+                apply(event.getBefore(), -1);
+            }
+            if (event.getAfter() != null) {
+                apply(event.getAfter(), 1);
+            }
+            refillRecent = updateRecent(event);
+            cachedStats = null;
+        }
+        if (refillRecent) {
+            reloadRecentProducts();
+        }
+    }
+    
+    // Current statistics; O(1) until the next product or category write
+    public synchronized InventoryStats getStats() {
+        long categoryVersion = categoryService.getDictionaryVersion();
+        if (cachedStats == null || cachedCategoryVersion != categoryVersion) {
+            cachedStats = new InventoryStats(totalProducts, lowStockProducts, outOfStockProducts, activeProducts,
+                    totalInventoryValue, countsByCategoryName(), new ArrayList<>(recentProducts.values()));
+            cachedCategoryVersion = categoryVersion;
+        }
+        return cachedStats;
+    }
+    
+    // Must hold the lock; category ids translated through the in-memory dictionary
+    private SortedMap<String, Long> countsByCategoryName() {
+        SortedMap<String, Long> counts = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        categoryCounts.forEach((categoryId, count) ->
+            counts.merge(categoryService.getCategoryName(categoryId), count, Long::sum));
+        return counts;
+    }
+    
+    // Add (sign = 1) or remove (sign = -1) one product's contribution
+    private void apply(ProductSnapshot product, int sign) {
+        totalProducts += sign;
+        if (product.isLowStock()) {
+            lowStockProducts += sign;
+        }
+        if (product.isOutOfStock()) {
+            outOfStockProducts += sign;
+        }
+        if (product.isActiveProduct()) {
+            activeProducts += sign;
+        }
+        BigDecimal value = product.getStockValue();
+        totalInventoryValue = sign > 0 ? totalInventoryValue.add(value) : totalInventoryValue.subtract(value);
+        long count = categoryCounts.getOrDefault(product.getCategoryId(), 0L) + sign;
+        if (count > 0) {
+            categoryCounts.put(product.getCategoryId(), count);
+        } else {
+            categoryCounts.remove(product.getCategoryId());
+        }
+    }
+    
+    // Returns true when a recent product was hard deleted and the list must be refilled
+    private boolean updateRecent(ProductChangedEvent event) {
+        Long id = event.getProductId();
+        if (event.isDeleted()) {
+            return recentProducts.remove(id) != null;
+        }
+        if (recentProducts.containsKey(id)
+                || recentProducts.size() < RECENT_PRODUCTS_LIMIT
+                || id > recentProducts.lastKey()) {
+            recentProducts.put(id, event.getAfter());
+            while (recentProducts.size() > RECENT_PRODUCTS_LIMIT) {
+                recentProducts.pollLastEntry();
+            }
+        }
+        return false;
+    }
+    
+    private void reloadRecentProducts() {
+        for (int attempt = 1; attempt <= RELOAD_ATTEMPTS; attempt++) {
+            long startGeneration;
+            synchronized (this) {
+                startGeneration = generation;
+            }
+            List<Product> recent = productRepository.findTop5ByOrderByIdDesc();
+            synchronized (this) {
+                if (generation == startGeneration || attempt == RELOAD_ATTEMPTS) {
+                    replaceRecent(recent);
+                    return;
+                }
+            }
+        }
+    }
+    
+    // Must hold the lock; a write in flight only delays a reload for so long
+    private void awaitWritesInFlight() {
+        long deadline = System.currentTimeMillis() + WRITES_IN_FLIGHT_WAIT_MS;
+        long remaining = WRITES_IN_FLIGHT_WAIT_MS;
+        try {
+            while (writesInFlight > 0 && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // Must hold the lock
+    private void replaceRecent(List<Product> recent) {
+        recentProducts.clear();
+        recent.forEach(product -> recentProducts.put(product.getId(), ProductSnapshot.of(product)));
+        cachedStats = null;
+    }
+}
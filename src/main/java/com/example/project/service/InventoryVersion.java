@@ -0,0 +1,38 @@
+package com.example.project.service;
+
+import com.example.project.event.ProductChangedEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Global version of what the inventory pages show. It is bumped after every committed product
+// write (stock changes included) and whenever the category dictionary changes, so anything
+// cached under one version is current until the version moves on (see PageCacheFilter).
+// Writes made by other instances only arrive here through periodic reloads, so the version
+// also advances every max-staleness interval.
+@Component
+public class InventoryVersion {
+    
+    private final AtomicLong version = new AtomicLong(1);
+    
+    public long current() {
+        return version.get();
+    }
+    
+    public void bump() {
+        version.incrementAndGet();
+    }
+    
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        bump();
+    }
+    
+    @Scheduled(initialDelayString = "${inventory.page-cache.max-staleness-ms:30000}",
+               fixedDelayString = "${inventory.page-cache.max-staleness-ms:30000}")
+    public void expire() {
+        bump();
+    }
+}
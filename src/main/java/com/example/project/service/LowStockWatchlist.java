@@ -0,0 +1,178 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import com.example.project.event.StockThresholdEvent;
+import com.example.project.event.StockThresholdEvent.Crossing;
+import com.example.project.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+// Products that are low on stock or out of stock, kept in memory and ordered by deficit
+// (minQuantity - quantity, largest first), so the low-stock and out-of-stock pages never
+// scan the products table. Every committed product write is checked against the
+// thresholds and a StockThresholdEvent is published for each one it crosses.
+//
+// Change events of one product may arrive out of order (stock changes publish theirs in a
+// transaction of their own, after the ledger committed them), so the quantity watched is the
+// one the stock ledger last committed, when it has it, rather than the one in the event.
+@Component
+public class LowStockWatchlist {
+    
+    private static final Logger log = LoggerFactory.getLogger(LowStockWatchlist.class);
+    
+    static final Comparator<ProductSnapshot> BY_DEFICIT =
+            Comparator.comparingInt(LowStockWatchlist::deficit).reversed()
+                    .thenComparing(ProductSnapshot::getId);
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // Guarded by "this"
+    private final Map<Long, ProductSnapshot> watched = new HashMap<>();
+    private final NavigableSet<ProductSnapshot> byDeficit = new TreeSet<>(BY_DEFICIT);
+    private long generation;
+    
+    // Load the products currently below a threshold
+    @PostConstruct
+    public void reload() {
+        long startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+        stockLedger.settle();
+        List<Product> lowStock = productRepository.findByStockStatus(Product.StockStatus.LOW);
+        List<Product> outOfStock = productRepository.findByStockStatus(Product.StockStatus.OUT);
+        
+        synchronized (this) {
+            // A write committed while we were loading; keep the event-driven state
+            if (generation != startGeneration) {
+                return;
+            }
+            watched.clear();
+            byDeficit.clear();
+            lowStock.forEach(product -> watch(ProductSnapshot.of(product)));
+            outOfStock.forEach(product -> watch(ProductSnapshot.of(product)));
+        }
+        log.debug("Low-stock watchlist loaded: {} low, {} out of stock", lowStock.size(), outOfStock.size());
+    }
+    
+    // Periodic resync to correct any drift from writes made outside ProductService
+    @Scheduled(initialDelayString = "${inventory.low-stock.resync-interval-ms:300000}",
+               fixedDelayString = "${inventory.low-stock.resync-interval-ms:300000}")
+    public void resync() {
+        reload();
+    }
+    
+    // Re-check a committed write against the thresholds
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductSnapshot after = event.getAfter() == null ? null : stockLedger.withCurrentQuantity(event.getAfter());
+        synchronized (this) {
+            generation++;
+            unwatch(event.getProductId());
+            if (after != null) {
+                watch(after);
+            }
+        }
+        for (StockThresholdEvent crossing : crossings(event)) {
+            log.debug("{}", crossing);
+            eventPublisher.publishEvent(crossing);
+        }
+    }
+    
+    // Low-stock products, largest deficit first
+    public synchronized List<ProductSnapshot> getLowStock() {
+        List<ProductSnapshot> result = new ArrayList<>();
+        for (ProductSnapshot product : byDeficit) {
+            if (product.isLowStock()) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+    
+    // Out-of-stock products, largest deficit first
+    public synchronized List<ProductSnapshot> getOutOfStock() {
+        List<ProductSnapshot> result = new ArrayList<>();
+        for (ProductSnapshot product : byDeficit) {
+            if (product.isOutOfStock()) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+    
+    public synchronized int size() {
+        return watched.size();
+    }
+    
+    // Must hold the lock
+    private void watch(ProductSnapshot product) {
+        if (product.isLowStock() || product.isOutOfStock()) {
+            watched.put(product.getId(), product);
+            byDeficit.add(product);
+        }
+    }
+    
+    // Must hold the lock
+    private void unwatch(Long id) {
+        ProductSnapshot previous = watched.remove(id);
+        if (previous != null) {
+            byDeficit.remove(previous);
+        }
+    }
+    
+    // Thresholds crossed by a write; a new product counts as coming from "in stock",
+    // a hard delete crosses nothing
+    static List<StockThresholdEvent> crossings(ProductChangedEvent event) {
+        List<StockThresholdEvent> crossings = new ArrayList<>();
+        ProductSnapshot before = event.getBefore();
+        ProductSnapshot after = event.getAfter();
+        if (after == null) {
+            return crossings;
+        }
+        boolean wasLow = before != null && before.isLowStock();
+        boolean wasOut = before != null && before.isOutOfStock();
+        if (!wasLow && after.isLowStock()) {
+            crossings.add(new StockThresholdEvent(Crossing.LOW_STOCK, after));
+        }
+        if (!wasOut && after.isOutOfStock()) {
+            crossings.add(new StockThresholdEvent(Crossing.OUT_OF_STOCK, after));
+        }
+        if (wasOut && !after.isOutOfStock()) {
+            crossings.add(new StockThresholdEvent(Crossing.BACK_IN_STOCK, after));
+        }
+        if (wasLow && !after.isLowStock()) {
+            crossings.add(new StockThresholdEvent(Crossing.STOCK_RECOVERED, after));
+        }
+        return crossings;
+    }
+    
+    private static int deficit(ProductSnapshot product) {
+        int minQuantity = product.getMinQuantity() != null ? product.getMinQuantity() : 0;
+        int quantity = product.getQuantity() != null ? product.getQuantity() : 0;
+        return minQuantity - quantity;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.project.service;
+
+import java.util.List;
+
+// Everything InventoryMetrics has recorded, as served by /metrics
+public class MetricsSnapshot {
+    
+    private final List<RequestStats> requests;
+    private final List<CallStats> calls;
+    private final List<ConnectionPoolStats> connectionPools;
+    private final List<OptimisticWriteStats> optimisticWrites;
+    private final HibernateStats hibernate;
+    
+    public MetricsSnapshot(List<RequestStats> requests, List<CallStats> calls,
+                           List<ConnectionPoolStats> connectionPools, List<OptimisticWriteStats> optimisticWrites,
+                           HibernateStats hibernate) {
+        this.requests = requests;
+        this.calls = calls;
+        this.connectionPools = connectionPools;
+        this.optimisticWrites = optimisticWrites;
+        this.hibernate = hibernate;
+    }
+    
+    // Per route, busiest first
+    public List<RequestStats> getRequests() {
+        return requests;
+    }
+    
+    // Per service and repository method, most total time first
+    public List<CallStats> getCalls() {
+        return calls;
+    }
+    
+    public List<ConnectionPoolStats> getConnectionPools() {
+        return connectionPools;
+    }
+    
+    // Per retried service write
+    public List<OptimisticWriteStats> getOptimisticWrites() {
+        return optimisticWrites;
+    }
+    
+    // Null unless hibernate.generate_statistics is on
+    public HibernateStats getHibernate() {
+        return hibernate;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.project.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Runs a service-level write in a transaction of its own and, when it loses a version check to a
+// concurrent write, runs it again on fresh state after a short randomized backoff. Attempts and
+// backoff are bounded; once they run out the last failure is rethrown. Call outside a
+// transaction: a write joining an outer one could not be retried on its own.
+@Component
+public class OptimisticRetryExecutor {
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+    
+    @Value("${inventory.retry.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${inventory.retry.initial-backoff-ms:10}")
+    private long initialBackoffMs;
+    
+    @Value("${inventory.retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+    
+    public <T> T execute(String operation, Supplier<T> write) {
+        inventoryMetrics.recordWrite(operation);
+        long backoffMs = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> write.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    inventoryMetrics.recordRetriesExhausted(operation);
+                    throw e;
+                }
+                inventoryMetrics.recordRetry(operation);
+                // Full jitter keeps writers that collided from colliding again in step
+                sleep(ThreadLocalRandom.current().nextLong(backoffMs + 1));
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            }
+        }
+    }
+    
+    public void run(String operation, Runnable write) {
+        execute(operation, () -> {
+            write.run();
+            return null;
+        });
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.project.service;
+
+// Optimistic concurrency outcomes of one service-level write: retries after a lost version
+// check, writes that ran out of retries, edits merged with a concurrent change and edits
+// rejected because they conflicted with one
+public class OptimisticWriteStats {
+    
+    private final String operation;
+    private final long writes;
+    private final long retries;
+    private final long retriesExhausted;
+    private final long merged;
+    private final long conflicts;
+    
+    public OptimisticWriteStats(String operation, long writes, long retries, long retriesExhausted,
+                                long merged, long conflicts) {
+        this.operation = operation;
+        this.writes = writes;
+        this.retries = retries;
+        this.retriesExhausted = retriesExhausted;
+        this.merged = merged;
+        this.conflicts = conflicts;
+    }
+    
+    public String getOperation() {
+        return operation;
+    }
+    
+    public long getWrites() {
+        return writes;
+    }
+    
+    public long getRetries() {
+        return retries;
+    }
+    
+    public long getRetriesExhausted() {
+        return retriesExhausted;
+    }
+    
+    public long getMerged() {
+        return merged;
+    }
+    
+    public long getConflicts() {
+        return conflicts;
+    }
+    
+    // Retries per write
+    public double getRetryRate() {
+        return writes > 0 ? (double) retries / writes : 0.0;
+    }
+    
+    // Share of writes rejected as conflicting edits
+    public double getConflictRate() {
+        return writes > 0 ? (double) conflicts / writes : 0.0;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.project.service;
+
+// An edit whose other fields were saved but whose new quantity was refused. The quantity is
+// set by a stock movement after the rest of the edit committed, so it can still fail then,
+// e.g. when the product was deleted in between. Carries the quantity the product has instead
+// (null when it no longer exists).
+public class PartialEditException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Integer currentQuantity;
+    
+    public PartialEditException(String reason, Integer currentQuantity) {
+        super("The other changes were saved, but not the quantity: " + reason +
+              (currentQuantity != null ? ". The quantity is still " + currentQuantity + "." : ""));
+        this.currentQuantity = currentQuantity;
+    }
+    
+    public Integer getCurrentQuantity() {
+        return currentQuantity;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Bounded LRU cache of products by id and by SKU, with a time-to-live per entry.
+// Callers always get their own copy, so nothing they do can change the cached state.
+// Entries are dropped as soon as a write to the product commits; a load that raced
+// with such a write is not stored (see generation).
+@Component
+public class ProductCache {
+    
+    private final int maxSize;
+    private final long ttlMillis;
+    
+    // Guarded by "this"
+    private final LinkedHashMap<Long, Entry> byId = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> idsBySku = new HashMap<>();
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+    
+    public ProductCache(@Value("${inventory.cache.products.max-size:10000}") int maxSize,
+                        @Value("${inventory.cache.products.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+    
+    // Cached product by id, loading it on a miss
+    public Optional<Product> getById(Long id, Supplier<Optional<Product>> loader) {
+        long startGeneration;
+        synchronized (this) {
+            Product cached = lookup(id);
+            if (cached != null) {
+                hits++;
+                return Optional.of(copy(cached));
+            }
+            misses++;
+            startGeneration = generation;
+        }
+        return load(loader, startGeneration);
+    }
+    
+    // Cached product by SKU, loading it on a miss
+    public Optional<Product> getBySku(String sku, Supplier<Optional<Product>> loader) {
+        long startGeneration;
+        synchronized (this) {
+            Long id = idsBySku.get(sku);
+            Product cached = id != null ? lookup(id) : null;
+            if (cached != null) {
+                hits++;
+                return Optional.of(copy(cached));
+            }
+            misses++;
+            startGeneration = generation;
+        }
+        return load(loader, startGeneration);
+    }
+    
+    // Drop a product after a committed write
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProductId());
+    }
+    
+    public synchronized void evict(Long id) {
+        generation++;
+        invalidations++;
+        remove(id);
+    }
+    
+    public synchronized void clear() {
+        generation++;
+        byId.clear();
+        idsBySku.clear();
+    }
+    
+    public synchronized ProductCacheStats getStats() {
+        return new ProductCacheStats(byId.size(), maxSize, hits, misses, evictions, expirations, invalidations);
+    }
+    
+    private Optional<Product> load(Supplier<Optional<Product>> loader, long startGeneration) {
+        Optional<Product> loaded = loader.get();
+        loaded.ifPresent(product -> {
+            Product cached = copy(product);
+            synchronized (this) {
+                // A write committed while we were loading; what we read may already be stale
+                if (generation != startGeneration) {
+                    return;
+                }
+                remove(cached.getId());
+                byId.put(cached.getId(), new Entry(cached, System.currentTimeMillis() + ttlMillis));
+                idsBySku.put(cached.getSku(), cached.getId());
+                evictOverflow();
+            }
+        });
+        return loaded;
+    }
+    
+    // Must hold the lock
+    private Product lookup(Long id) {
+        Entry entry = byId.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            expirations++;
+            remove(id);
+            return null;
+        }
+        return entry.product;
+    }
+    
+    // Must hold the lock
+    private void remove(Long id) {
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            idsBySku.remove(entry.product.getSku(), id);
+        }
+    }
+    
+    // Must hold the lock; drops least recently used entries
+    private void evictOverflow() {
+        Iterator<Map.Entry<Long, Entry>> iterator = byId.entrySet().iterator();
+        while (byId.size() > maxSize && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            idsBySku.remove(eldest.product.getSku(), eldest.product.getId());
+            evictions++;
+        }
+    }
+    
+    // Every persistent field, including the version an edit form of the copy must carry
+    private static Product copy(Product source) {
+        Product product = new Product();
+        product.setId(source.getId());
+        product.setName(source.getName());
+        product.setDescription(source.getDescription());
+        product.setSku(source.getSku());
+        product.setPrice(source.getPrice());
+        product.setQuantity(source.getQuantity());
+        product.setMinQuantity(source.getMinQuantity());
+        product.setCategoryId(source.getCategoryId());
+        product.setCategory(source.getCategory());
+        product.setLegacyCategory(source.getLegacyCategory());
+        product.setBrand(source.getBrand());
+        product.setUnit(source.getUnit());
+        product.setCreatedAt(source.getCreatedAt());
+        product.setUpdatedAt(source.getUpdatedAt());
+        product.setIsActive(source.getIsActive());
+        product.setStockStatus(source.getStockStatus());
+        product.setVersion(source.getVersion());
+        return product;
+    }
+    
+    private static class Entry {
+        
+        private final Product product;
+        private final long expiresAt;
+        
+        Entry(Product product, long expiresAt) {
+            this.product = product;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.project.service;
+
+// Counters reported by ProductCache
+public class ProductCacheStats {
+    
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+    
+    public ProductCacheStats(int size, int maxSize, long hits, long misses, long evictions,
+                             long expirations, long invalidations) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public int getMaxSize() {
+        return maxSize;
+    }
+    
+    public long getHits() {
+        return hits;
+    }
+    
+    public long getMisses() {
+        return misses;
+    }
+    
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+    
+    // Entries dropped because the cache was full
+    public long getEvictions() {
+        return evictions;
+    }
+    
+    // Entries dropped because their time-to-live passed
+    public long getExpirations() {
+        return expirations;
+    }
+    
+    // Entries dropped because the product was written
+    public long getInvalidations() {
+        return invalidations;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.project.service;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Opaque keyset cursor for product listings: the sort key and id of the row to continue
+// from, plus the direction to read in. Encoded as URL-safe Base64 so clients treat it as a token.
+public final class ProductCursor {
+    
+    // Sort properties that can be paged by key. All are NOT NULL in practice; nullable
+    // columns such as category would need NULLS FIRST/LAST handling the keyset SQL lacks.
+    public static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "name", "sku", "price", "quantity", "createdAt");
+    
+    private static final String VERSION = "1";
+    
+    private ProductCursor() {
+    }
+    
+    public static boolean isSortable(String property) {
+        return SORTABLE_PROPERTIES.contains(property);
+    }
+    
+    // Encode a keyset position taken from a result window
+    public static String encode(KeysetScrollPosition position, String sortBy, String sortDir) {
+        StringBuilder raw = new StringBuilder(VERSION)
+            .append(';').append(position.scrollsForward() ? 'F' : 'B')
+            .append(';').append(sortBy)
+            .append(';').append(sortDir.toLowerCase());
+        position.getKeys().forEach((property, value) -> raw.append(';')
+            .append(property).append('=')
+            .append(URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8)));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Decode a cursor; a blank cursor means the first page. Cursors issued for another
+    // sort order are rejected, because their keys would not match the query.
+    public static KeysetScrollPosition decode(String cursor, String sortBy, String sortDir) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        String[] parts = raw.split(";");
+        if (parts.length < 5 || !parts[0].equals(VERSION)) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        if (!parts[2].equals(sortBy) || !parts[3].equalsIgnoreCase(sortDir)) {
+            throw new IllegalArgumentException("Page cursor does not match the requested sort order");
+        }
+        
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (int i = 4; i < parts.length; i++) {
+            int separator = parts[i].indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            String property = parts[i].substring(0, separator);
+            String value = URLDecoder.decode(parts[i].substring(separator + 1), StandardCharsets.UTF_8);
+            keys.put(property, parseKey(property, value));
+        }
+        return parts[1].equals("B")
+            ? ScrollPosition.backward(keys)
+            : ScrollPosition.forward(keys);
+    }
+    
+    private static Object parseKey(String property, String value) {
+        try {
+            switch (property) {
+                case "id":
+                    return Long.valueOf(value);
+                case "name":
+                case "sku":
+                    return value;
+                case "price":
+                    return new BigDecimal(value);
+                case "quantity":
+                    return Integer.valueOf(value);
+                case "createdAt":
+                    return LocalDateTime.parse(value);
+                default:
+                    throw new IllegalArgumentException("Invalid page cursor");
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+}
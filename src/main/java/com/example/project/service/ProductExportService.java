@@ -0,0 +1,104 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.repository.ProductRepository;
+import com.example.project.util.CsvWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Writes the whole catalog straight from a database cursor to a Writer, clearing the
+// persistence context as it goes, so heap use does not grow with the number of products.
+@Service
+@Transactional(readOnly = true)
+public class ProductExportService {
+    
+    // Entities are detached in batches of this size
+    private static final int CLEAR_INTERVAL = 1000;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Export as CSV with the same column names the product import accepts
+    public long exportCsv(Writer writer) throws IOException {
+        CsvWriter csv = new CsvWriter(writer);
+        csv.writeRecord("id", "name", "description", "sku", "price", "quantity", "min_quantity",
+                "category", "brand", "unit", "is_active", "created_at", "updated_at");
+        return forEachProduct(product -> csv.writeRecord(product.getId(), product.getName(), product.getDescription(),
+                product.getSku(), product.getPrice(), product.getQuantity(), product.getMinQuantity(),
+                product.getCategory(), product.getBrand(), product.getUnit(), product.getIsActive(),
+                product.getCreatedAt(), product.getUpdatedAt()));
+    }
+    
+    // Export as newline-delimited JSON, one product object per line
+    public long exportNdjson(Writer writer) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        json.setRootValueSeparator(null); // rows are separated by the newline written below
+        long count = forEachProduct(product -> {
+            json.writeStartObject();
+            json.writeNumberField("id", product.getId());
+            json.writeStringField("name", product.getName());
+            json.writeStringField("description", product.getDescription());
+            json.writeStringField("sku", product.getSku());
+            json.writeNumberField("price", product.getPrice());
+            json.writeNumberField("quantity", product.getQuantity());
+            writeNullableNumber(json, "minQuantity", product.getMinQuantity());
+            json.writeStringField("category", product.getCategory());
+            json.writeStringField("brand", product.getBrand());
+            json.writeStringField("unit", product.getUnit());
+            if (product.getIsActive() != null) {
+                json.writeBooleanField("isActive", product.getIsActive());
+            } else {
+                json.writeNullField("isActive");
+            }
+            json.writeStringField("createdAt", product.getCreatedAt() != null ? product.getCreatedAt().toString() : null);
+            json.writeStringField("updatedAt", product.getUpdatedAt() != null ? product.getUpdatedAt().toString() : null);
+            json.writeEndObject();
+            json.writeRaw('\n');
+        });
+        json.flush();
+        return count;
+    }
+    
+    private long forEachProduct(ProductWriter rowWriter) throws IOException {
+        long count = 0;
+        try (Stream<Product> products = productRepository.streamAll()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                rowWriter.write(iterator.next());
+                if (++count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+    
+    private void writeNullableNumber(JsonGenerator json, String field, Integer value) throws IOException {
+        if (value != null) {
+            json.writeNumberField(field, value);
+        } else {
+            json.writeNullField(field);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ProductWriter {
+        void write(Product product) throws IOException;
+    }
+}
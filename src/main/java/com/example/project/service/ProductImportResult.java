@@ -0,0 +1,131 @@
+package com.example.project.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Progress and outcome of one CSV product import. Updated by the import thread while
+// it runs and read by the status endpoint, hence the synchronized accessors.
+public class ProductImportResult {
+    
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+    
+    private final String jobId;
+    private final String fileName;
+    private final int maxReportedErrors;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private LocalDateTime finishedAt;
+    private Status status = Status.RUNNING;
+    private String message;
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    private final List<RowError> errors = new ArrayList<>();
+    
+    public ProductImportResult(String jobId, String fileName, int maxReportedErrors) {
+        this.jobId = jobId;
+        this.fileName = fileName;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+    
+    synchronized void addRowsRead(long count) {
+        rowsRead += count;
+    }
+    
+    synchronized void addImported(long count) {
+        imported += count;
+    }
+    
+    // Only the first maxReportedErrors rows are kept in detail so memory stays bounded
+    synchronized void addError(long row, String sku, String error) {
+        failed++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new RowError(row, sku, error));
+        }
+    }
+    
+    synchronized void complete() {
+        status = Status.COMPLETED;
+        finishedAt = LocalDateTime.now();
+    }
+    
+    synchronized void fail(String message) {
+        status = Status.FAILED;
+        this.message = message;
+        finishedAt = LocalDateTime.now();
+    }
+    
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public synchronized LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public synchronized Status getStatus() {
+        return status;
+    }
+    
+    public synchronized String getMessage() {
+        return message;
+    }
+    
+    public synchronized long getRowsRead() {
+        return rowsRead;
+    }
+    
+    public synchronized long getImported() {
+        return imported;
+    }
+    
+    public synchronized long getFailed() {
+        return failed;
+    }
+    
+    public synchronized List<RowError> getErrors() {
+        return new ArrayList<>(errors);
+    }
+    
+    public synchronized boolean isErrorListTruncated() {
+        return failed > errors.size();
+    }
+    
+    // A rejected CSV row (row numbers count the header as line 1)
+    public static class RowError {
+        
+        private final long row;
+        private final String sku;
+        private final String error;
+        
+        public RowError(long row, String sku, String error) {
+            this.row = row;
+            this.sku = sku;
+            this.error = error;
+        }
+        
+        public long getRow() {
+            return row;
+        }
+        
+        public String getSku() {
+            return sku;
+        }
+        
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import com.example.project.repository.ProductBatchRepository;
+import com.example.project.repository.ProductRepository;
+import com.example.project.util.CsvReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Streaming CSV product import. Rows are read and inserted one chunk at a time, so memory
+// stays flat however large the file is; each chunk checks its SKUs with one query and
+// is inserted as one JDBC batch in its own transaction.
+@Service
+public class ProductImportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+    
+    private static final int MAX_REMEMBERED_JOBS = 20;
+    
+    // Columns in the order their errors are reported
+    private static final List<String> FIELD_ORDER = List.of(
+        "name", "description", "sku", "price", "quantity", "minQuantity", "category", "brand", "unit");
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductBatchRepository productBatchRepository;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+    
+    @Value("${inventory.import.chunk-size:1000}")
+    private int chunkSize;
+    
+    @Value("${inventory.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+    
+    private final Map<String, ProductImportResult> jobs = new ConcurrentHashMap<>();
+    
+    // Import a file in the background; the file is deleted afterwards
+    public ProductImportResult startImport(Path file, String fileName) {
+        ProductImportResult result = newJob(fileName);
+        taskExecutor.execute(() -> {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                runImport(reader, result);
+            } catch (IOException e) {
+                result.fail(e.getMessage());
+            } finally {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete import file {}", file, e);
+                }
+            }
+        });
+        return result;
+    }
+    
+    // Import from a reader on the calling thread
+    public ProductImportResult importCsv(Reader reader, String fileName) {
+        ProductImportResult result = newJob(fileName);
+        runImport(reader, result);
+        return result;
+    }
+    
+    // Progress of a running or recently finished import
+    public Optional<ProductImportResult> getImport(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+    
+    private ProductImportResult newJob(String fileName) {
+        if (jobs.size() >= MAX_REMEMBERED_JOBS) {
+            jobs.values().removeIf(job -> job.getStatus() != ProductImportResult.Status.RUNNING);
+        }
+        ProductImportResult result = new ProductImportResult(UUID.randomUUID().toString(), fileName, maxReportedErrors);
+        jobs.put(result.getJobId(), result);
+        return result;
+    }
+    
+    private void runImport(Reader reader, ProductImportResult result) {
+        try (CsvReader csv = new CsvReader(reader)) {
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                result.complete();
+                return;
+            }
+            Map<String, Integer> columns = parseHeader(header);
+            
+            List<CsvRow> chunk = new ArrayList<>(chunkSize);
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                chunk.add(new CsvRow(csv.getRecordLineNumber(), record));
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, columns, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, columns, result);
+            }
+            result.complete();
+            log.info("Product import {} finished: {} rows, {} imported, {} failed",
+                    result.getJobId(), result.getRowsRead(), result.getImported(), result.getFailed());
+        } catch (IOException | RuntimeException e) {
+            log.error("Product import {} failed", result.getJobId(), e);
+            result.fail(e.getMessage());
+        }
+    }
+    
+    private void importChunk(List<CsvRow> rows, Map<String, Integer> columns, ProductImportResult result) {
+        result.addRowsRead(rows.size());
+        
+        // Parse and validate; duplicates inside the chunk are caught here, duplicates of
+        // earlier chunks by the existence check below because those are already committed
+        Map<String, Product> productsBySku = new LinkedHashMap<>();
+        Map<String, Long> rowsBySku = new HashMap<>();
+        for (CsvRow row : rows) {
+            String sku = field(row.fields, columns, "sku");
+            try {
+                Product product = toProduct(row.fields, columns);
+                String error = validate(product);
+                if (error != null) {
+                    result.addError(row.line, sku, error);
+                } else if (productsBySku.containsKey(product.getSku())) {
+                    result.addError(row.line, sku, "Duplicate SKU in file (first seen on row " + rowsBySku.get(sku) + ")");
+                } else {
+                    productsBySku.put(product.getSku(), product);
+                    rowsBySku.put(product.getSku(), row.line);
+                }
+            } catch (IllegalArgumentException e) {
+                result.addError(row.line, sku, e.getMessage());
+            }
+        }
+        if (productsBySku.isEmpty()) {
+            return;
+        }
+        
+        try {
+            // Names become category ids before the chunk transaction; a new name creates its category
+            productsBySku.values().forEach(product ->
+                product.setCategoryId(categoryService.resolveCategoryId(product.getCategory())));
+            List<String> existing = transactionTemplate.execute(status -> insertNew(productsBySku));
+            existing.forEach(sku -> result.addError(rowsBySku.get(sku), sku, "Product with SKU " + sku + " already exists"));
+            result.addImported(productsBySku.size() - existing.size());
+        } catch (RuntimeException e) {
+            log.warn("Product import {} chunk rolled back", result.getJobId(), e);
+            productsBySku.keySet().forEach(sku -> result.addError(rowsBySku.get(sku), sku, "Chunk rolled back: " + e.getMessage()));
+        }
+        log.debug("Product import {}: {} rows read, {} imported, {} failed",
+                result.getJobId(), result.getRowsRead(), result.getImported(), result.getFailed());
+    }
+    
+    // Insert the products whose SKU is not taken yet and return the SKUs that were
+    private List<String> insertNew(Map<String, Product> productsBySku) {
+        List<String> existing = productRepository.findExistingSkus(productsBySku.keySet());
+        Set<String> existingSet = new HashSet<>(existing);
+        List<Product> toInsert = new ArrayList<>(productsBySku.size());
+        productsBySku.forEach((sku, product) -> {
+            if (!existingSet.contains(sku)) {
+                toInsert.add(product);
+            }
+        });
+        if (toInsert.isEmpty()) {
+            return existing;
+        }
+        
+        productBatchRepository.insertProducts(toInsert);
+        
+        // Read back once to learn the generated ids for change listeners
+        List<String> inserted = toInsert.stream().map(Product::getSku).toList();
+        productRepository.findBySkuIn(inserted)
+            .forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.created(ProductSnapshot.of(product))));
+        return existing;
+    }
+    
+    // Map header names to column positions; names are matched ignoring case, spaces and underscores
+    private Map<String, Integer> parseHeader(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase().replace("_", "").replace(" ", "").replace("-", "");
+            columns.put(name.equals("active") ? "isactive" : name, i);
+        }
+        for (String required : List.of("name", "sku", "price", "quantity")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing required column: " + required);
+            }
+        }
+        return columns;
+    }
+    
+    private Product toProduct(List<String> fields, Map<String, Integer> columns) {
+        Product product = new Product();
+        product.setName(field(fields, columns, "name"));
+        product.setDescription(field(fields, columns, "description"));
+        product.setSku(field(fields, columns, "sku"));
+        product.setPrice(parseDecimal(field(fields, columns, "price"), "price"));
+        product.setQuantity(parseInteger(field(fields, columns, "quantity"), "quantity"));
+        product.setMinQuantity(parseInteger(field(fields, columns, "minquantity"), "minQuantity"));
+        product.setCategory(field(fields, columns, "category"));
+        product.setBrand(field(fields, columns, "brand"));
+        product.setUnit(field(fields, columns, "unit"));
+        String active = field(fields, columns, "isactive");
+        product.setIsActive(active == null || active.equalsIgnoreCase("true") || active.equals("1")
+                || active.equalsIgnoreCase("yes"));
+        return product;
+    }
+    
+    // Check the row against the constraint annotations on Product; the first violation, in
+    // field order, becomes the row's error
+    private String validate(Product product) {
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .min(Comparator.comparingInt(violation -> FIELD_ORDER.indexOf(violation.getPropertyPath().toString())))
+            .map(ConstraintViolation::getMessage)
+            .orElseThrow();
+    }
+    
+    // Trimmed field value, null when the column is absent or blank
+    private String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    private BigDecimal parseDecimal(String value, String column) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+    
+    private Integer parseInteger(String value, String column) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+    
+    private static class CsvRow {
+        
+        private final long line;
+        private final List<String> fields;
+        
+        CsvRow(long line, List<String> fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import com.example.project.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// In-memory trigram index over product name, SKU and brand, so text search never
+// has to scan the products table. Built once at startup and kept current from
+// ProductChangedEvents. Those of one product may arrive out of order, so the quantity
+// that searches filter on is the one the stock ledger last committed, when it has it.
+//
+// Every field is indexed by the trigrams of its lower-cased text plus two extra
+// grams per word start ("\0\0a", "\0ab"). A query of three or more characters is
+// answered by intersecting the posting lists of its trigrams and checking the
+// survivors for the real substring; a shorter query matches word prefixes.
+//
+// Deleted products leave their slot empty; once the empty slots outnumber the live
+// ones the slots are compacted in memory, without reading the table again.
+@Component
+public class ProductSearchIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+    
+    private static final char WORD_START = '\0';
+    private static final int MAX_SCORE = 1000;
+    private static final int INITIAL_SLOTS = 1024;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // All state below is guarded by "lock"
+    private Document[] documents = new Document[INITIAL_SLOTS];
+    private int nextSlot;
+    private int deadSlots;
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    
+    // Index every product, streaming them so the whole table is never held at once
+    @PostConstruct
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        int indexed;
+        lock.writeLock().lock();
+        try {
+            clear(INITIAL_SLOTS);
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Product> products = productRepository.streamAll()) {
+                    products.forEach(product -> put(ProductSnapshot.of(product)));
+                }
+            });
+            indexed = slotsById.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index built: {} products in {} ms", indexed, System.currentTimeMillis() - start);
+    }
+    
+    // Apply a committed product write, with the quantity the stock ledger last committed
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            apply(event.getProductId(), null);
+        } else {
+            apply(event.getProductId(), stockLedger.withCurrentQuantity(event.getAfter()));
+        }
+    }
+    
+    // Index the snapshot as given, or drop the product when there is none
+    void apply(Long productId, ProductSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            if (snapshot == null) {
+                remove(productId);
+            } else {
+                put(snapshot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Ids of products whose name, SKU or brand contains the text, best match first
+    public List<Long> search(String text, Predicate<ProductSnapshot> filter) {
+        return find(text, false, filter);
+    }
+    
+    // Ids of products whose name contains the text, best match first
+    public List<Long> searchNames(String text) {
+        return find(text, true, snapshot -> true);
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private List<Long> find(String text, boolean namesOnly, Predicate<ProductSnapshot> filter) {
+        String query = normalize(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        // Each hit is ranked by one primitive sort key: score (high first), then name
+        // length (short first), then slot. Slots follow id order, so ties end up by id.
+        long[] keys;
+        long[] ids;
+        int hits = 0;
+        lock.readLock().lock();
+        try {
+            PostingList candidates = candidates(query);
+            if (candidates == null) {
+                return List.of();
+            }
+            keys = new long[candidates.size];
+            ids = new long[candidates.size];
+            for (int i = 0; i < candidates.size; i++) {
+                Document document = documents[candidates.slots[i]];
+                if (document == null || !filter.test(document.snapshot)) {
+                    continue;
+                }
+                int score = document.score(query, namesOnly);
+                if (score > 0) {
+                    long nameLength = Math.min(document.name.length(), 0xFFFF);
+                    keys[hits] = ((long) (MAX_SCORE - score) << 48) | (nameLength << 32) | hits;
+                    ids[hits] = document.snapshot.getId();
+                    hits++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Arrays.sort(keys, 0, hits);
+        List<Long> result = new ArrayList<>(hits);
+        for (int i = 0; i < hits; i++) {
+            result.add(ids[(int) keys[i]]);
+        }
+        return result;
+    }
+    
+    // Must hold the lock. Smallest posting list first, so the intersection only shrinks.
+    private PostingList candidates(String query) {
+        Set<Long> grams = new LinkedHashSet<>();
+        if (query.length() >= 3) {
+            for (int i = 0; i + 3 <= query.length(); i++) {
+                grams.add(gram(query.charAt(i), query.charAt(i + 1), query.charAt(i + 2)));
+            }
+        } else if (query.length() == 2) {
+            grams.add(gram(WORD_START, query.charAt(0), query.charAt(1)));
+        } else {
+            grams.add(gram(WORD_START, WORD_START, query.charAt(0)));
+        }
+        List<PostingList> lists = new ArrayList<>(grams.size());
+        for (Long gram : grams) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                return null;
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        PostingList result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.size > 0; i++) {
+            result = result.intersect(lists.get(i));
+        }
+        return result;
+    }
+    
+    // Must hold the write lock
+    private void put(ProductSnapshot snapshot) {
+        Document document = new Document(snapshot);
+        Integer existing = slotsById.get(snapshot.getId());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            Document previous = documents[slot];
+            if (previous.sameText(document)) {
+                // Stock and price changes only need the new snapshot for filtering
+                documents[slot] = document;
+                return;
+            }
+            previous.grams().forEach(gram -> removePosting(gram, existing));
+        } else {
+            slot = allocateSlot();
+            slotsById.put(snapshot.getId(), slot);
+        }
+        documents[slot] = document;
+        document.grams().forEach(gram -> postings.computeIfAbsent(gram, key -> new PostingList()).add(slot));
+    }
+    
+    // Must hold the write lock. Slots are not reused until the next compaction.
+    private void remove(Long id) {
+        Integer slot = slotsById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        documents[slot].grams().forEach(gram -> removePosting(gram, slot));
+        documents[slot] = null;
+        deadSlots++;
+        if (deadSlots > Math.max(INITIAL_SLOTS, slotsById.size())) {
+            compact();
+        }
+    }
+    
+    // Must hold the write lock. Re-index the live documents into consecutive slots, in
+    // their current order, so slots still follow id order.
+    private void compact() {
+        List<ProductSnapshot> live = new ArrayList<>(slotsById.size());
+        for (int slot = 0; slot < nextSlot; slot++) {
+            if (documents[slot] != null) {
+                live.add(documents[slot].snapshot);
+            }
+        }
+        int dead = deadSlots;
+        clear(Math.max(INITIAL_SLOTS, Integer.highestOneBit(live.size()) * 2));
+        live.forEach(this::put);
+        log.debug("Product search index compacted: {} empty slots dropped, {} products kept", dead, live.size());
+    }
+    
+    // Must hold the write lock
+    private void clear(int capacity) {
+        documents = new Document[capacity];
+        nextSlot = 0;
+        deadSlots = 0;
+        slotsById.clear();
+        postings.clear();
+    }
+    
+    private void removePosting(Long gram, int slot) {
+        PostingList list = postings.get(gram);
+        if (list != null && list.remove(slot) && list.size == 0) {
+            postings.remove(gram);
+        }
+    }
+    
+    private int allocateSlot() {
+        if (nextSlot == documents.length) {
+            documents = Arrays.copyOf(documents, documents.length * 2);
+        }
+        return nextSlot++;
+    }
+    
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static long gram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+    
+    private static void addGrams(String field, Set<Long> grams) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (i + 3 <= field.length()) {
+                grams.add(gram(c, field.charAt(i + 1), field.charAt(i + 2)));
+            }
+            if (isWordStart(field, i)) {
+                grams.add(gram(WORD_START, WORD_START, c));
+                if (i + 1 < field.length()) {
+                    grams.add(gram(WORD_START, c, field.charAt(i + 1)));
+                }
+            }
+        }
+    }
+    
+    private static boolean isWordStart(String field, int index) {
+        return Character.isLetterOrDigit(field.charAt(index))
+                && (index == 0 || !Character.isLetterOrDigit(field.charAt(index - 1)));
+    }
+    
+    private static boolean hasWordPrefix(String field, String prefix) {
+        for (int i = field.indexOf(prefix); i >= 0; i = field.indexOf(prefix, i + 1)) {
+            if (isWordStart(field, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // One indexed product with its lower-cased searchable fields
+    private static final class Document {
+        
+        final ProductSnapshot snapshot;
+        final String name;
+        final String sku;
+        final String brand;
+        
+        Document(ProductSnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.name = normalize(snapshot.getName());
+            this.sku = normalize(snapshot.getSku());
+            this.brand = normalize(snapshot.getBrand());
+        }
+        
+        boolean sameText(Document other) {
+            return name.equals(other.name) && sku.equals(other.sku) && brand.equals(other.brand);
+        }
+        
+        Set<Long> grams() {
+            Set<Long> grams = new LinkedHashSet<>();
+            addGrams(name, grams);
+            addGrams(sku, grams);
+            addGrams(brand, grams);
+            return grams;
+        }
+        
+        // Relevance of this product for the query, 0 when it does not actually match.
+        // Exact SKU first, then name matches from strongest to weakest, then SKU and brand.
+        int score(String query, boolean namesOnly) {
+            boolean substring = query.length() >= 3;
+            int score = fieldScore(name, query, substring, 800);
+            if (namesOnly) {
+                return score;
+            }
+            if (sku.equals(query)) {
+                return MAX_SCORE;
+            }
+            score = Math.max(score, fieldScore(sku, query, substring, 300));
+            return Math.max(score, fieldScore(brand, query, substring, 100));
+        }
+        
+        private static int fieldScore(String field, String query, boolean substring, int weight) {
+            if (field.equals(query)) {
+                return weight;
+            }
+            if (field.startsWith(query)) {
+                return weight * 3 / 4;
+            }
+            if (hasWordPrefix(field, query)) {
+                return weight / 2;
+            }
+            if (substring && field.contains(query)) {
+                return weight / 4;
+            }
+            return 0;
+        }
+    }
+    
+    // Sorted set of document slots. Slots are handed out in increasing order, so
+    // adds during a rebuild are plain appends.
+    private static final class PostingList {
+        
+        int[] slots = new int[4];
+        int size;
+        
+        void add(int slot) {
+            int index = size == 0 || slots[size - 1] < slot ? -(size + 1) : Arrays.binarySearch(slots, 0, size, slot);
+            if (index >= 0) {
+                return;
+            }
+            index = -(index + 1);
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, index, slots, index + 1, size - index);
+            slots[index] = slot;
+            size++;
+        }
+        
+        boolean remove(int slot) {
+            int index = Arrays.binarySearch(slots, 0, size, slot);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+            size--;
+            return true;
+        }
+        
+        // Intersection with a larger list; binary search into it when it is much larger
+        PostingList intersect(PostingList other) {
+            PostingList result = new PostingList();
+            result.slots = new int[Math.max(1, Math.min(size, other.size))];
+            if ((long) size * 16 < other.size) {
+                int from = 0;
+                for (int i = 0; i < size && from < other.size; i++) {
+                    int index = Arrays.binarySearch(other.slots, from, other.size, slots[i]);
+                    if (index >= 0) {
+                        result.slots[result.size++] = slots[i];
+                        from = index + 1;
+                    } else {
+                        from = -(index + 1);
+                    }
+                }
+                return result;
+            }
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (slots[i] < other.slots[j]) {
+                    i++;
+                } else if (slots[i] > other.slots[j]) {
+                    j++;
+                } else {
+                    result.slots[result.size++] = slots[i];
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+    }
+}
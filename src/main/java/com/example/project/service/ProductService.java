@@ -1,32 +1,129 @@
 package com.example.project.service;
 
+import com.example.project.entity.PriceChange;
 import com.example.project.entity.Product;
+import com.example.project.entity.StockMovement;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import com.example.project.repository.PriceChangeRepository;
 import com.example.project.repository.ProductRepository;
+import com.example.project.repository.ProductSpecifications;
+import com.example.project.repository.ProductSummary;
+import com.example.project.repository.RepricingPreview;
+import com.example.project.repository.StockMovementRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+// Read-only by default, so queries can be served by a read replica; writes are annotated
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class ProductService {
     
+    // Ids per IN list when loading products found in memory
+    private static final int ID_LOOKUP_CHUNK = 1000;
+    
+    private static final String UPDATE_PRODUCT = "ProductService.updateProduct";
+    
+    // Fields of the product form, for merging an edit with concurrent changes. Category and
+    // quantity are applied by updateProduct itself (category id lookup, stock ledger).
+    private static final FieldMerge<Product> PRODUCT_FORM = new FieldMerge<Product>()
+        .field("name", Product::getName, (product, form) -> product.setName(form.getName()))
+        .field("description", Product::getDescription, (product, form) -> product.setDescription(form.getDescription()))
+        .field("sku", Product::getSku, (product, form) -> product.setSku(form.getSku()))
+        .field("price", Product::getPrice, (product, form) -> product.setPrice(form.getPrice()))
+        .field("minQuantity", Product::getMinQuantity, (product, form) -> product.setMinQuantity(form.getMinQuantity()))
+        .field("category", Product::getCategory)
+        .field("brand", Product::getBrand, (product, form) -> product.setBrand(form.getBrand()))
+        .field("unit", Product::getUnit, (product, form) -> product.setUnit(form.getUnit()))
+        .field("isActive", Product::getIsActive, (product, form) -> product.setIsActive(form.getIsActive()))
+        .field("quantity", Product::getQuantity);
+    
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    
+    @Autowired
+    private PriceChangeRepository priceChangeRepository;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private InventoryStatsService inventoryStatsService;
+    
+    @Autowired
+    private BulkStockAdjustmentService bulkStockAdjustmentService;
+    
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    
+    @Autowired
+    private LowStockWatchlist lowStockWatchlist;
+    
+    @Autowired
+    private RepricingService repricingService;
+    
+    @Autowired
+    private ProductImportService productImportService;
+    
+    @Autowired
+    private ProductExportService productExportService;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private OptimisticRetryExecutor retryExecutor;
+    
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     // Create a new product
+    @Transactional
     public Product createProduct(Product product) {
         if (productRepository.existsBySku(product.getSku())) {
             throw new RuntimeException("Product with SKU " + product.getSku() + " already exists");
         }
-        return productRepository.save(product);
+        product.setCategoryId(categoryService.resolveCategoryId(product.getCategory()));
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(ProductSnapshot.of(saved)));
+        return saved;
     }
     
     // Get all products with pagination
@@ -38,57 +135,86 @@ public class ProductService {
         return productRepository.findAll(pageable);
     }
     
+    // Get products by cursor (keyset pagination: no OFFSET and no COUNT query)
+    public ProductSlice getProductsByCursor(String cursor, int size, String sortBy, String sortDir) {
+        return scrollProducts(Specification.unrestricted(), cursor, size, sortBy, sortDir,
+                inventoryStatsService.getStats().getTotalProducts());
+    }
+    
     // Get all products without pagination
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
     
-    // Get product by ID
+    // Get product by ID. Cache misses read the primary: a lagging replica could otherwise put
+    // an outdated product back into the cache right after a change invalidated it.
+    @Transactional
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return productCache.getById(id, () -> productRepository.findById(id));
     }
     
-    // Get product by SKU
+    // Get product by SKU (cache misses read the primary, see getProductById)
+    @Transactional
     public Optional<Product> getProductBySku(String sku) {
-        return productRepository.findBySku(sku);
+        return productCache.getBySku(sku, () -> productRepository.findBySku(sku));
     }
     
-    // Update product
+    // Update product from a form of the current version (no merge base; the form's version
+    // must be the current one, or every field it changes is a conflict)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Product updateProduct(Long id, Product productDetails) {
-        Product product = productRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        return updateProduct(id, productDetails, null);
+    }
+    
+    // Update product from an edit form. Fields changed by someone else since the form was opened
+    // (editBase, see getEditBase) are kept unless the form changed them too, which is a conflict;
+    // a write that loses the version check to a concurrent one is retried on fresh state.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Product updateProduct(Long id, Product productDetails, String editBase) {
+        AppliedEdit edit = retryExecutor.execute(UPDATE_PRODUCT, () -> applyEdit(id, productDetails, editBase));
         
-        // Check if SKU is being changed and if new SKU already exists
-        if (!product.getSku().equals(productDetails.getSku()) && 
-            productRepository.existsBySku(productDetails.getSku())) {
-            throw new RuntimeException("Product with SKU " + productDetails.getSku() + " already exists");
+        // A quantity the form changed is a stock movement like any other, appended once (not per
+        // attempt) after the rest of the edit committed; one it left alone stays as concurrent
+        // stock movements made it. The quantity was checked before the edit was saved, so it is
+        // only refused now if the product changed in between, and then the caller is told which
+        // part of the edit was saved.
+        if (edit.setsQuantity) {
+            StockMutationResult result = stockService.setQuantity(id, productDetails.getQuantity(), StockMovement.Type.EDIT);
+            if (!result.isApplied()) {
+                throw new PartialEditException(result.getMessage(), result.getAvailable());
+            }
+            edit.saved.setQuantity(result.getAvailable());
         }
-        
-        product.setName(productDetails.getName());
-        product.setDescription(productDetails.getDescription());
-        product.setSku(productDetails.getSku());
-        product.setPrice(productDetails.getPrice());
-        product.setQuantity(productDetails.getQuantity());
-        product.setMinQuantity(productDetails.getMinQuantity());
-        product.setCategory(productDetails.getCategory());
-        product.setBrand(productDetails.getBrand());
-        product.setUnit(productDetails.getUnit());
-        product.setIsActive(productDetails.getIsActive());
-        
-        return productRepository.save(product);
+        return edit.saved;
+    }
+    
+    // Token of the values an edit form of this product starts from
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getEditBase(Product product) {
+        return PRODUCT_FORM.base(product);
     }
     
     // Delete product (soft delete)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteProduct(Long id) {
-        Product product = productRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
-        product.setIsActive(false);
-        productRepository.save(product);
+        retryExecutor.run("ProductService.deleteProduct", () -> {
+            Product product = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+            ProductSnapshot before = ProductSnapshot.of(product);
+            product.setIsActive(false);
+            saveAndPublish(before, product);
+        });
     }
     
     // Hard delete product
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void hardDeleteProduct(Long id) {
-        productRepository.deleteById(id);
+        retryExecutor.run("ProductService.hardDeleteProduct", () ->
+            productRepository.findById(id).ifPresent(product -> {
+                ProductSnapshot before = ProductSnapshot.of(product);
+                productRepository.delete(product);
+                eventPublisher.publishEvent(ProductChangedEvent.deleted(before));
+            }));
     }
     
     // Search products
@@ -96,12 +222,45 @@ public class ProductService {
                                      BigDecimal minPrice, BigDecimal maxPrice, 
                                      Integer minQuantity, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return productRepository.searchProducts(name, category, brand, minPrice, maxPrice, minQuantity, pageable);
+        Long categoryId = categoryService.getCategoryId(category);
+        if (categoryId == null && category != null && !category.isBlank()) {
+            return Page.empty(pageable);
+        }
+        if (name == null || name.isBlank()) {
+            return productRepository.findAll(
+                ProductSpecifications.matching(categoryId, brand, minPrice, maxPrice, minQuantity), pageable);
+        }
+        // Text search is answered by the index (name, SKU or brand); only the requested page is loaded
+        List<Long> ids = productSearchIndex.search(name,
+            snapshot -> matches(snapshot, categoryId, brand, minPrice, maxPrice, minQuantity));
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + size, ids.size());
+        return new PageImpl<>(findAllInOrder(ids.subList(from, to)), pageable, ids.size());
+    }
+    
+    // Search products by cursor, in id order; the total is only counted when asked for
+    public ProductSlice searchProductsByCursor(String name, String category, String brand,
+                                               BigDecimal minPrice, BigDecimal maxPrice,
+                                               Integer minQuantity, String cursor, int size, boolean withTotal) {
+        Long categoryId = categoryService.getCategoryId(category);
+        if (categoryId == null && category != null && !category.isBlank()) {
+            return new ProductSlice(List.of(), null, null, withTotal ? 0L : null);
+        }
+        if (name == null || name.isBlank()) {
+            Specification<Product> spec = ProductSpecifications.matching(categoryId, brand, minPrice, maxPrice, minQuantity);
+            return scrollProducts(spec, cursor, size, "id", "asc", withTotal ? productRepository.count(spec) : null);
+        }
+        // Text search is answered by the index, as in searchProducts, so both modes find the
+        // same products; the matching ids are then paged by key
+        List<Long> ids = new ArrayList<>(productSearchIndex.search(name,
+            snapshot -> matches(snapshot, categoryId, brand, minPrice, maxPrice, minQuantity)));
+        Collections.sort(ids);
+        return scrollIds(ids, cursor, size, withTotal);
     }
     
     // Get products by category
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+    public List<Product> getProductsByCategory(Long categoryId) {
+        return productRepository.findByCategoryId(categoryId);
     }
     
     // Get products by brand
@@ -111,12 +270,37 @@ public class ProductService {
     
     // Get low stock products
     public List<Product> getLowStockProducts() {
-        return productRepository.findLowStockProducts();
+        return findAllInOrder(idsOf(lowStockWatchlist.getLowStock()));
     }
     
     // Get out of stock products
     public List<Product> getOutOfStockProducts() {
-        return productRepository.findByQuantity(0);
+        return findAllInOrder(idsOf(lowStockWatchlist.getOutOfStock()));
+    }
+    
+    // Product list rows (no entities) in id order after afterId, optionally for one category
+    public List<ProductSummary> getProductSummaries(Long categoryId, long afterId, int limit) {
+        List<ProductSummary> summaries = categoryId != null
+            ? productRepository.findSummariesByCategoryAfter(categoryId, afterId, Limit.of(limit))
+            : productRepository.findSummariesAfter(afterId, Limit.of(limit));
+        List<ProductSummary> current = new ArrayList<>(summaries.size());
+        for (ProductSummary summary : summaries) {
+            Integer quantity = stockLedger.getCurrentQuantity(summary.getId());
+            current.add(quantity != null ? summary.withQuantity(quantity) : summary);
+        }
+        return current;
+    }
+    
+    // Low-stock list rows, largest deficit first, straight from the watchlist
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ProductSummary> getLowStockSummaries() {
+        return lowStockWatchlist.getLowStock().stream().map(ProductSummary::of).toList();
+    }
+    
+    // Out-of-stock list rows, straight from the watchlist
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ProductSummary> getOutOfStockSummaries() {
+        return lowStockWatchlist.getOutOfStock().stream().map(ProductSummary::of).toList();
     }
     
     // Get active products
@@ -124,47 +308,83 @@ public class ProductService {
         return productRepository.findByIsActiveTrue();
     }
     
+    // Latest ledger entries of a product, newest first
+    public List<StockMovement> getRecentStockMovements(Long id) {
+        return stockMovementRepository.findTop20ByProductIdOrderByIdDesc(id);
+    }
+    
+    // Latest price changes of a product, newest first
+    public List<PriceChange> getPriceHistory(Long id) {
+        return priceChangeRepository.findTop20ByProductIdOrderByIdDesc(id);
+    }
+    
     // Update product quantity (for stock management)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Product updateProductQuantity(Long id, Integer newQuantity) {
-        Product product = productRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
-        
-        if (newQuantity < 0) {
-            throw new RuntimeException("Quantity cannot be negative");
-        }
-        
-        product.setQuantity(newQuantity);
-        return productRepository.save(product);
+        return requireApplied(stockService.setQuantity(id, newQuantity));
     }
     
     // Add stock to product
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Product addStock(Long id, Integer quantityToAdd) {
-        Product product = productRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
-        
-        if (quantityToAdd < 0) {
-            throw new RuntimeException("Quantity to add cannot be negative");
-        }
-        
-        product.setQuantity(product.getQuantity() + quantityToAdd);
-        return productRepository.save(product);
+        return requireApplied(stockService.addStock(id, quantityToAdd));
     }
     
     // Remove stock from product
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Product removeStock(Long id, Integer quantityToRemove) {
-        Product product = productRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
-        
-        if (quantityToRemove < 0) {
-            throw new RuntimeException("Quantity to remove cannot be negative");
-        }
-        
-        if (product.getQuantity() < quantityToRemove) {
-            throw new RuntimeException("Insufficient stock. Available: " + product.getQuantity());
-        }
-        
-        product.setQuantity(product.getQuantity() - quantityToRemove);
-        return productRepository.save(product);
+        return requireApplied(stockService.removeStock(id, quantityToRemove));
+    }
+    
+    // Apply a large batch of stock adjustments in chunked, JDBC-batched transactions
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkStockAdjustmentResult bulkAdjustStock(List<StockAdjustment> adjustments) {
+        return bulkStockAdjustmentService.adjustStock(adjustments);
+    }
+    
+    // What a bulk repricing would change, from one aggregate query
+    public RepricingPreview previewRepricing(RepricingRequest request) {
+        return repricingService.preview(request);
+    }
+    
+    // Reprice every matching product in chunked, set-based transactions
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RepricingResult repriceProducts(RepricingRequest request) {
+        return repricingService.reprice(request);
+    }
+    
+    // Import products from an uploaded CSV file in the background
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductImportResult startProductImport(Path file, String fileName) {
+        return productImportService.startImport(file, fileName);
+    }
+    
+    // Import products from a CSV stream on the calling thread
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductImportResult importProducts(Reader reader, String fileName) {
+        return productImportService.importCsv(reader, fileName);
+    }
+    
+    // Get progress of a product import
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<ProductImportResult> getProductImport(String jobId) {
+        return productImportService.getImport(jobId);
+    }
+    
+    // Stream every product to the writer as CSV
+    public long exportProductsAsCsv(Writer writer) throws IOException {
+        return productExportService.exportCsv(writer);
+    }
+    
+    // Stream every product to the writer as newline-delimited JSON
+    public long exportProductsAsNdjson(Writer writer) throws IOException {
+        return productExportService.exportNdjson(writer);
+    }
+    
+    // Get product cache statistics
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ProductCacheStats getProductCacheStats() {
+        return productCache.getStats();
     }
     
     // Get total inventory value
@@ -185,6 +405,182 @@ public class ProductService {
     
     // Get products by name containing
     public List<Product> getProductsByNameContaining(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+        return findAllInOrder(productSearchIndex.searchNames(name));
+    }
+    
+    // Same non-text filters as ProductSpecifications.matching, applied to an indexed snapshot
+    private static boolean matches(ProductSnapshot snapshot, Long categoryId, String brand,
+                                   BigDecimal minPrice, BigDecimal maxPrice, Integer minQuantity) {
+        return (categoryId == null || categoryId.equals(snapshot.getCategoryId()))
+            && (brand == null || brand.isBlank() || brand.equals(snapshot.getBrand()))
+            && (minPrice == null || snapshot.getPrice().compareTo(minPrice) >= 0)
+            && (maxPrice == null || snapshot.getPrice().compareTo(maxPrice) <= 0)
+            && (minQuantity == null || snapshot.getQuantity() >= minQuantity);
+    }
+    
+    private static List<Long> idsOf(List<ProductSnapshot> products) {
+        List<Long> ids = new ArrayList<>(products.size());
+        products.forEach(product -> ids.add(product.getId()));
+        return ids;
+    }
+    
+    // Load products by id, keeping the order of the ids
+    private List<Product> findAllInOrder(List<Long> ids) {
+        Map<Long, Product> byId = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += ID_LOOKUP_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + ID_LOOKUP_CHUNK, ids.size()));
+            productRepository.findAllById(chunk).forEach(product -> byId.put(product.getId(), product));
+        }
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = byId.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+    
+    // Read one keyset window and build the cursors around it
+    private ProductSlice scrollProducts(Specification<Product> spec, String cursor, int size,
+                                        String sortBy, String sortDir, Long approximateTotal) {
+        String sortProperty = ProductCursor.isSortable(sortBy) ? sortBy : "id";
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+            Sort.by(sortProperty).descending() : Sort.by(sortProperty).ascending();
+        
+        KeysetScrollPosition position = ProductCursor.decode(cursor, sortProperty, sortDir);
+        Window<Product> window = scrollWindow(spec, sort, size, position);
+        if (position.scrollsBackward() && !window.hasNext()) {
+            // Paged back to the start: show a full first page rather than a short one
+            position = ScrollPosition.keyset();
+            window = scrollWindow(spec, sort, size, position);
+        }
+        
+        List<Product> content = window.getContent();
+        boolean hasNext = position.scrollsBackward() || window.hasNext();
+        boolean hasPrevious = position.scrollsBackward() ? window.hasNext() : !position.isInitial();
+        String nextCursor = null;
+        String previousCursor = null;
+        if (!content.isEmpty()) {
+            if (hasNext) {
+                KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(content.size() - 1);
+                nextCursor = ProductCursor.encode(last.forward(), sortProperty, sortDir);
+            }
+            if (hasPrevious) {
+                KeysetScrollPosition first = (KeysetScrollPosition) window.positionAt(0);
+                previousCursor = ProductCursor.encode(first.backward(), sortProperty, sortDir);
+            }
+        }
+        return new ProductSlice(content, nextCursor, previousCursor, approximateTotal);
+    }
+    
+    // Keyset window over ids sorted ascending, with the same cursors as scrollProducts by id
+    private ProductSlice scrollIds(List<Long> ids, String cursor, int size, boolean withTotal) {
+        KeysetScrollPosition position = ProductCursor.decode(cursor, "id", "asc");
+        int from = 0;
+        int to = Math.min(size, ids.size());
+        if (!position.isInitial()) {
+            if (!(position.getKeys().get("id") instanceof Long key)) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            int index = Collections.binarySearch(ids, key);
+            int after = index >= 0 ? index + 1 : -(index + 1);
+            int before = index >= 0 ? index : -(index + 1);
+            if (position.scrollsForward()) {
+                from = after;
+                to = Math.min(from + size, ids.size());
+            } else if (before > size) {
+                // Paged back to the start: show a full first page rather than a short one
+                to = before;
+                from = to - size;
+            }
+        }
+        
+        List<Product> content = findAllInOrder(ids.subList(from, to));
+        String nextCursor = null;
+        String previousCursor = null;
+        if (to < ids.size() && to > from) {
+            nextCursor = ProductCursor.encode(ScrollPosition.forward(Map.of("id", ids.get(to - 1))), "id", "asc");
+        }
+        if (from > 0 && to > from) {
+            previousCursor = ProductCursor.encode(ScrollPosition.backward(Map.of("id", ids.get(from))), "id", "asc");
+        }
+        return new ProductSlice(content, nextCursor, previousCursor, withTotal ? (long) ids.size() : null);
+    }
+    
+    private Window<Product> scrollWindow(Specification<Product> spec, Sort sort, int size, KeysetScrollPosition position) {
+        return productRepository.findBy(spec, query -> query.sortBy(sort).limit(size).scroll(position));
+    }
+    
+    // Turn a refused stock mutation into the usual exception, otherwise return the updated product
+    private Product requireApplied(StockMutationResult result) {
+        if (!result.isApplied()) {
+            throw new RuntimeException(result.getMessage());
+        }
+        return result.getLoadedProduct();
+    }
+    
+    // One attempt of updateProduct, in the retry executor's transaction
+    private AppliedEdit applyEdit(Long id, Product productDetails, String editBase) {
+        Product product = productRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        
+        // Check if SKU is being changed and if new SKU already exists
+        if (!product.getSku().equals(productDetails.getSku()) && 
+            productRepository.existsBySku(productDetails.getSku())) {
+            throw new RuntimeException("Product with SKU " + productDetails.getSku() + " already exists");
+        }
+        
+        // Without a base, only a form that proves it was opened on the current version starts
+        // from the current values; for any other form (no version included) the starting values
+        // are unknown, so every field it has different from the current row is a conflict
+        String base = editBase;
+        if (base == null && product.getVersion().equals(productDetails.getVersion())) {
+            base = PRODUCT_FORM.base(product);
+        }
+        ProductSnapshot before = ProductSnapshot.of(product);
+        FieldMerge.Result merge = PRODUCT_FORM.merge(base, productDetails, product);
+        if (merge.hasConflicts()) {
+            inventoryMetrics.recordConflict(UPDATE_PRODUCT);
+            throw new EditConflictException("product", merge.getConflicts(), product.getVersion(), PRODUCT_FORM.base(product));
+        }
+        if (merge.isMerged()) {
+            inventoryMetrics.recordMerge(UPDATE_PRODUCT);
+        }
+        boolean setsQuantity = merge.takes("quantity") && productDetails.getQuantity() != null;
+        // Refuse a quantity the stock movement would refuse before anything is saved
+        if (setsQuantity && productDetails.getQuantity() < 0) {
+            throw new RuntimeException("Quantity cannot be negative");
+        }
+        if (merge.takes("category")) {
+            product.setCategoryId(categoryService.resolveCategoryId(productDetails.getCategory()));
+            product.setCategory(productDetails.getCategory());
+        }
+        if (merge.takes("price")) {
+            priceChangeRepository.save(new PriceChange(id, before.getPrice(), product.getPrice(), PriceChange.Type.EDIT));
+        }
+        
+        Product saved = productRepository.saveAndFlush(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, ProductSnapshot.of(saved)));
+        return new AppliedEdit(saved, setsQuantity);
+    }
+    
+    // Save a modified product and notify listeners once the transaction commits
+    private Product saveAndPublish(ProductSnapshot before, Product product) {
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, ProductSnapshot.of(saved)));
+        return saved;
+    }
+    
+    // A committed edit, and whether the quantity of its form still has to be set
+    private static final class AppliedEdit {
+        
+        private final Product saved;
+        private final boolean setsQuantity;
+        
+        AppliedEdit(Product saved, boolean setsQuantity) {
+            this.saved = saved;
+            this.setsQuantity = setsQuantity;
+        }
     }
 }
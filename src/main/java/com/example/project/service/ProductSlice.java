@@ -0,0 +1,49 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+
+import java.util.List;
+
+// One cursor-paged window of products. Unlike Page, it carries no exact total,
+// so fetching it never needs a COUNT query.
+public class ProductSlice {
+    
+    private final List<Product> content;
+    private final String nextCursor;
+    private final String previousCursor;
+    private final Long approximateTotal;
+    
+    public ProductSlice(List<Product> content, String nextCursor, String previousCursor, Long approximateTotal) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+        this.approximateTotal = approximateTotal;
+    }
+    
+    public List<Product> getContent() {
+        return content;
+    }
+    
+    // Cursor for the following window, null on the last one
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    // Cursor for the preceding window, null on the first one
+    public String getPreviousCursor() {
+        return previousCursor;
+    }
+    
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+    
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+    
+    // Null when not requested
+    public Long getApproximateTotal() {
+        return approximateTotal;
+    }
+}
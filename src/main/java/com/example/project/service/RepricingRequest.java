@@ -0,0 +1,111 @@
+package com.example.project.service;
+
+import com.example.project.repository.RepricingRule;
+
+import java.math.BigDecimal;
+
+// A bulk repricing as posted by a client: which products (all filters optional), how to change
+// their price, how to round the result and the lowest price allowed
+public class RepricingRequest {
+    
+    // Lowest floor accepted, and the default: a price must stay above zero
+    static final BigDecimal MIN_FLOOR = new BigDecimal("0.01");
+    
+    private String category;
+    private String brand;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private RepricingRule.Change change;
+    private BigDecimal amount;
+    private RepricingRule.Rounding rounding = RepricingRule.Rounding.CENT;
+    private BigDecimal floor;
+    
+    // Why the request cannot be applied, or null when it can
+    public String validate() {
+        if (change == null || amount == null) {
+            return "Both change (PERCENT or AMOUNT) and amount are required";
+        }
+        if (change == RepricingRule.Change.PERCENT && amount.compareTo(BigDecimal.valueOf(-100)) <= 0) {
+            return "A percentage change must be above -100";
+        }
+        if (floor != null && floor.compareTo(MIN_FLOOR) < 0) {
+            return "Price floor must be at least " + MIN_FLOOR;
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            return "minPrice cannot be above maxPrice";
+        }
+        return null;
+    }
+    
+    // The rule for this request, with the category already resolved to its id
+    public RepricingRule toRule(Long categoryId) {
+        return new RepricingRule(categoryId, brand != null && !brand.isBlank() ? brand : null, minPrice, maxPrice,
+            change, amount, rounding != null ? rounding : RepricingRule.Rounding.CENT,
+            floor != null ? floor : MIN_FLOOR);
+    }
+    
+    // Getters and Setters
+    public String getCategory() {
+        return category;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public String getBrand() {
+        return brand;
+    }
+    
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+    
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+    
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+    
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+    
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+    
+    public RepricingRule.Change getChange() {
+        return change;
+    }
+    
+    public void setChange(RepricingRule.Change change) {
+        this.change = change;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public RepricingRule.Rounding getRounding() {
+        return rounding;
+    }
+    
+    public void setRounding(RepricingRule.Rounding rounding) {
+        this.rounding = rounding;
+    }
+    
+    public BigDecimal getFloor() {
+        return floor;
+    }
+    
+    public void setFloor(BigDecimal floor) {
+        this.floor = floor;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.project.service;
+
+// Summary of a bulk repricing. Chunks commit one by one: if one fails the run stops there,
+// and every product up to lastProductId keeps its new price.
+public class RepricingResult {
+    
+    private final String repricingId;
+    private int changed;
+    private int chunks;
+    private Long lastProductId;
+    private String error;
+    private long elapsedMillis;
+    
+    public RepricingResult(String repricingId) {
+        this.repricingId = repricingId;
+    }
+    
+    // Count one committed chunk
+    void addChunk(int changedInChunk, long lastProductIdInChunk) {
+        changed += changedInChunk;
+        chunks++;
+        lastProductId = lastProductIdInChunk;
+    }
+    
+    void setError(String error) {
+        this.error = error;
+    }
+    
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    // Tags this run's rows in the price history
+    public String getRepricingId() {
+        return repricingId;
+    }
+    
+    public int getChanged() {
+        return changed;
+    }
+    
+    public int getChunks() {
+        return chunks;
+    }
+    
+    public Long getLastProductId() {
+        return lastProductId;
+    }
+    
+    public boolean isCompleted() {
+        return error == null;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
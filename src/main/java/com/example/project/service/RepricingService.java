@@ -0,0 +1,121 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import com.example.project.repository.ProductRepository;
+import com.example.project.repository.RepricingPreview;
+import com.example.project.repository.RepricingRepository;
+import com.example.project.repository.RepricingRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+// Reprices every product matching a filter with set-based statements instead of one
+// updateProduct per product. Each chunk locks the next products whose price changes, writes
+// their price history and updates them (see RepricingRepository), then publishes their changes,
+// in a transaction of its own.
+@Service
+public class RepricingService {
+    
+    private static final Logger log = LoggerFactory.getLogger(RepricingService.class);
+    
+    @Autowired
+    private RepricingRepository repricingRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${inventory.repricing.chunk-size:1000}")
+    private int chunkSize;
+    
+    // What the repricing would change, from a single aggregate query; nothing is written
+    public RepricingPreview preview(RepricingRequest request) {
+        return repricingRepository.preview(toRule(request));
+    }
+    
+    // Apply the repricing chunk by chunk; call outside a transaction
+    public RepricingResult reprice(RepricingRequest request) {
+        RepricingRule rule = toRule(request);
+        long start = System.currentTimeMillis();
+        RepricingResult result = new RepricingResult(UUID.randomUUID().toString());
+        
+        long afterId = 0;
+        while (true) {
+            long chunkAfterId = afterId;
+            Map<Long, BigDecimal> chunk;
+            try {
+                chunk = transactionTemplate.execute(status -> applyChunk(rule, result.getRepricingId(), chunkAfterId));
+            } catch (RuntimeException e) {
+                // Earlier chunks are committed; this one rolled back as a whole
+                log.warn("Repricing {} failed after product id {}", result.getRepricingId(), afterId, e);
+                result.setError("Stopped after product id " + afterId + ": " + e.getMessage());
+                break;
+            }
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = Collections.max(chunk.keySet());
+            result.addChunk(chunk.size(), afterId);
+        }
+        
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("Repricing {} ({}): {} products changed in {} chunks, {} ms", result.getRepricingId(), rule,
+                result.getChanged(), result.getChunks(), result.getElapsedMillis());
+        return result;
+    }
+    
+    // Reprice the next chunk; returns the old prices of the products it changed (id order)
+    private Map<Long, BigDecimal> applyChunk(RepricingRule rule, String repricingId, long afterId) {
+        Map<Long, BigDecimal> oldPrices = repricingRepository.lockNextChunk(rule, afterId, chunkSize);
+        if (oldPrices.isEmpty()) {
+            return oldPrices;
+        }
+        long lastId = Collections.max(oldPrices.keySet());
+        LocalDateTime now = LocalDateTime.now();
+        repricingRepository.insertPriceChanges(rule, afterId, lastId, repricingId, now);
+        repricingRepository.updatePrices(rule, afterId, lastId, now);
+        
+        // Read the repriced rows back once to notify listeners
+        for (Product product : productRepository.findAllById(oldPrices.keySet())) {
+            ProductSnapshot after = ProductSnapshot.of(product);
+            eventPublisher.publishEvent(ProductChangedEvent.updated(
+                    after.withPrice(oldPrices.get(product.getId())), after));
+        }
+        return oldPrices;
+    }
+    
+    private RepricingRule toRule(RepricingRequest request) {
+        String error = request.validate();
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        Long categoryId = null;
+        if (request.getCategory() != null && !request.getCategory().isBlank()) {
+            categoryId = categoryService.getCategoryId(request.getCategory());
+            if (categoryId == null) {
+                throw new IllegalArgumentException("Category not found: " + request.getCategory());
+            }
+        }
+        return request.toRule(categoryId);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.project.service;
+
+// Database work done by the current request: SQL statements, entities loaded and time spent
+// waiting for a pooled connection. Kept per thread between begin() and end(); the JDBC and
+// Hibernate hooks add to it, and work on other threads (e.g. the stock ledger writer) is
+// not attributed to any request.
+public final class RequestMetrics {
+    
+    private static final ThreadLocal<RequestMetrics> current = new ThreadLocal<>();
+    
+    private final long startNanos = System.nanoTime();
+    private int statements;
+    private int entitiesLoaded;
+    private long connectionWaitNanos;
+    
+    private RequestMetrics() {
+    }
+    
+    // Start counting for this thread, replacing anything left over
+    public static RequestMetrics begin() {
+        RequestMetrics metrics = new RequestMetrics();
+        current.set(metrics);
+        return metrics;
+    }
+    
+    // Stop counting for this thread
+    public static void end() {
+        current.remove();
+    }
+    
+    // The current thread's counters, or null outside a request
+    public static RequestMetrics current() {
+        return current.get();
+    }
+    
+    public static void statementPrepared() {
+        RequestMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.statements++;
+        }
+    }
+    
+    public static void entityLoaded() {
+        RequestMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.entitiesLoaded++;
+        }
+    }
+    
+    public static void connectionAcquired(long waitNanos) {
+        RequestMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.connectionWaitNanos += waitNanos;
+        }
+    }
+    
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+    
+    public int getStatements() {
+        return statements;
+    }
+    
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+    
+    public long getConnectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+    
+    // One-line summary for the X-Request-Metrics response header
+    public String summary() {
+        return String.format("time=%.1fms; statements=%d; entities=%d; pool-wait=%.1fms",
+            getElapsedNanos() / 1e6, statements, entitiesLoaded, connectionWaitNanos / 1e6);
+    }
+}
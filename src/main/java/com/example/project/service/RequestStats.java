@@ -0,0 +1,84 @@
+package com.example.project.service;
+
+// Latency and database work of the requests to one route (HTTP method and URL pattern)
+public class RequestStats {
+    
+    private final String route;
+    private final long requests;
+    private final long errors;
+    private final double p50Ms;
+    private final double p99Ms;
+    private final double maxMs;
+    private final double meanStatements;
+    private final long p99Statements;
+    private final long maxStatements;
+    private final double meanEntitiesLoaded;
+    private final long maxEntitiesLoaded;
+    private final double p99ConnectionWaitMs;
+    
+    public RequestStats(String route, long requests, long errors, double p50Ms, double p99Ms, double maxMs,
+                        double meanStatements, long p99Statements, long maxStatements,
+                        double meanEntitiesLoaded, long maxEntitiesLoaded, double p99ConnectionWaitMs) {
+        this.route = route;
+        this.requests = requests;
+        this.errors = errors;
+        this.p50Ms = p50Ms;
+        this.p99Ms = p99Ms;
+        this.maxMs = maxMs;
+        this.meanStatements = meanStatements;
+        this.p99Statements = p99Statements;
+        this.maxStatements = maxStatements;
+        this.meanEntitiesLoaded = meanEntitiesLoaded;
+        this.maxEntitiesLoaded = maxEntitiesLoaded;
+        this.p99ConnectionWaitMs = p99ConnectionWaitMs;
+    }
+    
+    public String getRoute() {
+        return route;
+    }
+    
+    public long getRequests() {
+        return requests;
+    }
+    
+    // Requests answered with a 5xx status
+    public long getErrors() {
+        return errors;
+    }
+    
+    public double getP50Ms() {
+        return p50Ms;
+    }
+    
+    public double getP99Ms() {
+        return p99Ms;
+    }
+    
+    public double getMaxMs() {
+        return maxMs;
+    }
+    
+    public double getMeanStatements() {
+        return meanStatements;
+    }
+    
+    public long getP99Statements() {
+        return p99Statements;
+    }
+    
+    public long getMaxStatements() {
+        return maxStatements;
+    }
+    
+    public double getMeanEntitiesLoaded() {
+        return meanEntitiesLoaded;
+    }
+    
+    public long getMaxEntitiesLoaded() {
+        return maxEntitiesLoaded;
+    }
+    
+    public double getP99ConnectionWaitMs() {
+        return p99ConnectionWaitMs;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.project.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// One line of a bulk stock adjustment: add (positive) or remove (negative) units by SKU
+public class StockAdjustment {
+    
+    private int lineNumber;
+    private String sku;
+    private Integer delta;
+    private String error;
+    
+    public StockAdjustment() {
+    }
+    
+    public StockAdjustment(int lineNumber, String sku, Integer delta) {
+        this.lineNumber = lineNumber;
+        this.sku = sku;
+        this.delta = delta;
+    }
+    
+    // A line that could not be parsed; reported back instead of applied
+    public static StockAdjustment invalid(int lineNumber, String error) {
+        StockAdjustment adjustment = new StockAdjustment(lineNumber, null, null);
+        adjustment.error = error;
+        return adjustment;
+    }
+    
+    // Parse "sku,delta" lines; blank lines, a byte order mark and a header row (the first
+    // non-blank line, when its delta is not a number) are skipped
+    public static List<StockAdjustment> parseCsv(Reader reader) throws IOException {
+        List<StockAdjustment> adjustments = new ArrayList<>();
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        boolean first = true;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            boolean header = first;
+            first = false;
+            String[] fields = line.split(",");
+            if (fields.length != 2) {
+                adjustments.add(invalid(lineNumber, "Expected 'sku,delta' but got: " + line));
+                continue;
+            }
+            String sku = fields[0].trim();
+            String delta = fields[1].trim();
+            try {
+                adjustments.add(new StockAdjustment(lineNumber, sku, Integer.valueOf(delta)));
+            } catch (NumberFormatException e) {
+                if (header) {
+                    continue;
+                }
+                adjustments.add(invalid(lineNumber, "Delta is not a whole number: " + delta));
+            }
+        }
+        return adjustments;
+    }
+    
+    public boolean isValid() {
+        return error == null && sku != null && !sku.isBlank() && delta != null;
+    }
+    
+    // Getters and Setters
+    public int getLineNumber() {
+        return lineNumber;
+    }
+    
+    public void setLineNumber(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+    
+    public String getSku() {
+        return sku;
+    }
+    
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+    
+    public Integer getDelta() {
+        return delta;
+    }
+    
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+    
+    public String getError() {
+        if (error == null && !isValid()) {
+            return "Both sku and delta are required";
+        }
+        return error;
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.project.service;
+
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Live feed of committed quantity changes over Server-Sent Events.
+//
+// Each subscriber has its own bounded buffer holding at most one pending update per
+// product: a newer change replaces an undelivered one (deltas are summed). Sending
+// happens on the task executor, never on the committing thread, so a slow client only
+// delays itself. When a buffer overflows it is dropped and the client gets a single
+// "resync" event telling it to reload instead.
+//
+// Change events of one product may arrive out of order (stock changes publish theirs in a
+// transaction of their own, after the ledger committed them), so the quantity pushed is the
+// one the stock ledger last committed, when it has it, and a late event cannot roll it back.
+@Service
+public class StockFeedService {
+    
+    private static final Logger log = LoggerFactory.getLogger(StockFeedService.class);
+    
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Value("${inventory.stock-feed.max-subscribers:500}")
+    private int maxSubscribers;
+    
+    @Value("${inventory.stock-feed.buffer-size:256}")
+    private int bufferSize;
+    
+    @Value("${inventory.stock-feed.timeout-ms:1800000}")
+    private long timeoutMillis;
+    
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    
+    // Subscribe to changes of the given products and/or category; no filter means everything
+    public SseEmitter subscribe(Collection<Long> productIds, String category) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many stock feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        boolean byCategory = category != null && !category.isBlank();
+        // An unknown category name leaves categoryId null, which matches no product
+        Subscriber subscriber = new Subscriber(emitter,
+                productIds != null ? Set.copyOf(productIds) : Set.of(),
+                byCategory, byCategory ? categoryService.getCategoryId(category) : null);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        return emitter;
+    }
+    
+    // Push a committed quantity change to matching subscribers
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isCreated() || event.isDeleted() || event.getQuantityDelta() == 0 || subscribers.isEmpty()) {
+            return;
+        }
+        ProductSnapshot after = stockLedger.withCurrentQuantity(event.getAfter());
+        StockUpdate update = StockUpdate.of(after, event.getQuantityDelta());
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(update)) {
+                subscriber.offer(update);
+            }
+        }
+    }
+    
+    // Keeps idle connections open through proxies and finds clients that went away
+    @Scheduled(fixedDelayString = "${inventory.stock-feed.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::requestHeartbeat);
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    private final class Subscriber {
+        
+        private final SseEmitter emitter;
+        private final Set<Long> productIds;
+        private final boolean byCategory;
+        private final Long categoryId;
+        
+        // Guarded by "this"
+        private final LinkedHashMap<Long, StockUpdate> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+        private boolean heartbeatDue;
+        private boolean draining;
+        private boolean closed;
+        
+        Subscriber(SseEmitter emitter, Set<Long> productIds, boolean byCategory, Long categoryId) {
+            this.emitter = emitter;
+            this.productIds = productIds;
+            this.byCategory = byCategory;
+            this.categoryId = categoryId;
+        }
+        
+        boolean accepts(StockUpdate update) {
+            if (!productIds.isEmpty() && productIds.contains(update.getProductId())) {
+                return true;
+            }
+            if (categoryId != null && categoryId.equals(update.getCategoryId())) {
+                return true;
+            }
+            return productIds.isEmpty() && !byCategory;
+        }
+        
+        void offer(StockUpdate update) {
+            synchronized (this) {
+                if (closed || overflowed) {
+                    return;
+                }
+                pending.merge(update.getProductId(), update, StockUpdate::coalesce);
+                if (pending.size() > bufferSize) {
+                    pending.clear();
+                    overflowed = true;
+                }
+            }
+            scheduleDrain();
+        }
+        
+        void requestHeartbeat() {
+            synchronized (this) {
+                heartbeatDue = true;
+            }
+            scheduleDrain();
+        }
+        
+        void close() {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            subscribers.remove(this);
+        }
+        
+        private void scheduleDrain() {
+            synchronized (this) {
+                if (draining || closed) {
+                    return;
+                }
+                draining = true;
+            }
+            taskExecutor.execute(this::drain);
+        }
+        
+        // Runs on the executor; at most one drain per subscriber at a time
+        private void drain() {
+            while (true) {
+                List<StockUpdate> batch;
+                boolean resync;
+                boolean heartbeat;
+                synchronized (this) {
+                    if (closed || (pending.isEmpty() && !overflowed && !heartbeatDue)) {
+                        draining = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                    resync = overflowed;
+                    overflowed = false;
+                    heartbeat = heartbeatDue && batch.isEmpty() && !resync;
+                    heartbeatDue = false;
+                }
+                try {
+                    if (resync) {
+                        emitter.send(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+                    }
+                    for (StockUpdate update : batch) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(sequence.incrementAndGet()))
+                                .name("stock")
+                                .data(update, MediaType.APPLICATION_JSON));
+                    }
+                    if (heartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Stock feed subscriber disconnected: {}", e.getMessage());
+                    close();
+                    emitter.completeWithError(e);
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
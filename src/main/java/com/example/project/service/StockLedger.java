@@ -0,0 +1,495 @@
+package com.example.project.service;
+
+import com.example.project.entity.StockMovement;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import com.example.project.repository.StockLedgerRepository;
+import com.example.project.service.StockMutationResult.Status;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+// Append-only stock ledger. Every stock change becomes a StockMovement instead of an UPDATE
+// of the product row, so a hot SKU never pays for one row update per change.
+//
+// - Changes are decided and written by a single writer thread, a batch at a time. Each batch
+//   is one transaction on the writer's own connection: it locks the batch's products, reads
+//   their current quantity from the database (the compacted snapshot plus the movements not yet
+//   folded into it), applies the changes in order, refusing any that would go below zero, and
+//   inserts the movements. The floor is enforced by the database under the product row locks,
+//   so it holds with any number of instances changing the same products.
+// - A caller waits for the outcome of its change, which is known once its batch commits, so
+//   every acknowledged change is durable; callers waiting at the same time share one
+//   transaction. The writer's connection is its own because callers may hold pooled
+//   connections while they wait (open session in view) and must never starve it of one.
+// - In coalescing mode the writer waits up to the flush interval (or until a batch is full)
+//   and merges consecutive movements of one product and type into a single row, so a SKU
+//   taking hundreds of scans per second costs a handful of small inserts.
+// - A scheduled compaction folds movements into products.quantity, which is therefore a
+//   snapshot that may trail by the movements not yet folded. It locks the products it folds,
+//   so it never races a batch of them on this instance or another.
+// - The quantities this instance last committed are kept in a bounded cache with a time to
+//   live and overlaid on loaded Product entities (StockLedgerQuantityListener). The cache only
+//   serves reads; aggregate queries over products.quantity should call settle() first.
+@Component
+public class StockLedger {
+    
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+    
+    private static final long POLL_MILLIS = 100;
+    private static final long RETRY_MILLIS = 1000;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    
+    @Autowired
+    private StockLedgerRepository stockLedgerRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Value("${inventory.ledger.flush-batch-size:1000}")
+    private int flushBatchSize;
+    
+    @Value("${inventory.ledger.coalesce.enabled:false}")
+    private boolean coalesce;
+    
+    @Value("${inventory.ledger.coalesce.flush-interval-ms:5}")
+    private long flushIntervalMillis;
+    
+    @Value("${inventory.ledger.quantity-cache.max-size:10000}")
+    private int quantityCacheSize;
+    
+    @Value("${inventory.ledger.quantity-cache.ttl-ms:5000}")
+    private long quantityTtlMillis;
+    
+    // Guarded by itself; least recently used first
+    private final LinkedHashMap<Long, CachedQuantity> quantities = new LinkedHashMap<>(16, 0.75f, true);
+    private final BlockingQueue<Change> queue = new LinkedBlockingQueue<>();
+    private final Object compactionLock = new Object();
+    
+    // Changes ever queued and whether the writer is gone (guarded by "queue"), changes ever
+    // decided (guarded by "decided")
+    private long queued;
+    private boolean stopped;
+    private final Object decided = new Object();
+    private long decidedCount;
+    
+    private volatile boolean running;
+    private Thread writer;
+    private Connection writerConnection;
+    
+    // Fold whatever the previous run left uncompacted and fill in missing stock statuses, then
+    // start the writer
+    @PostConstruct
+    public void start() throws SQLException {
+        compact();
+        Integer filled = transactionTemplate.execute(status -> stockLedgerRepository.fillMissingStockStatus());
+        if (filled != null && filled > 0) {
+            log.info("Filled in the stock status of {} products", filled);
+        }
+        writerConnection = openWriterConnection();
+        running = true;
+        writer = new Thread(this::writeBehind, "stock-ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    // Decide everything queued before the datasource goes away
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join();
+        synchronized (decided) {
+            decided.notifyAll();
+        }
+    }
+    
+    // Add (or, with a negative delta, remove) stock; refused if it would go below zero.
+    // Blocks until the change is decided, and committed if applied: call it outside any
+    // transaction, which could hold a lock on the product the writer needs.
+    public Append add(Long productId, int delta, StockMovement.Type type) {
+        return await(submit(productId, type, current -> current + delta));
+    }
+    
+    // Set an absolute quantity, recorded as the difference to the current one (see add)
+    public Append set(Long productId, int quantity, StockMovement.Type type) {
+        return await(submit(productId, type, current -> quantity));
+    }
+    
+    // Several changes, applied in list order; all are queued before waiting, so they share
+    // the writer's batches (see add)
+    public List<Append> addAll(List<Long> productIds, List<Integer> deltas, StockMovement.Type type) {
+        List<Change> changes = new ArrayList<>(productIds.size());
+        for (int i = 0; i < productIds.size(); i++) {
+            int delta = deltas.get(i);
+            changes.add(submit(productIds.get(i), type, current -> current + delta));
+        }
+        List<Append> appends = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            appends.add(await(change));
+        }
+        return appends;
+    }
+    
+    // Quantity this instance last committed for the product, if still cached, otherwise null
+    // (read the stored value, which trails by the movements not yet folded into it)
+    public Integer getCurrentQuantity(Long productId) {
+        synchronized (quantities) {
+            CachedQuantity cached = quantities.get(productId);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAt < System.currentTimeMillis()) {
+                quantities.remove(productId);
+                return null;
+            }
+            return cached.quantity;
+        }
+    }
+    
+    // The snapshot with the quantity this instance last committed for the product, when that is
+    // cached. Change events of one product may arrive out of order, the ledger's quantity cannot.
+    public ProductSnapshot withCurrentQuantity(ProductSnapshot snapshot) {
+        Integer current = getCurrentQuantity(snapshot.getId());
+        return current == null ? snapshot : snapshot.withQuantity(current);
+    }
+    
+    // Block until every change queued before this call has been decided
+    public void flush() {
+        long target;
+        synchronized (queue) {
+            target = queued;
+        }
+        synchronized (decided) {
+            while (decidedCount < target && running) {
+                try {
+                    decided.wait(POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    // Bring products.quantity up to date with everything changed so far
+    public void settle() {
+        flush();
+        compact();
+    }
+    
+    // Fold committed movements into products.quantity, a chunk of products per transaction
+    @Scheduled(initialDelayString = "${inventory.ledger.compaction-interval-ms:1000}",
+               fixedDelayString = "${inventory.ledger.compaction-interval-ms:1000}")
+    public void compact() {
+        synchronized (compactionLock) {
+            List<Long> productIds = transactionTemplate.execute(status -> stockLedgerRepository.findUncompactedProductIds());
+            int products = 0;
+            for (int from = 0; from < productIds.size(); from += flushBatchSize) {
+                List<Long> chunk = productIds.subList(from, Math.min(from + flushBatchSize, productIds.size()));
+                Integer folded = transactionTemplate.execute(status -> stockLedgerRepository.compact(chunk));
+                products += folded != null ? folded : 0;
+            }
+            if (products > 0) {
+                log.debug("Compacted stock movements of {} products", products);
+            }
+        }
+    }
+    
+    // A hard-deleted product has no quantity any more
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            synchronized (quantities) {
+                quantities.remove(event.getProductId());
+            }
+        }
+    }
+    
+    public int getPendingMovements() {
+        return queue.size();
+    }
+    
+    private Change submit(Long productId, StockMovement.Type type, IntUnaryOperator target) {
+        Change change = new Change(productId, type, target);
+        synchronized (queue) {
+            if (stopped) {
+                throw new IllegalStateException("The stock ledger is stopped");
+            }
+            queue.add(change);
+            queued++;
+        }
+        return change;
+    }
+    
+    private static Append await(Change change) {
+        try {
+            return change.outcome.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a stock change", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Could not record the stock change of product " + change.productId, e.getCause());
+        }
+    }
+    
+    // Writer thread: take whatever is queued, up to one batch, and decide it
+    private void writeBehind() {
+        List<Change> batch = new ArrayList<>(flushBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                Change first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                try {
+                    gather(batch);
+                    write(batch);
+                } finally {
+                    fail(batch, "The stock ledger stopped");
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            List<Change> left = new ArrayList<>();
+            synchronized (queue) {
+                stopped = true;
+                queue.drainTo(left);
+            }
+            fail(left, "The stock ledger stopped");
+            closeWriterConnection();
+        }
+    }
+    
+    // Top the batch up from the queue; when coalescing, keep waiting for more until the
+    // flush interval has passed or the batch is full
+    private void gather(List<Change> batch) throws InterruptedException {
+        queue.drainTo(batch, flushBatchSize - batch.size());
+        if (!coalesce) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < flushBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            Change next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, flushBatchSize - batch.size());
+        }
+    }
+    
+    // Merge runs of movements with the same product and type, keeping each product's rows in order
+    static List<StockMovement> coalesce(List<StockMovement> batch) {
+        List<StockMovement> rows = new ArrayList<>();
+        Map<Long, StockMovement> lastRow = new HashMap<>();
+        for (StockMovement movement : batch) {
+            StockMovement last = lastRow.get(movement.getProductId());
+            if (last != null && last.getType() == movement.getType()) {
+                last.setDelta(last.getDelta() + movement.getDelta());
+                last.setQuantityAfter(movement.getQuantityAfter());
+            } else {
+                StockMovement row = new StockMovement(movement.getProductId(), movement.getDelta(),
+                        movement.getQuantityAfter(), movement.getType());
+                row.setCreatedAt(movement.getCreatedAt());
+                rows.add(row);
+                lastRow.put(movement.getProductId(), row);
+            }
+        }
+        return rows;
+    }
+    
+    // Decide the batch, retrying a failed transaction a few times before failing its changes
+    private void write(List<Change> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<Append> outcomes = decide(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).outcome.complete(outcomes.get(i));
+                }
+                break;
+            } catch (SQLException | RuntimeException e) {
+                if (attempt >= MAX_WRITE_ATTEMPTS || !running) {
+                    log.error("Could not write {} stock changes", batch.size(), e);
+                    batch.forEach(change -> change.outcome.completeExceptionally(e));
+                    break;
+                }
+                log.warn("Could not write {} stock changes, retrying", batch.size(), e);
+                Thread.sleep(RETRY_MILLIS);
+            }
+        }
+        synchronized (decided) {
+            decidedCount += batch.size();
+            decided.notifyAll();
+        }
+    }
+    
+    // One transaction: lock the batch's products, apply its changes in order against their
+    // current quantities and insert the movements of those applied
+    private List<Append> decide(List<Change> batch) throws SQLException {
+        if (writerConnection == null) {
+            writerConnection = openWriterConnection();
+        }
+        try {
+            Set<Long> productIds = new TreeSet<>();
+            batch.forEach(change -> productIds.add(change.productId));
+            Map<Long, Integer> current = stockLedgerRepository.lockCurrentQuantities(writerConnection, productIds);
+            
+            List<Append> outcomes = new ArrayList<>(batch.size());
+            List<StockMovement> movements = new ArrayList<>();
+            for (Change change : batch) {
+                Integer before = current.get(change.productId);
+                if (before == null) {
+                    outcomes.add(new Append(Status.NOT_FOUND, 0, 0));
+                    continue;
+                }
+                int after = change.target.applyAsInt(before);
+                if (after < 0) {
+                    outcomes.add(new Append(Status.INSUFFICIENT_STOCK, before, before));
+                    continue;
+                }
+                if (after != before) {
+                    movements.add(new StockMovement(change.productId, after - before, after, change.type));
+                    current.put(change.productId, after);
+                }
+                outcomes.add(new Append(Status.APPLIED, before, after));
+            }
+            if (!movements.isEmpty()) {
+                stockLedgerRepository.insertMovements(writerConnection, coalesce ? coalesce(movements) : movements);
+            }
+            writerConnection.commit();
+            cache(current);
+            return outcomes;
+        } catch (SQLException | RuntimeException e) {
+            writerConnection.rollback();
+            if (!writerConnection.isValid(1)) {
+                closeWriterConnection();
+            }
+            throw e;
+        }
+    }
+    
+    private void cache(Map<Long, Integer> committed) {
+        long expiresAt = System.currentTimeMillis() + quantityTtlMillis;
+        synchronized (quantities) {
+            committed.forEach((productId, quantity) -> quantities.put(productId, new CachedQuantity(quantity, expiresAt)));
+            Iterator<Long> eldest = quantities.keySet().iterator();
+            while (quantities.size() > quantityCacheSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+    
+    private static void fail(List<Change> changes, String reason) {
+        for (Change change : changes) {
+            change.outcome.completeExceptionally(new IllegalStateException(reason));
+        }
+    }
+    
+    // Taken at startup and kept: asking the pool again while it is exhausted by waiting
+    // callers would block the very thread they are waiting for
+    private Connection openWriterConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        return connection;
+    }
+    
+    private void closeWriterConnection() {
+        if (writerConnection != null) {
+            try {
+                writerConnection.close();
+            } catch (SQLException e) {
+                log.debug("Closing the stock ledger connection failed: {}", e.getMessage());
+            }
+            writerConnection = null;
+        }
+    }
+    
+    // One queued change, completed by the writer with its outcome
+    private static final class Change {
+        
+        private final Long productId;
+        private final StockMovement.Type type;
+        private final IntUnaryOperator target;
+        private final CompletableFuture<Append> outcome = new CompletableFuture<>();
+        
+        Change(Long productId, StockMovement.Type type, IntUnaryOperator target) {
+            this.productId = productId;
+            this.type = type;
+            this.target = target;
+        }
+    }
+    
+    private static final class CachedQuantity {
+        
+        private final int quantity;
+        private final long expiresAt;
+        
+        CachedQuantity(int quantity, long expiresAt) {
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+    }
+    
+    // Outcome of one change: the quantity before and after it (equal when refused)
+    public static final class Append {
+        
+        private final Status status;
+        private final int before;
+        private final int after;
+        
+        Append(Status status, int before, int after) {
+            this.status = status;
+            this.before = before;
+            this.after = after;
+        }
+        
+        public Status getStatus() {
+            return status;
+        }
+        
+        public boolean isApplied() {
+            return status == Status.APPLIED;
+        }
+        
+        public int getBefore() {
+            return before;
+        }
+        
+        public int getAfter() {
+            return after;
+        }
+    }
+}
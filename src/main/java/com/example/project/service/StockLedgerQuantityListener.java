@@ -0,0 +1,27 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import jakarta.persistence.PostLoad;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// JPA listener on Product: products.quantity is only the compacted snapshot, so a loaded
+// product gets the quantity the stock ledger last committed for it, while that is cached.
+// Hibernate obtains it from Spring, lazily wired because the ledger itself depends on the
+// entity manager.
+@Component
+public class StockLedgerQuantityListener {
+    
+    @Autowired
+    @Lazy
+    private StockLedger stockLedger;
+    
+    @PostLoad
+    public void overlayCurrentQuantity(Product product) {
+        Integer current = stockLedger.getCurrentQuantity(product.getId());
+        if (current != null) {
+            product.setQuantity(current);
+        }
+    }
+}
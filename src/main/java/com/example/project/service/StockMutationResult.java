@@ -0,0 +1,98 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductSnapshot;
+
+// Outcome of a single stock mutation performed by StockService
+public class StockMutationResult {
+    
+    public enum Status {
+        APPLIED,
+        INSUFFICIENT_STOCK,
+        NOT_FOUND
+    }
+    
+    private final Status status;
+    private final Long productId;
+    private final int requested;
+    private final Integer available;
+    private final ProductSnapshot product;
+    // The row StockService read back, so ProductService need not read it again
+    private final Product loadedProduct;
+    
+    private StockMutationResult(Status status, Long productId, int requested, Integer available,
+                                ProductSnapshot product, Product loadedProduct) {
+        this.status = status;
+        this.productId = productId;
+        this.requested = requested;
+        this.available = available;
+        this.product = product;
+        this.loadedProduct = loadedProduct;
+    }
+    
+    public static StockMutationResult applied(Product loadedProduct, ProductSnapshot product, int requested) {
+        return new StockMutationResult(Status.APPLIED, product.getId(), requested, product.getQuantity(), product,
+                loadedProduct);
+    }
+    
+    public static StockMutationResult insufficientStock(Long productId, int requested, int available) {
+        return new StockMutationResult(Status.INSUFFICIENT_STOCK, productId, requested, available, null, null);
+    }
+    
+    public static StockMutationResult notFound(Long productId, int requested) {
+        return new StockMutationResult(Status.NOT_FOUND, productId, requested, null, null, null);
+    }
+    
+    public boolean isApplied() {
+        return status == Status.APPLIED;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public int getRequested() {
+        return requested;
+    }
+    
+    // Quantity after the mutation, or the quantity that was available when it was refused
+    public Integer getAvailable() {
+        return available;
+    }
+    
+    // Product state after the mutation (only for APPLIED)
+    public ProductSnapshot getProduct() {
+        return product;
+    }
+    
+    // Package-private: the entity stays inside the service layer (only for APPLIED)
+    Product getLoadedProduct() {
+        return loadedProduct;
+    }
+    
+    // Same messages ProductService has always used
+    public String getMessage() {
+        switch (status) {
+            case NOT_FOUND:
+                return "Product not found with id: " + productId;
+            case INSUFFICIENT_STOCK:
+                return "Insufficient stock. Available: " + available;
+            default:
+                return "Stock updated. Quantity: " + available;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "StockMutationResult{" +
+                "status=" + status +
+                ", productId=" + productId +
+                ", requested=" + requested +
+                ", available=" + available +
+                '}';
+    }
+}
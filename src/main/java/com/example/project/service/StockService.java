@@ -0,0 +1,106 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.entity.StockMovement;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import com.example.project.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+// Stock mutations appended to the StockLedger. The ledger's writer checks availability against
+// the database under the product's row lock, for batches of concurrent mutations at a time, so
+// scanners on the same SKU never lose an update or oversell, on any number of instances.
+//
+// Not transactional itself: a caller waits for its movement to be committed by the ledger's
+// writer, which must not happen while it holds a pooled connection or a lock on the product.
+// Only the read-back and the change event run in a (short) transaction; the product read
+// back is the one ProductService returns.
+@Service
+public class StockService {
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private InventoryStatsService inventoryStatsService;
+    
+    // Add stock
+    public StockMutationResult addStock(Long id, int quantityToAdd) {
+        if (quantityToAdd < 0) {
+            throw new RuntimeException("Quantity to add cannot be negative");
+        }
+        
+        return append(id, () -> stockLedger.add(id, quantityToAdd, StockMovement.Type.ADD), quantityToAdd);
+    }
+    
+    // Remove stock, only if enough is available
+    public StockMutationResult removeStock(Long id, int quantityToRemove) {
+        if (quantityToRemove < 0) {
+            throw new RuntimeException("Quantity to remove cannot be negative");
+        }
+        
+        return append(id, () -> stockLedger.add(id, -quantityToRemove, StockMovement.Type.REMOVE), quantityToRemove);
+    }
+    
+    // Set an absolute quantity (stock count correction)
+    public StockMutationResult setQuantity(Long id, int newQuantity) {
+        return setQuantity(id, newQuantity, StockMovement.Type.SET);
+    }
+    
+    // Set an absolute quantity, recorded as a movement of the given type
+    public StockMutationResult setQuantity(Long id, int newQuantity, StockMovement.Type type) {
+        if (newQuantity < 0) {
+            throw new RuntimeException("Quantity cannot be negative");
+        }
+        
+        return append(id, () -> stockLedger.set(id, newQuantity, type), newQuantity);
+    }
+    
+    // The change is in the ledger before its event is published; the dashboard figures must
+    // not be reloaded in between (see InventoryStatsService.beginWrite)
+    private StockMutationResult append(Long id, Supplier<StockLedger.Append> append, int requested) {
+        inventoryStatsService.beginWrite();
+        try {
+            return applied(id, append.get(), requested);
+        } finally {
+            inventoryStatsService.endWrite();
+        }
+    }
+    
+    // Turn a ledger append into a result and notify listeners with the exact quantities around it
+    private StockMutationResult applied(Long id, StockLedger.Append append, int requested) {
+        switch (append.getStatus()) {
+            case NOT_FOUND:
+                return StockMutationResult.notFound(id, requested);
+            case INSUFFICIENT_STOCK:
+                return StockMutationResult.insufficientStock(id, requested, append.getBefore());
+            default:
+                break;
+        }
+        // The one read of the row: it feeds the event and is handed back to the caller as is
+        Product product = transactionTemplate.execute(status -> {
+            Product loaded = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+            ProductSnapshot snapshot = ProductSnapshot.of(loaded).withQuantity(append.getAfter());
+            if (append.getBefore() != append.getAfter()) {
+                eventPublisher.publishEvent(ProductChangedEvent.updated(snapshot.withQuantity(append.getBefore()), snapshot));
+            }
+            return loaded;
+        });
+        return StockMutationResult.applied(product, ProductSnapshot.of(product).withQuantity(append.getAfter()), requested);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.project.service;
+
+import com.example.project.event.ProductSnapshot;
+
+// Compact quantity change pushed to stock feed subscribers. delta is the net change
+// since the subscriber last received this product, so coalesced updates still add up.
+public class StockUpdate {
+    
+    private final Long productId;
+    private final String sku;
+    private final Long categoryId;
+    private final String category;
+    private final int quantity;
+    private final int delta;
+    private final boolean lowStock;
+    private final boolean outOfStock;
+    
+    public StockUpdate(Long productId, String sku, Long categoryId, String category, int quantity, int delta,
+                       boolean lowStock, boolean outOfStock) {
+        this.productId = productId;
+        this.sku = sku;
+        this.categoryId = categoryId;
+        this.category = category;
+        this.quantity = quantity;
+        this.delta = delta;
+        this.lowStock = lowStock;
+        this.outOfStock = outOfStock;
+    }
+    
+    public static StockUpdate of(ProductSnapshot product, int delta) {
+        return new StockUpdate(product.getId(), product.getSku(), product.getCategoryId(), product.getCategory(),
+                product.getQuantity(), delta, product.isLowStock(), product.isOutOfStock());
+    }
+    
+    // Replace an undelivered update with a newer one for the same product
+    public StockUpdate coalesce(StockUpdate newer) {
+        return new StockUpdate(newer.productId, newer.sku, newer.categoryId, newer.category, newer.quantity,
+                delta + newer.delta, newer.lowStock, newer.outOfStock);
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public String getSku() {
+        return sku;
+    }
+    
+    public Long getCategoryId() {
+        return categoryId;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public int getQuantity() {
+        return quantity;
+    }
+    
+    public int getDelta() {
+        return delta;
+    }
+    
+    public boolean isLowStock() {
+        return lowStock;
+    }
+    
+    public boolean isOutOfStock() {
+        return outOfStock;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.project.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Writes RFC 4180 records; counterpart of CsvReader
+public class CsvWriter {
+    
+    private final Writer writer;
+    
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+    
+    // Write one record; null values become empty fields
+    public void writeRecord(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escape(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+    
+    public void flush() throws IOException {
+        writer.flush();
+    }
+    
+    // Quote a field when it contains a separator, quote or line break
+    public static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
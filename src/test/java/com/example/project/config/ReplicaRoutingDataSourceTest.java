@@ -0,0 +1,102 @@
+package com.example.project.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Two embedded H2 databases stand in for the primary and a replica; each holds a marker row
+// naming itself, so every query shows where it was routed.
+class ReplicaRoutingDataSourceTest {
+    
+    private static final long READ_YOUR_WRITES_MILLIS = 300;
+    
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    
+    @BeforeEach
+    void setUp() {
+        ReplicaRoutingDataSource.clearReadYourWrites();
+        routing = new ReplicaRoutingDataSource(database("primary"), List.of(database("replica")), READ_YOUR_WRITES_MILLIS);
+        useRouting(routing);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.clearReadYourWrites();
+    }
+    
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertEquals("replica", readOnly.execute(status -> currentDatabase()));
+        assertEquals("primary", readWrite.execute(status -> currentDatabase()));
+    }
+    
+    @Test
+    void readsFollowingAWriteStayOnThePrimaryForTheWindow() throws InterruptedException {
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE marker SET writes = writes + 1"));
+        
+        assertEquals("primary", readOnly.execute(status -> currentDatabase()));
+        Thread.sleep(READ_YOUR_WRITES_MILLIS + 100);
+        assertEquals("replica", readOnly.execute(status -> currentDatabase()));
+    }
+    
+    @Test
+    void readsFromAnotherRequestWindowStayOnThePrimary() {
+        ReplicaRoutingDataSource.readFromPrimaryUntil(System.currentTimeMillis() + 10_000);
+        
+        assertEquals("primary", readOnly.execute(status -> currentDatabase()));
+    }
+    
+    @Test
+    void unreachableReplicaFallsBackToThePrimaryUntilHealthy() {
+        // IFEXISTS: connecting fails until the replica database has been created
+        JdbcDataSource replica = new JdbcDataSource();
+        replica.setURL("jdbc:h2:mem:routing_late_replica;IFEXISTS=TRUE");
+        routing = new ReplicaRoutingDataSource(database("primary"), List.of(replica), READ_YOUR_WRITES_MILLIS);
+        useRouting(routing);
+        
+        assertEquals("primary", readOnly.execute(status -> currentDatabase()));
+        assertEquals(0, routing.getHealthyReplicaCount());
+        
+        database("late_replica");
+        routing.checkReplicas();
+        assertEquals(1, routing.getHealthyReplicaCount());
+        assertEquals("late_replica", readOnly.execute(status -> currentDatabase()));
+    }
+    
+    private void useRouting(ReplicaRoutingDataSource routingDataSource) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+    
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+    
+    // An in-memory database with a marker row holding its name
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS marker (name VARCHAR(20), writes INT)");
+        jdbcTemplate.update("DELETE FROM marker");
+        jdbcTemplate.update("INSERT INTO marker VALUES (?, 0)", name);
+        return dataSource;
+    }
+}
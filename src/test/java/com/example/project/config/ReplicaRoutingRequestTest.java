@@ -0,0 +1,99 @@
+package com.example.project.config;
+
+import com.example.project.entity.Product;
+import com.example.project.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Read/write splitting as a request sees it: JPA, open-session-in-view and the lazy connection
+// proxy together. The "replica" is the test database reached as a user that may only read, so
+// its connections are told apart by CURRENT_USER and a write routed to one fails.
+@SpringBootTest(properties = {
+    "inventory.datasource.replica.urls=" + ReplicaRoutingRequestTest.REPLICA_URL,
+    "inventory.datasource.replica.username=REPLICA",
+    "inventory.datasource.replica.password=replica"
+})
+@AutoConfigureMockMvc(addFilters = false)
+@Import(ReplicaRoutingRequestTest.ReadThenWriteController.class)
+class ReplicaRoutingRequestTest {
+    
+    // Database settings need admin rights, the replica user only connects
+    static final String REPLICA_URL = "jdbc:h2:mem:product_inventory_db";
+    
+    // Before the context starts: its first read-only transactions already go to the replica
+    static {
+        try (Connection connection = DriverManager.getConnection(
+                 "jdbc:h2:mem:product_inventory_db;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE USER IF NOT EXISTS REPLICA PASSWORD 'replica'");
+            statement.execute("GRANT SELECT ON SCHEMA PUBLIC TO REPLICA");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Test
+    void aWriteAfterAReadInTheSameRequestGoesToThePrimary() throws Exception {
+        Product product = productService.createProduct(new Product("Routed product",
+            "ROUTE-" + System.nanoTime() % 1_000_000_000L, new BigDecimal("2.00"), 3));
+        // The test thread just wrote, which would keep its reads on the primary for a while
+        ReplicaRoutingDataSource.clearReadYourWrites();
+        
+        mockMvc.perform(post("/test/routing/" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().string("REPLICA"));
+        
+        assertFalse(productService.getProductById(product.getId()).orElseThrow().getIsActive());
+    }
+    
+    // Reads in a read-only transaction, then deactivates the product; answers who served the read
+    @RestController
+    static class ReadThenWriteController {
+        
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate readOnly;
+        private final ProductService productService;
+        
+        ReadThenWriteController(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                ProductService productService) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+            this.productService = productService;
+        }
+        
+        @PostMapping("/test/routing/{id}")
+        String readThenWrite(@PathVariable Long id) {
+            String reader = readOnly.execute(status -> jdbcTemplate.queryForObject("SELECT CURRENT_USER", String.class));
+            productService.deleteProduct(id);
+            return reader;
+        }
+    }
+}
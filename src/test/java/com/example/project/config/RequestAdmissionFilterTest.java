@@ -0,0 +1,48 @@
+package com.example.project.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Streaming transfers and ordinary requests are admitted against separate limits
+class RequestAdmissionFilterTest {
+    
+    private final RequestAdmissionFilter filter = new RequestAdmissionFilter(1, 1, 0);
+    
+    @Test
+    void aRunningTransferOnlyHoldsBackOtherTransfers() throws Exception {
+        List<Integer> statuses = new ArrayList<>();
+        
+        MockHttpServletResponse export = perform("GET", "/products/export", () -> {
+            statuses.add(perform("GET", "/products", () -> { }).getStatus());
+            statuses.add(perform("POST", "/products/import", () -> { }).getStatus());
+        });
+        
+        assertEquals(200, export.getStatus());
+        assertEquals(List.of(200, 503), statuses);
+        assertEquals(1, filter.getRejected());
+        assertEquals(0, filter.getInFlight());
+    }
+    
+    // Runs the request through the filter; "inside" runs while it holds its permit
+    private MockHttpServletResponse perform(String method, String uri, ThrowingRunnable inside) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, (request, ignored) -> {
+            try {
+                inside.run();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return response;
+    }
+    
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.project.controller;
+
+import com.example.project.entity.Product;
+import com.example.project.service.CategoryOverviewService;
+import com.example.project.service.CategoryService;
+import com.example.project.service.ProductCache;
+import com.example.project.service.ProductService;
+import com.example.project.service.RequestMetrics;
+import com.example.project.service.StockLedger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every page has a query budget: the JDBC statements it may prepare and the entities it may
+// load, counted by the same hooks that feed /metrics (see RequestMetrics). A page that starts
+// loading rows one by one (N+1) or repeats a query goes over budget and fails the build, and
+// its statement count must not grow when the catalog does.
+// Filters are left out so the page cache cannot answer instead of the controller; the stock
+// ledger's writer thread is not the request's work and is not counted.
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class QueryBudgetTest {
+    
+    private static final int SMALL_CATALOG_CATEGORIES = 3;
+    private static final int LARGE_CATALOG_CATEGORIES = 30;
+    private static final int PRODUCTS_PER_CATEGORY = 10;
+    
+    // method | url | max statements | max entities (lists show 10 per page; the small catalog has
+    // 14 products at or below their minimum, 6 of them out of stock). Paged lists are given more
+    // matches than fit on a page, so their COUNT query is run at both catalog sizes (Spring Data
+    // skips it for a first page that is not full). The /api/v1 lists are projections and must
+    // not load any entity.
+    private static final List<String> PAGES = List.of(
+        "GET  | /                                           | 0 | 0",
+        "GET  | /products                                   | 2 | 10",
+        "GET  | /products?sortBy=price&sortDir=desc&page=1  | 2 | 10",
+        "GET  | /products/search?name=Budget                | 1 | 10",
+        "GET  | /products/search?category=Budget category 1 | 2 | 10",
+        "GET  | /products/search?brand=Budget brand 2&minPrice=5.00&maxPrice=6.00&size=5 | 2 | 5",
+        "GET  | /products/low-stock                         | 1 | 14",
+        "GET  | /products/out-of-stock                      | 1 | 6",
+        "GET  | /products/:id                               | 1 | 1",
+        "GET  | /products/:id/stock                         | 1 | 1",
+        "POST | /products/:id/add-stock?quantity=5          | 2 | 1",
+        "POST | /products/:id/remove-stock?quantity=1       | 1 | 1",
+        "GET  | /categories                                 | 5 | 0",
+        "GET  | /categories/:category                       | 1 | 10",
+        "GET  | /api/v1/products?limit=10                   | 1 | 0",
+        "GET  | /api/v1/products?categoryId=:category&limit=10 | 1 | 0",
+        "GET  | /api/v1/products/low-stock                  | 0 | 0",
+        "GET  | /api/v1/products/:id                        | 1 | 1",
+        "GET  | /api/v1/categories                          | 0 | 0");
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private CategoryOverviewService categoryOverviewService;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    private final List<Long> productIds = new ArrayList<>();
+    private int categories;
+    
+    // Products in several categories; every third one is low on stock, every fifth one out of stock
+    @BeforeAll
+    void seedCatalog() {
+        growCatalog(SMALL_CATALOG_CATEGORIES);
+    }
+    
+    @AfterAll
+    void deleteCatalog() {
+        productIds.forEach(productService::hardDeleteProduct);
+        for (int i = 0; i < categories; i++) {
+            categoryService.getCategoryByName("Budget category " + i)
+                .ifPresent(category -> categoryService.hardDeleteCategory(category.getId()));
+        }
+    }
+    
+    static Stream<Arguments> pages() {
+        return PAGES.stream().map(page -> {
+            String[] columns = page.split("\\|");
+            return Arguments.of(columns[0].trim(), columns[1].trim(),
+                Integer.parseInt(columns[2].trim()), Integer.parseInt(columns[3].trim()));
+        });
+    }
+    
+    @Order(1)
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("pages")
+    void pageStaysWithinQueryBudget(String method, String url, int maxStatements, int maxEntities) throws Exception {
+        RequestMetrics metrics = perform(method, url);
+        
+        assertTrue(metrics.getStatements() <= maxStatements,
+            method + " " + url + " prepared " + metrics.getStatements() + " statements, budget " + maxStatements);
+        assertTrue(metrics.getEntitiesLoaded() <= maxEntities,
+            method + " " + url + " loaded " + metrics.getEntitiesLoaded() + " entities, budget " + maxEntities);
+    }
+    
+    // Ten times the categories and products: every page prepares no more statements than before.
+    // Caches are emptied and stock movements compacted before each request, so both sizes are
+    // measured cold and the background compaction cannot decide what a settling page finds to do.
+    @Order(2)
+    @Test
+    void statementsDoNotGrowWithTheCatalog() throws Exception {
+        List<Arguments> pages = pages().toList();
+        Map<String, Integer> small = new LinkedHashMap<>();
+        for (Arguments page : pages) {
+            small.put(key(page), coldStatements(page));
+        }
+        
+        growCatalog(LARGE_CATALOG_CATEGORIES);
+        List<String> grown = new ArrayList<>();
+        for (Arguments page : pages) {
+            int large = coldStatements(page);
+            if (large > small.get(key(page))) {
+                grown.add(key(page) + ": " + small.get(key(page)) + " -> " + large);
+            }
+        }
+        
+        assertTrue(grown.isEmpty(), "Statements grew from " + SMALL_CATALOG_CATEGORIES + " to "
+            + LARGE_CATALOG_CATEGORIES + " categories: " + grown);
+    }
+    
+    private int coldStatements(Arguments page) throws Exception {
+        stockLedger.settle();
+        productCache.clear();
+        categoryOverviewService.invalidate();
+        Object[] columns = page.get();
+        return perform((String) columns[0], (String) columns[1]).getStatements();
+    }
+    
+    private static String key(Arguments page) {
+        return page.get()[0] + " " + page.get()[1];
+    }
+    
+    private RequestMetrics perform(String method, String url) throws Exception {
+        String resolved = url
+            .replace(":id", productIds.get(1).toString())
+            .replace(":category", categoryService.getCategoryId("Budget category 1").toString());
+        
+        RequestMetrics metrics = RequestMetrics.begin();
+        try {
+            mockMvc.perform(request(HttpMethod.valueOf(method), resolved))
+                .andExpect(status().is(lessThan(400)));
+        } finally {
+            RequestMetrics.end();
+        }
+        return metrics;
+    }
+    
+    // Add categories of PRODUCTS_PER_CATEGORY products each until there are the given number
+    private void growCatalog(int totalCategories) {
+        for (int i = categories * PRODUCTS_PER_CATEGORY; i < totalCategories * PRODUCTS_PER_CATEGORY; i++) {
+            int quantity = i % 5 == 0 ? 0 : i % 3 == 0 ? 2 : 50;
+            Product product = new Product("Budget product " + i, "BUDGET-" + i, BigDecimal.valueOf(500 + i, 2), quantity);
+            product.setMinQuantity(5);
+            product.setCategory("Budget category " + (i / PRODUCTS_PER_CATEGORY));
+            product.setBrand("Budget brand " + (i % 4));
+            productIds.add(productService.createProduct(product).getId());
+        }
+        categories = Math.max(categories, totalCategories);
+    }
+}
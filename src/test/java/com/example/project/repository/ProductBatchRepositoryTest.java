@@ -0,0 +1,82 @@
+package com.example.project.repository;
+
+import com.example.project.entity.Product;
+import com.example.project.service.CategoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// The category backfill statements CategoryMigration runs batch by batch
+@SpringBootTest
+class ProductBatchRepositoryTest {
+    
+    @Autowired
+    private ProductBatchRepository productBatchRepository;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void backfillKeepsACategoryIdSetByAConcurrentEdit() {
+        String suffix = String.valueOf(System.nanoTime() % 1_000_000L);
+        Long legacyId = categoryService.resolveCategoryId("Legacy " + suffix);
+        Long editedId = categoryService.resolveCategoryId("Edited " + suffix);
+        List<Long> ids = insertLegacyProducts(suffix, "Legacy " + suffix);
+        Long edited = ids.get(0);
+        Long untouched = ids.get(1);
+        
+        // The batch reads the old names first...
+        Map<Long, String> names = transactionTemplate.execute(
+            status -> productBatchRepository.findLegacyCategories(edited - 1, 10));
+        assertEquals("Legacy " + suffix, names.get(edited));
+        assertEquals("Legacy " + suffix, names.get(untouched));
+        
+        // ...then an edit assigns a category before the batch writes its ids
+        jdbcTemplate.update("UPDATE products SET category_id = ? WHERE id = ?", editedId, edited);
+        Map<Long, Long> categoryIds = new LinkedHashMap<>();
+        categoryIds.put(edited, legacyId);
+        categoryIds.put(untouched, legacyId);
+        transactionTemplate.executeWithoutResult(status -> productBatchRepository.assignCategories(categoryIds));
+        
+        assertEquals(editedId, categoryIdOf(edited));
+        assertEquals(legacyId, categoryIdOf(untouched));
+        assertNull(legacyCategoryOf(edited));
+        assertNull(legacyCategoryOf(untouched));
+    }
+    
+    // Rows as they were before category_id existed: a free-text name and no id
+    private List<Long> insertLegacyProducts(String suffix, String category) {
+        List<Product> products = List.of(
+            new Product("Legacy product A", "LEG-A" + suffix, new BigDecimal("4.99"), 5),
+            new Product("Legacy product B", "LEG-B" + suffix, new BigDecimal("4.99"), 5));
+        transactionTemplate.executeWithoutResult(status -> productBatchRepository.insertProducts(products));
+        List<Long> ids = jdbcTemplate.queryForList(
+            "SELECT id FROM products WHERE sku IN (?, ?) ORDER BY id", Long.class, "LEG-A" + suffix, "LEG-B" + suffix);
+        ids.forEach(id -> jdbcTemplate.update("UPDATE products SET category = ? WHERE id = ?", category, id));
+        return ids;
+    }
+    
+    private Long categoryIdOf(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT category_id FROM products WHERE id = ?", Long.class, productId);
+    }
+    
+    private String legacyCategoryOf(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT category FROM products WHERE id = ?", String.class, productId);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.project.repository;
+
+import com.example.project.entity.Product;
+import com.example.project.service.CategoryService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The product finders must be answered from an index, not a full scan of products.
+// Each query below is the SQL shape the named repository method or search produces.
+// ANALYZE commits, so the catalog is seeded once and deleted again afterwards.
+// H2 creates its own index for the category foreign key, which serves category_id lookups equally.
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductQueryPlanTest {
+    
+    private static final int CATALOG_SIZE = 2000;
+    
+    @Autowired
+    private ProductBatchRepository productBatchRepository;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Long planCategoryId;
+    
+    @BeforeAll
+    void seedCatalog() {
+        List<Product> products = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            Product product = new Product("Plan product " + i, "PLAN-" + i, BigDecimal.valueOf(100 + i, 2), i % 50);
+            product.setMinQuantity(5);
+            product.setCategoryId(categoryService.resolveCategoryId("Plan category " + (i % 40)));
+            product.setBrand("Plan brand " + (i % 25));
+            product.setIsActive(i % 10 != 0);
+            products.add(product);
+        }
+        productBatchRepository.insertProducts(products);
+        planCategoryId = categoryService.getCategoryId("Plan category 7");
+        jdbcTemplate.execute("ANALYZE TABLE products");
+    }
+    
+    @AfterAll
+    void deleteCatalog() {
+        jdbcTemplate.update("DELETE FROM products WHERE sku LIKE 'PLAN-%'");
+        jdbcTemplate.update("DELETE FROM categories WHERE name LIKE 'Plan category %'");
+        categoryService.reload();
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', value = {
+        "countLowStockProducts | idx_products_stock_status | " +
+            "SELECT COUNT(*) FROM products WHERE stock_status IN ('LOW', 'OUT') AND min_quantity > 0",
+        "findByStockStatus | idx_products_stock_status | " +
+            "SELECT * FROM products WHERE stock_status = 'OUT'",
+        "findByCategory | idx_products_category_brand_price or fk_products_category | " +
+            "SELECT * FROM products WHERE category_id = :category",
+        "countProductsByCategory | idx_products_category_brand_price or fk_products_category | " +
+            "SELECT category_id, COUNT(*) FROM products GROUP BY category_id",
+        "findByBrand | idx_products_brand_price | " +
+            "SELECT * FROM products WHERE brand = 'Plan brand 3'",
+        "findByPriceBetween | idx_products_price | " +
+            "SELECT * FROM products WHERE price BETWEEN 5.00 AND 5.50",
+        "search by category and price | idx_products_category_brand_price or fk_products_category | " +
+            "SELECT * FROM products WHERE category_id = :category AND price >= 1.00 AND price <= 9.00",
+        "search by category, brand and price | idx_products_category_brand_price | " +
+            "SELECT * FROM products WHERE category_id = :category AND brand = 'Plan brand 7' AND price >= 1.00",
+        "search by brand and price | idx_products_brand_price | " +
+            "SELECT * FROM products WHERE brand = 'Plan brand 3' AND price <= 9.00",
+        "findSummariesByCategoryAfter | idx_products_category_id | " +
+            "SELECT id, name FROM products WHERE category_id = :category AND id > 0 ORDER BY id",
+    })
+    void queryUsesIndex(String finder, String index, String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql.replace(":category", planCategoryId.toString()),
+            String.class);
+        
+        String normalizedPlan = plan.toLowerCase(Locale.ROOT);
+        assertTrue(Stream.of(index.split(" or ")).anyMatch(normalizedPlan::contains),
+            finder + " does not use " + index + ":\n" + plan);
+    }
+}
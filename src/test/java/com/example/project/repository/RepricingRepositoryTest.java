@@ -0,0 +1,168 @@
+package com.example.project.repository;
+
+import com.example.project.entity.Product;
+import com.example.project.service.RepricingRequest;
+import com.example.project.service.RepricingResult;
+import com.example.project.service.RepricingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The set-based repricing statements, evaluated by the database. Every test reprices only
+// the products of a brand of its own.
+@SpringBootTest
+class RepricingRepositoryTest {
+    
+    @Autowired
+    private RepricingRepository repricingRepository;
+    
+    @Autowired
+    private RepricingService repricingService;
+    
+    @Autowired
+    private ProductBatchRepository productBatchRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void roundingModes() {
+        String brand = insertProducts("10.00");
+        
+        assertPrice("10.26", previewPrice(brand, RepricingRule.Change.AMOUNT, "0.26", RepricingRule.Rounding.CENT));
+        assertPrice("10.01", previewPrice(brand, RepricingRule.Change.AMOUNT, "0.005", RepricingRule.Rounding.CENT));
+        assertPrice("10", previewPrice(brand, RepricingRule.Change.AMOUNT, "0.26", RepricingRule.Rounding.WHOLE));
+        assertPrice("11", previewPrice(brand, RepricingRule.Change.AMOUNT, "0.50", RepricingRule.Rounding.WHOLE));
+        assertPrice("9.99", previewPrice(brand, RepricingRule.Change.AMOUNT, "0.26", RepricingRule.Rounding.NINETY_NINE));
+        assertPrice("10.99", previewPrice(brand, RepricingRule.Change.AMOUNT, "0.60", RepricingRule.Rounding.NINETY_NINE));
+        assertPrice("11.25", previewPrice(brand, RepricingRule.Change.PERCENT, "12.5", RepricingRule.Rounding.CENT));
+        assertPrice("8.99", previewPrice(brand, RepricingRule.Change.PERCENT, "-10", RepricingRule.Rounding.NINETY_NINE));
+    }
+    
+    @Test
+    void pricesAreClampedToTheFloor() {
+        String brand = insertProducts("2.00", "8.00");
+        RepricingRule rule = new RepricingRule(null, brand, null, null,
+            RepricingRule.Change.PERCENT, new BigDecimal("-50"), RepricingRule.Rounding.CENT, new BigDecimal("3.00"));
+        
+        RepricingPreview preview = repricingRepository.preview(rule);
+        assertEquals(1, preview.getFloored());
+        assertPrice("3.00", preview.getMinNewPrice());
+        assertPrice("4.00", preview.getMaxNewPrice());
+        
+        repricingService.reprice(request(brand, null, RepricingRule.Change.PERCENT, "-50", RepricingRule.Rounding.CENT, "3.00"));
+        assertEquals(List.of(new BigDecimal("3.00"), new BigDecimal("4.00")), prices(brand));
+    }
+    
+    @Test
+    void previewBindsFloorThenChangeThenFilter() {
+        // Floor, change amount and filter bounds all differ, so a misplaced argument shows
+        String brand = insertProducts("0.50", "2.00", "9.70", "10.00", "20.40");
+        RepricingRule rule = new RepricingRule(null, brand, new BigDecimal("1.00"), new BigDecimal("30.00"),
+            RepricingRule.Change.AMOUNT, new BigDecimal("0.30"), RepricingRule.Rounding.WHOLE, new BigDecimal("5.00"));
+        
+        RepricingPreview preview = repricingRepository.preview(rule);
+        
+        assertEquals(4, preview.getMatched());
+        assertEquals(3, preview.getChanged());
+        assertEquals(1, preview.getFloored());
+        assertPrice("42.10", preview.getCurrentPriceTotal());
+        assertPrice("46", preview.getNewPriceTotal());
+        assertPrice("5.00", preview.getMinNewPrice());
+        assertPrice("21", preview.getMaxNewPrice());
+    }
+    
+    @Test
+    void previewCountsWhatTheRepricingChangesAndARerunChangesNothing() {
+        String brand = insertProducts("0.50", "2.00", "9.70", "10.00", "20.40");
+        RepricingRequest request = request(brand, "1.00", RepricingRule.Change.AMOUNT, "0.30", RepricingRule.Rounding.WHOLE, "5.00");
+        RepricingRule rule = request.toRule(null);
+        long changed = repricingRepository.preview(rule).getChanged();
+        List<Long> versionsBefore = versions(brand);
+        
+        RepricingResult result = repricingService.reprice(request);
+        
+        assertTrue(result.isCompleted());
+        assertEquals(changed, result.getChanged());
+        assertEquals(changed, priceChanges(result.getRepricingId()));
+        assertEquals(List.of(new BigDecimal("0.50"), new BigDecimal("5.00"), new BigDecimal("10.00"),
+            new BigDecimal("10.00"), new BigDecimal("21.00")), prices(brand));
+        List<Long> versionsAfter = versions(brand);
+        assertEquals(List.of(0L, 1L, 1L, 0L, 1L), subtract(versionsAfter, versionsBefore));
+        
+        RepricingResult rerun = repricingService.reprice(request);
+        
+        assertEquals(0, rerun.getChanged());
+        assertEquals(0, repricingRepository.preview(rule).getChanged());
+        assertEquals(0, priceChanges(rerun.getRepricingId()));
+        assertEquals(versionsAfter, versions(brand));
+    }
+    
+    private BigDecimal previewPrice(String brand, RepricingRule.Change change, String amount, RepricingRule.Rounding rounding) {
+        RepricingRule rule = new RepricingRule(null, brand, null, null, change, new BigDecimal(amount), rounding,
+            new BigDecimal("0.01"));
+        return repricingRepository.preview(rule).getMinNewPrice();
+    }
+    
+    private static RepricingRequest request(String brand, String minPrice, RepricingRule.Change change, String amount,
+                                            RepricingRule.Rounding rounding, String floor) {
+        RepricingRequest request = new RepricingRequest();
+        request.setBrand(brand);
+        request.setMinPrice(minPrice != null ? new BigDecimal(minPrice) : null);
+        request.setChange(change);
+        request.setAmount(new BigDecimal(amount));
+        request.setRounding(rounding);
+        request.setFloor(new BigDecimal(floor));
+        return request;
+    }
+    
+    // One product per price, in id order, under a new brand
+    private String insertProducts(String... prices) {
+        String brand = "Reprice " + System.nanoTime() % 1_000_000_000L;
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < prices.length; i++) {
+            Product product = new Product("Repriced " + i, "RP" + System.nanoTime() % 1_000_000_000L + i,
+                new BigDecimal(prices[i]), 10);
+            product.setBrand(brand);
+            products.add(product);
+        }
+        transactionTemplate.executeWithoutResult(status -> productBatchRepository.insertProducts(products));
+        return brand;
+    }
+    
+    private List<BigDecimal> prices(String brand) {
+        return jdbcTemplate.queryForList("SELECT price FROM products WHERE brand = ? ORDER BY id", BigDecimal.class, brand);
+    }
+    
+    private List<Long> versions(String brand) {
+        return jdbcTemplate.queryForList("SELECT version FROM products WHERE brand = ? ORDER BY id", Long.class, brand);
+    }
+    
+    private long priceChanges(String repricingId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price_changes WHERE repricing_id = ?", Long.class, repricingId);
+    }
+    
+    private static List<Long> subtract(List<Long> after, List<Long> before) {
+        List<Long> differences = new ArrayList<>();
+        for (int i = 0; i < after.size(); i++) {
+            differences.add(after.get(i) - before.get(i));
+        }
+        return differences;
+    }
+    
+    private static void assertPrice(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Bulk stock lines applied through the ledger, one chunk at a time
+@SpringBootTest
+class BulkStockAdjustmentServiceTest {
+    
+    @Autowired
+    private BulkStockAdjustmentService bulkStockAdjustmentService;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void negativeLinesRemoveStockInInputOrderAndNeverOversell() throws Exception {
+        String suffix = String.valueOf(System.nanoTime() % 1_000_000_000L);
+        Long first = createProduct("BULK-A" + suffix, 5);
+        Long second = createProduct("BULK-B" + suffix, 3);
+        String csv = "sku,delta\n"
+            + "BULK-A" + suffix + ",-8\n"
+            + "BULK-A" + suffix + ",+10\n"
+            + "BULK-A" + suffix + ",-8\n"
+            + "BULK-B" + suffix + ",-3\n"
+            + "BULK-B" + suffix + ",-1\n"
+            + "BULK-X" + suffix + ",-1\n"
+            + "BULK-A" + suffix + ",-two\n";
+        
+        BulkStockAdjustmentResult result = bulkStockAdjustmentService.adjustStock(
+            StockAdjustment.parseCsv(new StringReader(csv)));
+        
+        assertEquals(7, result.getTotalLines());
+        assertEquals(3, result.getApplied());
+        assertEquals(List.of("2 INSUFFICIENT_STOCK", "6 INSUFFICIENT_STOCK", "7 UNKNOWN_SKU", "8 INVALID_LINE"),
+            result.getFailures().stream().map(failure -> failure.getLine() + " " + failure.getReason()).sorted().toList());
+        assertEquals("Insufficient stock. Available: 5", result.getFailures().stream()
+            .filter(failure -> failure.getLine() == 2).findFirst().orElseThrow().getMessage());
+        assertEquals(7, stockLedger.getCurrentQuantity(first));
+        assertEquals(0, stockLedger.getCurrentQuantity(second));
+        assertEquals(List.of(10, -8), jdbcTemplate.queryForList(
+            "SELECT delta FROM stock_movements WHERE product_id = ? ORDER BY id", Integer.class, first));
+    }
+    
+    private Long createProduct(String sku, int quantity) {
+        return productRepository.save(new Product("Bulk product", sku, new BigDecimal("3.50"), quantity)).getId();
+    }
+}
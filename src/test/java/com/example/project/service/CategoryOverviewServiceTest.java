@@ -0,0 +1,50 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Per-category totals, including stock movements not yet compacted into products.quantity
+@SpringBootTest
+class CategoryOverviewServiceTest {
+    
+    @Autowired
+    private CategoryOverviewService categoryOverviewService;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Test
+    void totalsCountStockMovementsWithoutCompactingThem() {
+        String category = "Overview " + System.nanoTime() % 1_000_000L;
+        Long running = createProduct(category, "2.00", 10, 3);
+        Long emptied = createProduct(category, "5.00", 4, 2);
+        createProduct(category, "1.50", 6, 0);
+        productService.removeStock(running, 8);
+        productService.removeStock(emptied, 4);
+        
+        CategoryOverview overview = categoryOverviewService.getTotalsByCategoryId()
+            .get(categoryService.getCategoryId(category));
+        
+        assertEquals(3, overview.getProductCount());
+        assertEquals(3, overview.getActiveCount());
+        assertEquals(2, overview.getLowStockCount());
+        assertEquals(0, new BigDecimal("13.00").compareTo(overview.getStockValue()), overview.getStockValue()::toString);
+    }
+    
+    private Long createProduct(String category, String price, int quantity, int minQuantity) {
+        Product product = new Product(category + " product", "OV-" + System.nanoTime() % 1_000_000_000L,
+                new BigDecimal(price), quantity);
+        product.setMinQuantity(minQuantity);
+        product.setCategory(category);
+        return productService.createProduct(product).getId();
+    }
+}
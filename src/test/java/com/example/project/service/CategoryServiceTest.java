@@ -0,0 +1,56 @@
+package com.example.project.service;
+
+import com.example.project.entity.Category;
+import com.example.project.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The in-memory category dictionary
+@SpringBootTest
+class CategoryServiceTest {
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Test
+    void callersGetCopiesTheyCanChangeFreely() {
+        Category created = categoryService.createCategory(new Category("Copies " + System.nanoTime()));
+        
+        Category first = categoryService.getCategoryById(created.getId()).orElseThrow();
+        first.setName("Changed by a caller");
+        categoryService.getAllCategories().forEach(category -> category.setIsActive(false));
+        
+        Category second = categoryService.getCategoryById(created.getId()).orElseThrow();
+        assertNotSame(first, second);
+        assertEquals(created.getName(), second.getName());
+        assertEquals(created.getVersion(), second.getVersion());
+        assertEquals(created.getName(), categoryService.getCategoryName(created.getId()));
+        assertTrue(categoryService.getActiveCategories().stream()
+            .anyMatch(category -> category.getId().equals(created.getId())));
+    }
+    
+    @Test
+    void onlyIdLookupsCountTowardsTheHitRatio() {
+        Category elsewhere = categoryRepository.save(new Category("Elsewhere " + System.nanoTime()));
+        CategoryCacheStats before = categoryService.getCacheStats();
+        
+        categoryService.getAllCategories();
+        categoryService.getActiveCategories();
+        categoryService.getCategoryId(elsewhere.getName());
+        categoryService.categoryExistsByName(elsewhere.getName());
+        categoryService.getCategoryName(elsewhere.getId());
+        categoryService.getCategoryName(elsewhere.getId());
+        
+        CategoryCacheStats after = categoryService.getCacheStats();
+        assertEquals(1, after.getMisses() - before.getMisses());
+        assertEquals(1, after.getHits() - before.getHits());
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Three-way merges of an edit form (submitted) into the current row, from the values the form
+// was opened with (the base token)
+class FieldMergeTest {
+    
+    private static final FieldMerge<Product> FORM = new FieldMerge<Product>()
+        .field("name", Product::getName, (product, form) -> product.setName(form.getName()))
+        .field("price", Product::getPrice, (product, form) -> product.setPrice(form.getPrice()))
+        .field("brand", Product::getBrand, (product, form) -> product.setBrand(form.getBrand()))
+        .field("quantity", Product::getQuantity);
+    
+    @Test
+    void disjointEditsAreMerged() {
+        Product opened = product("Lamp", "9.99", "Acme");
+        String base = FORM.base(opened);
+        Product current = product("Lamp", "9.99", "Globex");
+        Product submitted = product("Desk lamp", "9.99", "Acme");
+        
+        FieldMerge.Result result = FORM.merge(base, submitted, current);
+        
+        assertFalse(result.hasConflicts());
+        assertTrue(result.isMerged());
+        assertEquals(Set.of("name"), result.getTaken());
+        assertEquals("Desk lamp", current.getName());
+        assertEquals("Globex", current.getBrand());
+    }
+    
+    @Test
+    void conflictingEditsCopyNothing() {
+        Product opened = product("Lamp", "9.99", "Acme");
+        String base = FORM.base(opened);
+        Product current = product("Lamp", "12.00", "Acme");
+        Product submitted = product("Desk lamp", "11.00", "Acme");
+        
+        FieldMerge.Result result = FORM.merge(base, submitted, current);
+        
+        assertEquals(List.of("price"), result.getConflicts());
+        assertEquals("Lamp", current.getName());
+        assertEquals(new BigDecimal("12.00"), current.getPrice());
+    }
+    
+    @Test
+    void theSameChangeOnBothSidesIsNoConflict() {
+        String base = FORM.base(product("Lamp", "9.99", "Acme"));
+        Product current = product("Lamp", "10.00", "Acme");
+        Product submitted = product("Lamp", "10.0", "Acme");
+        
+        FieldMerge.Result result = FORM.merge(base, submitted, current);
+        
+        assertFalse(result.hasConflicts());
+        assertTrue(result.getTaken().isEmpty());
+    }
+    
+    @Test
+    void blankAndMissingValuesCompareEqual() {
+        Product opened = product("Lamp", "9.99", null);
+        String base = FORM.base(opened);
+        Product submitted = product("Lamp", "9.99", "");
+        
+        FieldMerge.Result result = FORM.merge(base, submitted, product("Lamp", "9.99", null));
+        
+        assertFalse(result.hasConflicts());
+        assertTrue(result.getTaken().isEmpty());
+    }
+    
+    @Test
+    void fieldsAppliedByTheCallerAreTakenButNotCopied() {
+        Product opened = product("Lamp", "9.99", "Acme");
+        String base = FORM.base(opened);
+        Product current = product("Lamp", "9.99", "Acme");
+        Product submitted = product("Lamp", "9.99", "Acme");
+        submitted.setQuantity(40);
+        
+        FieldMerge.Result result = FORM.merge(base, submitted, current);
+        
+        assertTrue(result.takes("quantity"));
+        assertEquals(10, current.getQuantity());
+    }
+    
+    @Test
+    void withoutABaseEveryDifferingFieldConflicts() {
+        Product current = product("Lamp", "9.99", "Acme");
+        Product submitted = product("Desk lamp", "9.99", "Globex");
+        
+        FieldMerge.Result result = FORM.merge(null, submitted, current);
+        
+        assertEquals(List.of("name", "brand"), result.getConflicts());
+        assertEquals("Lamp", current.getName());
+    }
+    
+    @Test
+    void garbledTokensAreRefused() {
+        Product current = product("Lamp", "9.99", "Acme");
+        
+        assertThrows(IllegalArgumentException.class, () -> FORM.merge("not*base64!", current, current));
+        assertThrows(IllegalArgumentException.class, () -> FORM.merge(token("name=%zz"), current, current));
+    }
+    
+    @Test
+    void aTokenMissingFieldsTakesNothingBlindly() {
+        // Tampered down to the name only: the form's other changes cannot be told from
+        // concurrent ones, so they conflict instead of overwriting
+        Product current = product("Lamp", "12.00", "Acme");
+        Product submitted = product("Lamp", "11.00", "Acme");
+        
+        FieldMerge.Result result = FORM.merge(token("name=Lamp"), submitted, current);
+        
+        assertEquals(List.of("price"), result.getConflicts());
+        assertEquals(new BigDecimal("12.00"), current.getPrice());
+    }
+    
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static Product product(String name, String price, String brand) {
+        Product product = new Product(name, "SKU-1", new BigDecimal(price), 10);
+        product.setBrand(brand);
+        return product;
+    }
+}
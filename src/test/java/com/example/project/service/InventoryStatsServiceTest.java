@@ -0,0 +1,104 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The incrementally maintained dashboard figures against a fresh aggregate
+@SpringBootTest
+class InventoryStatsServiceTest {
+    
+    @Autowired
+    private InventoryStatsService inventoryStatsService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Test
+    void incrementalFiguresMatchAFreshAggregate() {
+        inventoryStatsService.reload();
+        writeProducts("Stats " + System.nanoTime() % 1_000_000L);
+        
+        InventoryStats incremental = inventoryStatsService.getStats();
+        inventoryStatsService.reload();
+        
+        assertSameFigures(inventoryStatsService.getStats(), incremental);
+    }
+    
+    @Test
+    void writesDuringAReloadAreNeitherLostNorCountedTwice() throws Exception {
+        inventoryStatsService.reload();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Future<?> writes = executor.submit(() -> {
+            try {
+                for (int i = 0; i < 5; i++) {
+                    writeProducts("Racing " + i + " " + System.nanoTime() % 1_000_000L);
+                }
+            } finally {
+                writing.set(false);
+            }
+        });
+        while (writing.get()) {
+            inventoryStatsService.reload();
+        }
+        writes.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+        
+        InventoryStats incremental = inventoryStatsService.getStats();
+        inventoryStatsService.reload();
+        
+        assertSameFigures(inventoryStatsService.getStats(), incremental);
+    }
+    
+    // Creates, edits, stock movements, a soft and a hard delete under one category
+    private void writeProducts(String category) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Product product = new Product(category + " product " + i, "ST" + System.nanoTime() % 1_000_000_000L + i,
+                    new BigDecimal("4.50"), 10 * i);
+            product.setMinQuantity(5);
+            product.setCategory(category);
+            ids.add(productService.createProduct(product).getId());
+        }
+        productService.removeStock(ids.get(1), 7);
+        productService.addStock(ids.get(0), 3);
+        productService.updateProductQuantity(ids.get(2), 0);
+        
+        Product edited = productService.getProductById(ids.get(3)).orElseThrow();
+        edited.setPrice(new BigDecimal("12.25"));
+        edited.setMinQuantity(40);
+        productService.updateProduct(edited.getId(), edited);
+        
+        productService.deleteProduct(ids.get(1));
+        productService.hardDeleteProduct(ids.get(0));
+    }
+    
+    private static void assertSameFigures(InventoryStats expected, InventoryStats actual) {
+        assertEquals(expected.getTotalProducts(), actual.getTotalProducts());
+        assertEquals(expected.getLowStockProducts(), actual.getLowStockProducts());
+        assertEquals(expected.getOutOfStockProducts(), actual.getOutOfStockProducts());
+        assertEquals(expected.getActiveProducts(), actual.getActiveProducts());
+        assertEquals(0, expected.getTotalInventoryValue().compareTo(actual.getTotalInventoryValue()),
+            () -> expected.getTotalInventoryValue() + " != " + actual.getTotalInventoryValue());
+        assertEquals(expected.getCategoryCounts(), actual.getCategoryCounts());
+        assertEquals(ids(expected.getRecentProducts()), ids(actual.getRecentProducts()));
+    }
+    
+    private static List<Long> ids(List<ProductSnapshot> products) {
+        return products.stream().map(ProductSnapshot::getId).toList();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import com.example.project.event.StockThresholdEvent;
+import com.example.project.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The in-memory low-stock and out-of-stock lists and their threshold crossings
+@SpringBootTest
+class LowStockWatchlistTest {
+    
+    @Autowired
+    private LowStockWatchlist watchlist;
+    
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Test
+    void aStaleEventDoesNotOverwriteTheCommittedQuantity() {
+        Product product = createProduct(20, 10);
+        assertTrue(stockService.removeStock(product.getId(), 15).isApplied());
+        assertEquals(5, watched(product.getId()).getQuantity());
+        
+        // The event of an earlier write, delivered after the stock change
+        ProductSnapshot earlier = ProductSnapshot.of(product);
+        watchlist.onProductChanged(ProductChangedEvent.updated(earlier.withQuantity(25), earlier));
+        
+        assertEquals(5, watched(product.getId()).getQuantity());
+    }
+    
+    @Test
+    void emptyProductsWithAMinimumAreListedAsLowStock() {
+        Product empty = productService.createProduct(newProduct(0, 5));
+        Product emptyWithoutMinimum = productService.createProduct(newProduct(0, 0));
+        
+        assertTrue(ids(productService.getLowStockProducts()).contains(empty.getId()));
+        assertFalse(ids(productService.getLowStockProducts()).contains(emptyWithoutMinimum.getId()));
+        assertTrue(ids(productService.getOutOfStockProducts()).containsAll(
+            List.of(empty.getId(), emptyWithoutMinimum.getId())));
+        
+        // The stored figures agree after a reload from the table
+        long lowStock = productRepository.countLowStockProducts();
+        watchlist.reload();
+        assertEquals(lowStock, watchlist.getLowStock().size());
+        assertTrue(watchlist.getLowStock().stream().anyMatch(product -> product.getId().equals(empty.getId())));
+    }
+    
+    @Test
+    void crossingsOfAnEmptyProduct() {
+        ProductSnapshot low = snapshot(3, 10);
+        ProductSnapshot empty = snapshot(0, 10);
+        
+        assertTrue(empty.isLowStock());
+        assertTrue(empty.isOutOfStock());
+        assertFalse(snapshot(0, 0).isLowStock());
+        
+        assertEquals(List.of(StockThresholdEvent.Crossing.OUT_OF_STOCK),
+                crossings(ProductChangedEvent.updated(low, empty)));
+        assertEquals(List.of(StockThresholdEvent.Crossing.LOW_STOCK, StockThresholdEvent.Crossing.OUT_OF_STOCK),
+                crossings(ProductChangedEvent.updated(snapshot(11, 10), empty)));
+        assertEquals(List.of(StockThresholdEvent.Crossing.BACK_IN_STOCK),
+                crossings(ProductChangedEvent.updated(empty, low)));
+        assertEquals(List.of(StockThresholdEvent.Crossing.STOCK_RECOVERED),
+                crossings(ProductChangedEvent.updated(low, snapshot(11, 10))));
+    }
+    
+    private ProductSnapshot watched(Long id) {
+        return watchlist.getLowStock().stream()
+            .filter(product -> product.getId().equals(id))
+            .findFirst()
+            .orElseThrow();
+    }
+    
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+    
+    private static List<StockThresholdEvent.Crossing> crossings(ProductChangedEvent event) {
+        return LowStockWatchlist.crossings(event).stream().map(StockThresholdEvent::getCrossing).toList();
+    }
+    
+    private Product createProduct(int quantity, int minQuantity) {
+        return productRepository.save(newProduct(quantity, minQuantity));
+    }
+    
+    private static Product newProduct(int quantity, int minQuantity) {
+        Product product = new Product("Watched product", "WATCH-" + System.nanoTime() % 1_000_000_000L,
+                new BigDecimal("9.99"), quantity);
+        product.setMinQuantity(minQuantity);
+        return product;
+    }
+    
+    private static ProductSnapshot snapshot(int quantity, int minQuantity) {
+        return new ProductSnapshot(1L, "Lamp", "SKU-1", new BigDecimal("9.99"), quantity, minQuantity,
+                null, null, null, true, null);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.project.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Retries of writes that lose a version check (inventory.retry.max-attempts=5 in the test properties)
+@SpringBootTest
+class OptimisticRetryExecutorTest {
+    
+    @Autowired
+    private OptimisticRetryExecutor retryExecutor;
+    
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+    
+    private final AtomicInteger attempts = new AtomicInteger();
+    
+    @Test
+    void retriesALostVersionCheckUntilItSucceeds() {
+        String result = retryExecutor.execute("test.retriesUntilSuccess", () -> {
+            assertTrue(TransactionSynchronizationManager.isActualTransactionActive());
+            if (attempts.incrementAndGet() < 3) {
+                throw lostVersionCheck();
+            }
+            return "saved";
+        });
+        
+        assertEquals("saved", result);
+        assertEquals(3, attempts.get());
+        OptimisticWriteStats stats = stats("test.retriesUntilSuccess");
+        assertEquals(1, stats.getWrites());
+        assertEquals(2, stats.getRetries());
+        assertEquals(0, stats.getRetriesExhausted());
+    }
+    
+    @Test
+    void stopsAtMaxAttempts() {
+        assertThrows(ObjectOptimisticLockingFailureException.class, () ->
+            retryExecutor.run("test.stopsAtMaxAttempts", () -> {
+                attempts.incrementAndGet();
+                throw lostVersionCheck();
+            }));
+        
+        assertEquals(5, attempts.get());
+        OptimisticWriteStats stats = stats("test.stopsAtMaxAttempts");
+        assertEquals(4, stats.getRetries());
+        assertEquals(1, stats.getRetriesExhausted());
+    }
+    
+    @Test
+    void doesNotRetryOtherFailures() {
+        RuntimeException failure = assertThrows(RuntimeException.class, () ->
+            retryExecutor.run("test.otherFailures", () -> {
+                attempts.incrementAndGet();
+                throw new RuntimeException("Product not found with id: 1");
+            }));
+        
+        assertEquals("Product not found with id: 1", failure.getMessage());
+        assertEquals(1, attempts.get());
+        assertEquals(0, stats("test.otherFailures").getRetries());
+    }
+    
+    private OptimisticWriteStats stats(String operation) {
+        return inventoryMetrics.snapshot().getOptimisticWrites().stream()
+            .filter(stats -> stats.getOperation().equals(operation))
+            .findFirst()
+            .orElseThrow();
+    }
+    
+    private static ObjectOptimisticLockingFailureException lostVersionCheck() {
+        return new ObjectOptimisticLockingFailureException("Product", 1L);
+    }
+}
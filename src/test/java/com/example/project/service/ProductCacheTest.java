@@ -0,0 +1,130 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductCacheTest {
+    
+    private final AtomicInteger loads = new AtomicInteger();
+    
+    @Test
+    void cachedCopyKeepsEveryPersistentField() {
+        ProductCache cache = new ProductCache(10, 300);
+        Product stored = product(1L, "SKU-1");
+        stored.setVersion(7L);
+        stored.setLegacyCategory("Tools");
+        stored.setMinQuantity(5);
+        
+        Product loaded = cache.getById(1L, () -> load(stored)).orElseThrow();
+        Product cached = cache.getById(1L, () -> load(stored)).orElseThrow();
+        
+        assertEquals(1, loads.get());
+        assertNotSame(loaded, cached);
+        assertEquals(7L, cached.getVersion());
+        assertEquals("Tools", cached.getLegacyCategory());
+        assertEquals(Product.StockStatus.IN_STOCK, cached.getStockStatus());
+        assertEquals(stored.getSku(), cached.getSku());
+        assertEquals(stored.getPrice(), cached.getPrice());
+        assertEquals(stored.getQuantity(), cached.getQuantity());
+    }
+    
+    @Test
+    void aCommittedWriteDropsTheEntry() {
+        ProductCache cache = new ProductCache(10, 300);
+        Product stored = product(1L, "SKU-1");
+        cache.getById(1L, () -> load(stored));
+        
+        cache.onProductChanged(ProductChangedEvent.updated(ProductSnapshot.of(stored), ProductSnapshot.of(stored)));
+        cache.getById(1L, () -> load(stored));
+        cache.getBySku("SKU-1", () -> load(stored));
+        
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStats().getInvalidations());
+        assertEquals(1, cache.getStats().getHits());
+    }
+    
+    @Test
+    void aLoadThatRacedWithAWriteIsNotStored() {
+        ProductCache cache = new ProductCache(10, 300);
+        Product stored = product(1L, "SKU-1");
+        
+        cache.getById(1L, () -> {
+            cache.evict(1L);
+            return load(stored);
+        });
+        cache.getById(1L, () -> load(stored));
+        
+        assertEquals(2, loads.get());
+    }
+    
+    @Test
+    void expiredEntriesAreLoadedAgain() throws InterruptedException {
+        ProductCache cache = new ProductCache(10, 0);
+        Product stored = product(1L, "SKU-1");
+        cache.getById(1L, () -> load(stored));
+        
+        Thread.sleep(5);
+        cache.getById(1L, () -> load(stored));
+        
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStats().getExpirations());
+    }
+    
+    @Test
+    void theLeastRecentlyUsedEntryIsEvicted() {
+        ProductCache cache = new ProductCache(2, 300);
+        Product first = product(1L, "SKU-1");
+        Product second = product(2L, "SKU-2");
+        Product third = product(3L, "SKU-3");
+        cache.getById(1L, () -> load(first));
+        cache.getById(2L, () -> load(second));
+        cache.getBySku("SKU-1", () -> load(first));
+        
+        cache.getById(3L, () -> load(third));
+        
+        assertEquals(3, loads.get());
+        assertEquals(2, cache.getStats().getSize());
+        assertEquals(1, cache.getStats().getEvictions());
+        cache.getById(1L, () -> load(first));
+        cache.getBySku("SKU-3", () -> load(third));
+        assertEquals(3, loads.get());
+        cache.getBySku("SKU-2", () -> load(second));
+        assertEquals(4, loads.get());
+    }
+    
+    @Test
+    void aChangedSkuNoLongerFindsTheProduct() {
+        ProductCache cache = new ProductCache(10, 300);
+        Product stored = product(1L, "SKU-OLD");
+        cache.getBySku("SKU-OLD", () -> load(stored));
+        
+        Product renamed = product(1L, "SKU-NEW");
+        cache.evict(1L);
+        cache.getById(1L, () -> load(renamed));
+        
+        assertTrue(cache.getBySku("SKU-OLD", Optional::empty).isEmpty());
+        assertEquals("SKU-NEW", cache.getBySku("SKU-NEW", () -> load(renamed)).orElseThrow().getSku());
+        assertEquals(2, loads.get());
+    }
+    
+    private Optional<Product> load(Product stored) {
+        loads.incrementAndGet();
+        return Optional.of(stored);
+    }
+    
+    private static Product product(Long id, String sku) {
+        Product product = new Product("Product " + id, sku, new BigDecimal("9.99"), 20);
+        product.setId(id);
+        return product;
+    }
+}
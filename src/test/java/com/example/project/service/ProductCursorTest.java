@@ -0,0 +1,70 @@
+package com.example.project.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductCursorTest {
+    
+    @Test
+    void keysSurviveTheRoundTrip() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("price", new BigDecimal("19.90"));
+        keys.put("id", 42L);
+        
+        String cursor = ProductCursor.encode(ScrollPosition.forward(keys), "price", "desc");
+        KeysetScrollPosition position = ProductCursor.decode(cursor, "price", "desc");
+        
+        assertTrue(position.scrollsForward());
+        assertEquals(keys, position.getKeys());
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+    }
+    
+    @Test
+    void textAndTimeKeysAreEscaped() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("name", "Bolts; 10=pack & more");
+        keys.put("createdAt", LocalDateTime.of(2024, 3, 1, 12, 30, 5));
+        keys.put("id", 7L);
+        
+        KeysetScrollPosition position = ProductCursor.decode(
+            ProductCursor.encode(ScrollPosition.backward(keys), "name", "asc"), "name", "asc");
+        
+        assertTrue(position.scrollsBackward());
+        assertEquals(keys, position.getKeys());
+    }
+    
+    @Test
+    void blankCursorStartsAtTheBeginning() {
+        assertTrue(ProductCursor.decode(null, "id", "asc").isInitial());
+        assertTrue(ProductCursor.decode(" ", "id", "asc").isInitial());
+    }
+    
+    @Test
+    void cursorsOfAnotherSortOrderOrGarbageAreRefused() {
+        String byPrice = ProductCursor.encode(ScrollPosition.forward(Map.of("price", BigDecimal.TEN, "id", 1L)), "price", "asc");
+        
+        assertEquals("Page cursor does not match the requested sort order",
+            assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(byPrice, "price", "desc")).getMessage());
+        assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(byPrice, "name", "asc"));
+        assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode("%%%", "id", "asc"));
+        assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(encoded("1;F;id;asc;id=abc"), "id", "asc"));
+        assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(encoded("1;F;id;asc;brand=x"), "id", "asc"));
+        assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(encoded("2;F;id;asc;id=1"), "id", "asc"));
+    }
+    
+    private static String encoded(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Edits that change the quantity: refused as a whole, or reported as partly saved
+@SpringBootTest
+class ProductEditTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+    
+    @Test
+    void aNegativeQuantityIsRefusedBeforeAnythingIsSaved() {
+        Product product = createProduct();
+        Product edited = productService.getProductById(product.getId()).orElseThrow();
+        edited.setName("Renamed");
+        edited.setQuantity(-1);
+        
+        RuntimeException e = assertThrows(RuntimeException.class,
+            () -> productService.updateProduct(edited.getId(), edited));
+        
+        assertEquals("Quantity cannot be negative", e.getMessage());
+        Product stored = productService.getProductById(product.getId()).orElseThrow();
+        assertEquals("Edited product", stored.getName());
+        assertEquals(5, stored.getQuantity());
+    }
+    
+    @Test
+    void aQuantityRefusedAfterTheEditCommittedIsReportedAsPartial() {
+        Product product = createProduct();
+        Product edited = productService.getProductById(product.getId()).orElseThrow();
+        edited.setName("Renamed");
+        edited.setQuantity(9);
+        // The product is deleted right after the rest of the edit commits
+        AtomicBoolean deleting = new AtomicBoolean();
+        ApplicationListener<PayloadApplicationEvent<?>> deleteAfterCommit = event -> {
+            if (event.getPayload() instanceof ProductChangedEvent changed && !changed.isDeleted()
+                    && changed.getProductId().equals(product.getId()) && deleting.compareAndSet(false, true)) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        CompletableFuture.runAsync(() -> productService.hardDeleteProduct(product.getId()))
+                            .orTimeout(10, TimeUnit.SECONDS).join();
+                    }
+                });
+            }
+        };
+        applicationContext.addApplicationListener(deleteAfterCommit);
+        PartialEditException e;
+        try {
+            e = assertThrows(PartialEditException.class, () -> productService.updateProduct(edited.getId(), edited));
+        } finally {
+            applicationContext.removeApplicationListener(deleteAfterCommit);
+        }
+        
+        assertTrue(deleting.get());
+        assertTrue(e.getMessage().startsWith("The other changes were saved, but not the quantity"), e.getMessage());
+        assertNull(e.getCurrentQuantity());
+        assertFalse(productService.getProductById(product.getId()).isPresent());
+    }
+    
+    private Product createProduct() {
+        Product product = new Product("Edited product", "EDIT-" + System.nanoTime() % 1_000_000_000L,
+                new BigDecimal("8.00"), 5);
+        return productService.createProduct(product);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.util.CsvReader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The catalog export formats, and that rows are written as they are read
+@SpringBootTest
+class ProductExportServiceTest {
+    
+    private static final String DESCRIPTION = "Line one, \"quoted\"\nline two";
+    
+    @Autowired
+    private ProductExportService productExportService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void csvRowsAreQuotedAndUseTheImportColumns() throws Exception {
+        Product product = createProduct();
+        StringWriter out = new StringWriter();
+        
+        long count = productExportService.exportCsv(out);
+        
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader csv = new CsvReader(new StringReader(out.toString()))) {
+            for (List<String> record = csv.readRecord(); record != null; record = csv.readRecord()) {
+                records.add(record);
+            }
+        }
+        assertEquals(List.of("id", "name", "description", "sku", "price", "quantity", "min_quantity",
+            "category", "brand", "unit", "is_active", "created_at", "updated_at"), records.get(0));
+        assertEquals(count, records.size() - 1);
+        List<String> row = records.stream().filter(record -> record.get(3).equals(product.getSku()))
+            .findFirst().orElseThrow();
+        assertEquals(List.of(product.getId().toString(), "Export product", DESCRIPTION, product.getSku(), "12.50",
+            "7", "", product.getCategory(), "Export brand", "box", "true"), row.subList(0, 11));
+    }
+    
+    @Test
+    void ndjsonHasOneObjectPerLine() throws Exception {
+        Product product = createProduct();
+        StringWriter out = new StringWriter();
+        
+        long count = productExportService.exportNdjson(out);
+        
+        String[] lines = out.toString().split("\n");
+        assertEquals(count, lines.length);
+        assertTrue(out.toString().endsWith("\n"));
+        JsonNode row = null;
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            if (node.get("sku").asText().equals(product.getSku())) {
+                row = node;
+            }
+        }
+        assertEquals(product.getId().longValue(), row.get("id").asLong());
+        assertEquals(DESCRIPTION, row.get("description").asText());
+        assertTrue(row.get("price").isNumber());
+        assertEquals(0, new BigDecimal("12.50").compareTo(row.get("price").decimalValue()));
+        assertEquals(7, row.get("quantity").asInt());
+        assertTrue(row.get("minQuantity").isNull());
+        assertEquals(product.getCategory(), row.get("category").asText());
+        assertTrue(row.get("isActive").asBoolean());
+    }
+    
+    @Test
+    void rowsAreWrittenWhileTheCursorIsRead() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            createProduct();
+        }
+        // Entities loaded so far, each time a line is finished
+        List<Integer> loadedAtLineEnd = new ArrayList<>();
+        StringWriter out = new StringWriter() {
+            @Override
+            public void write(String str) {
+                super.write(str);
+                if (str.equals("\r\n")) {
+                    loadedAtLineEnd.add(RequestMetrics.current().getEntitiesLoaded());
+                }
+            }
+        };
+        
+        RequestMetrics.begin();
+        long count;
+        try {
+            count = productExportService.exportCsv(out);
+        } finally {
+            RequestMetrics.end();
+        }
+        
+        assertTrue(count >= 5);
+        assertEquals(count + 1, loadedAtLineEnd.size());
+        assertEquals(0, loadedAtLineEnd.get(0));
+        assertEquals(1, loadedAtLineEnd.get(1));
+        assertEquals(count, loadedAtLineEnd.get(loadedAtLineEnd.size() - 1).longValue());
+    }
+    
+    private Product createProduct() {
+        Product product = new Product("Export product", "EXP-" + System.nanoTime() % 1_000_000_000L,
+                new BigDecimal("12.50"), 7);
+        product.setDescription(DESCRIPTION);
+        product.setMinQuantity(null);
+        product.setCategory("Export category");
+        product.setBrand("Export brand");
+        product.setUnit("box");
+        return productService.createProduct(product);
+    }
+}
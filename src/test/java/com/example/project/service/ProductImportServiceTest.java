@@ -0,0 +1,48 @@
+package com.example.project.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Rows are checked against Product's constraint annotations; each bad row is reported, the rest imported
+@SpringBootTest
+class ProductImportServiceTest {
+    
+    @Autowired
+    private ProductImportService importService;
+    
+    @Test
+    void invalidRowsAreReportedWithTheConstraintMessage() {
+        String prefix = "IMP" + System.nanoTime() % 100_000L;
+        String csv = "name,sku,price,quantity,min_quantity,brand\n"
+                + "Desk lamp," + prefix + "-1,19.99,10,2,Acme\n"
+                + "X," + prefix + "-2,19.99,10,2,Acme\n"
+                + "Desk chair," + prefix + "-3,0.00,10,2,Acme\n"
+                + "Desk chair," + prefix + "-4,19.999,10,2,Acme\n"
+                + "Desk chair," + prefix + "-5,19.99,-1,2,Acme\n"
+                + "Desk chair," + prefix + "-6,19.99,10,-2,Acme\n"
+                + "Desk chair," + prefix + "-7,19.99,10,2," + "B".repeat(51) + "\n"
+                + "X," + prefix + "-8,0.00,-1,2,Acme\n";
+        
+        ProductImportResult result = importService.importCsv(new StringReader(csv), "products.csv");
+        
+        assertEquals(ProductImportResult.Status.COMPLETED, result.getStatus());
+        assertEquals(1, result.getImported());
+        assertEquals(List.of(
+                "Product name must be between 2 and 100 characters",
+                "Price must be greater than 0",
+                "Price must fit 8 digits and 2 decimals",
+                "Quantity cannot be negative",
+                "Minimum quantity cannot be negative",
+                "Brand cannot exceed 50 characters",
+                "Product name must be between 2 and 100 characters"),
+            result.getErrors().stream().map(ProductImportResult.RowError::getError).toList());
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L, 8L, 9L),
+            result.getErrors().stream().map(ProductImportResult.RowError::getRow).toList());
+    }
+}
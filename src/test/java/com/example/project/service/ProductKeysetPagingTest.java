@@ -0,0 +1,80 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Walking the product list by cursor visits every product once, in sort order, ties included
+@SpringBootTest
+class ProductKeysetPagingTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Test
+    void forwardWalkVisitsEveryProductOnceInOrder() {
+        // Several products share a price, so a page boundary falls inside a run of ties
+        for (int i = 0; i < 12; i++) {
+            Product product = new Product("Keyset product " + i, "KEY-" + System.nanoTime() % 1_000_000_000L,
+                    new BigDecimal(i % 3 == 0 ? "3.33" : "7.77"), 5);
+            productRepository.save(product);
+        }
+        
+        List<Product> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductSlice slice = productService.getProductsByCursor(cursor, 5, "price", "desc");
+            walked.addAll(slice.getContent());
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+        
+        Set<Long> ids = new HashSet<>();
+        walked.forEach(product -> assertTrue(ids.add(product.getId()), "visited twice: " + product.getId()));
+        assertEquals(productRepository.count(), walked.size());
+        for (int i = 1; i < walked.size(); i++) {
+            Product previous = walked.get(i - 1);
+            Product current = walked.get(i);
+            int byPrice = previous.getPrice().compareTo(current.getPrice());
+            assertTrue(byPrice > 0 || byPrice == 0 && previous.getId() < current.getId(),
+                "out of order: " + previous.getId() + " before " + current.getId());
+        }
+    }
+    
+    @Test
+    void previousCursorReturnsThePageBefore() {
+        for (int i = 0; i < 6; i++) {
+            productRepository.save(new Product("Keyset back " + i, "KEYB-" + System.nanoTime() % 1_000_000_000L,
+                    new BigDecimal("5.00"), 5));
+        }
+        ProductSlice first = productService.getProductsByCursor(null, 2, "id", "asc");
+        ProductSlice second = productService.getProductsByCursor(first.getNextCursor(), 2, "id", "asc");
+        ProductSlice third = productService.getProductsByCursor(second.getNextCursor(), 2, "id", "asc");
+        
+        ProductSlice backToSecond = productService.getProductsByCursor(third.getPreviousCursor(), 2, "id", "asc");
+        ProductSlice backToFirst = productService.getProductsByCursor(backToSecond.getPreviousCursor(), 2, "id", "asc");
+        
+        assertEquals(ids(second), ids(backToSecond));
+        assertEquals(ids(first), ids(backToFirst));
+        assertNull(first.getPreviousCursor());
+        assertNull(backToFirst.getPreviousCursor());
+    }
+    
+    private static List<Long> ids(ProductSlice slice) {
+        return slice.getContent().stream().map(Product::getId).toList();
+    }
+}
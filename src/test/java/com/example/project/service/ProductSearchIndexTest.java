@@ -0,0 +1,84 @@
+package com.example.project.service;
+
+import com.example.project.event.ProductSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The index kept current from applied snapshots alone (no rebuild from the table)
+class ProductSearchIndexTest {
+    
+    private final ProductSearchIndex index = new ProductSearchIndex();
+    
+    @Test
+    void findsSubstringsAnywhereInNameSkuOrBrand() {
+        index(1L, "Cordless drill", "TL-100", "Acme");
+        index(2L, "Hammer", "TL-200", "Globex");
+        index(3L, "Drill bits", "BT-300", "Acme");
+        
+        assertEquals(List.of(1L), search("ordless"));
+        assertEquals(List.of(2L), search("lobe"));
+        assertEquals(List.of(2L, 1L), search("tl-"));
+        assertEquals(List.of(3L, 1L), search("drill"));
+        assertEquals(List.of(), search("drills"));
+    }
+    
+    @Test
+    void shortQueriesMatchWordPrefixesOnly() {
+        index(1L, "Cordless drill", "TL-100", "Acme");
+        index(2L, "Drill bits", "BT-300", "Globex");
+        
+        assertEquals(List.of(2L, 1L), search("dr"));
+        assertEquals(List.of(2L), search("b"));
+        assertEquals(List.of(), search("or"));
+    }
+    
+    @Test
+    void updatesAndDeletesReplaceTheIndexedText() {
+        index(1L, "Cordless drill", "TL-100", "Acme");
+        index(2L, "Hammer", "TL-200", "Acme");
+        
+        index.apply(1L, snapshot(1L, "Impact driver", "TL-100", "Acme"));
+        index.apply(2L, null);
+        
+        assertEquals(List.of(), search("drill"));
+        assertEquals(List.of(1L), search("driver"));
+        assertEquals(List.of(1L), search("acme"));
+        assertEquals(1, index.size());
+    }
+    
+    @Test
+    void compactionAfterManyDeletesKeepsResultsAndIdOrder() {
+        for (long id = 1; id <= 3000; id++) {
+            index(id, "Widget " + id, "W-" + id, id % 2 == 0 ? "Even" : "Odd");
+        }
+        for (long id = 1; id <= 2900; id++) {
+            index.apply(id, null);
+        }
+        index(3001L, "Widget 3001", "W-3001", "Odd");
+        
+        assertEquals(101, index.size());
+        List<Long> odd = search("odd");
+        assertEquals(51, odd.size());
+        assertEquals(2901L, odd.get(0));
+        assertEquals(3001L, odd.get(odd.size() - 1));
+        assertTrue(search("widget 1").isEmpty());
+        assertEquals(List.of(2950L), search("w-2950"));
+    }
+    
+    private List<Long> search(String text) {
+        return index.search(text, snapshot -> true);
+    }
+    
+    private void index(Long id, String name, String sku, String brand) {
+        index.apply(id, snapshot(id, name, sku, brand));
+    }
+    
+    private static ProductSnapshot snapshot(Long id, String name, String sku, String brand) {
+        return new ProductSnapshot(id, name, sku, new BigDecimal("9.99"), 10, 0, null, null, brand, true, null);
+    }
+}
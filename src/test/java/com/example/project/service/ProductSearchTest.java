@@ -0,0 +1,99 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Paged and cursor-paged text search find the same products, both through the search index
+@SpringBootTest
+class ProductSearchTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    
+    @Test
+    void cursorSearchFindsWhatPagedSearchFinds() {
+        String word = "Zq" + System.nanoTime() % 1_000_000L;
+        for (int i = 0; i < 7; i++) {
+            create(word + " lamp " + i, "Lumen");
+        }
+        create("Floor " + word.toLowerCase() + "x", "Lumen");
+        create("Unrelated lamp", "Other");
+        
+        for (String query : List.of(word, word.substring(0, 2), word.substring(1) + " lamp", "lumen")) {
+            List<Long> paged = ids(productService.searchProducts(query, null, null, null, null, null, 0, 100).getContent());
+            paged.sort(Comparator.naturalOrder());
+            
+            assertEquals(paged, scrollAll(query, 3), query);
+        }
+    }
+    
+    @Test
+    void cursorSearchPagesBackToAFullFirstPage() {
+        String word = "Zw" + System.nanoTime() % 1_000_000L;
+        for (int i = 0; i < 5; i++) {
+            create(word + " chair " + i, "Seat");
+        }
+        ProductSlice first = productService.searchProductsByCursor(word, null, null, null, null, null, null, 2, true);
+        ProductSlice second = productService.searchProductsByCursor(word, null, null, null, null, null,
+                first.getNextCursor(), 2, false);
+        ProductSlice back = productService.searchProductsByCursor(word, null, null, null, null, null,
+                second.getPreviousCursor(), 2, false);
+        
+        assertEquals(5L, first.getApproximateTotal());
+        assertEquals(ids(first.getContent()), ids(back.getContent()));
+        assertNull(back.getPreviousCursor());
+    }
+    
+    @Test
+    void aStaleStockEventDoesNotChangeTheQuantitySearchedOn() {
+        String word = "Zs" + System.nanoTime() % 1_000_000L;
+        Product product = create(word + " shelf", "Rack");
+        ProductSnapshot stocked = ProductSnapshot.of(product);
+        productService.removeStock(product.getId(), 8);
+        
+        // The event of an earlier write, delivered after the removal's
+        productSearchIndex.onProductChanged(ProductChangedEvent.updated(stocked.withQuantity(4), stocked));
+        
+        assertEquals(List.of(), ids(productService.searchProducts(word, null, null, null, null, 5, 0, 10).getContent()));
+        assertEquals(List.of(product.getId()),
+            ids(productService.searchProducts(word, null, null, null, null, 2, 0, 10).getContent()));
+    }
+    
+    private List<Long> scrollAll(String query, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductSlice slice = productService.searchProductsByCursor(query, null, null, null, null, null, cursor, size, false);
+            ids.addAll(ids(slice.getContent()));
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+    
+    private Product create(String name, String brand) {
+        Product product = new Product(name, "SRCH-" + System.nanoTime() % 1_000_000_000L, new BigDecimal("19.99"), 10);
+        product.setBrand(brand);
+        return productService.createProduct(product);
+    }
+    
+    private static List<Long> ids(List<Product> products) {
+        List<Long> ids = new ArrayList<>();
+        products.forEach(product -> ids.add(product.getId()));
+        return ids;
+    }
+}
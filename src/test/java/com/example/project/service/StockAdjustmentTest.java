@@ -0,0 +1,59 @@
+package com.example.project.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Parsing of the bulk stock CSV body
+class StockAdjustmentTest {
+    
+    @Test
+    void headerRowIsSkippedWhereverTheFirstLineIs() throws IOException {
+        assertEquals(List.of("2:A-1:5"), describe(parse("sku,delta\nA-1,5\n")));
+        assertEquals(List.of("3:A-1:5"), describe(parse("\n sku , delta \nA-1,5\n")));
+        assertEquals(List.of("2:A-1:5"), describe(parse("\uFEFFsku,delta\r\nA-1,5\r\n")));
+        assertEquals(List.of("1:A-1:5"), describe(parse("\uFEFFA-1,5\n")));
+    }
+    
+    @Test
+    void negativeAndSignedDeltasAreParsed() throws IOException {
+        assertEquals(List.of("1:A-1:-3", "2:A-2:4", "4:A-1:-12"),
+            describe(parse("A-1,-3\nA-2, +4\n\nA-1 ,-12\n")));
+    }
+    
+    @Test
+    void unreadableLinesAreReportedWithTheirNumber() throws IOException {
+        List<StockAdjustment> adjustments = parse("sku,delta\nA-1,-\nA-2\nA-3,1,2\n,5\nA-4,sku\n");
+        
+        assertEquals(List.of(2, 3, 4, 5, 6), adjustments.stream().map(StockAdjustment::getLineNumber).toList());
+        assertTrue(adjustments.stream().noneMatch(StockAdjustment::isValid));
+        assertEquals("Delta is not a whole number: -", adjustments.get(0).getError());
+        assertEquals("Expected 'sku,delta' but got: A-2", adjustments.get(1).getError());
+        assertEquals("Both sku and delta are required", adjustments.get(3).getError());
+        assertEquals("Delta is not a whole number: sku", adjustments.get(4).getError());
+    }
+    
+    @Test
+    void aNonNumericFirstDataLineAfterAValidOneIsNotAHeader() throws IOException {
+        List<StockAdjustment> adjustments = parse("A-1,5\nsku,delta\n");
+        
+        assertEquals(2, adjustments.size());
+        assertFalse(adjustments.get(1).isValid());
+    }
+    
+    private static List<StockAdjustment> parse(String csv) throws IOException {
+        return StockAdjustment.parseCsv(new StringReader(csv));
+    }
+    
+    private static List<String> describe(List<StockAdjustment> adjustments) {
+        return adjustments.stream()
+            .map(adjustment -> adjustment.getLineNumber() + ":" + adjustment.getSku() + ":" + adjustment.getDelta())
+            .toList();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.event.ProductChangedEvent;
+import com.example.project.event.ProductSnapshot;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+// Quantities pushed over the stock feed, whatever order the change events arrive in. MockMvc is
+// built here rather than auto-configured, so the test shares the plain application context.
+@SpringBootTest
+class StockFeedServiceTest {
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private StockFeedService stockFeedService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void eventsArrivingOutOfOrderLeaveTheCommittedQuantity() throws Exception {
+        Product product = new Product("Feed product", "FEED-" + System.nanoTime() % 1_000_000_000L,
+                new BigDecimal("3.00"), 10);
+        product = productService.createProduct(product);
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        MockHttpServletResponse response = mockMvc.perform(get("/products/stock/feed")
+                .param("productId", product.getId().toString()))
+            .andExpect(request().asyncStarted())
+            .andReturn().getResponse();
+        
+        productService.removeStock(product.getId(), 2);
+        productService.removeStock(product.getId(), 2);
+        // The same two changes delivered again, the later one first
+        ProductSnapshot full = ProductSnapshot.of(product);
+        stockFeedService.onProductChanged(ProductChangedEvent.updated(full.withQuantity(8), full.withQuantity(6)));
+        stockFeedService.onProductChanged(ProductChangedEvent.updated(full, full.withQuantity(8)));
+        
+        List<JsonNode> updates = awaitUpdates(response, -8);
+        assertEquals(6, updates.get(updates.size() - 1).get("quantity").asInt());
+    }
+    
+    // Stock updates sent so far, once their deltas add up to the given total
+    private List<JsonNode> awaitUpdates(MockHttpServletResponse response, int totalDelta) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            String content = response.getContentAsString();
+            List<JsonNode> updates = new ArrayList<>();
+            int delta = 0;
+            // Only events already ended by their blank line; the last one may still be being written
+            String[] events = content.split("\n\n", -1);
+            for (int i = 0; i < events.length - 1; i++) {
+                String event = "\n" + events[i];
+                if (event.contains("\nevent:stock\n")) {
+                    JsonNode update = objectMapper.readTree(event.substring(event.indexOf("\ndata:") + 6));
+                    updates.add(update);
+                    delta += update.get("delta").asInt();
+                }
+            }
+            if (delta == totalDelta || System.currentTimeMillis() > deadline) {
+                assertEquals(totalDelta, delta, content);
+                return updates;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
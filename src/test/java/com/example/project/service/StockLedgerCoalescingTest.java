@@ -0,0 +1,72 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.entity.StockMovement;
+import com.example.project.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Changes arriving within one flush interval are merged into fewer movement rows
+@SpringBootTest(properties = {
+    "inventory.ledger.coalesce.enabled=true",
+    "inventory.ledger.coalesce.flush-interval-ms=50"
+})
+class StockLedgerCoalescingTest {
+    
+    private static final int THREADS = 20;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void concurrentChangesShareMovementRows() throws Exception {
+        Product product = new Product("Coalesced product", "COAL-" + System.nanoTime() % 1_000_000_000L,
+                new BigDecimal("9.99"), 100);
+        Long id = productRepository.save(product).getId();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<StockLedger.Append>> appends = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            appends.add(executor.submit(() -> {
+                start.await();
+                return stockLedger.add(id, 1, StockMovement.Type.ADD);
+            }));
+        }
+        start.countDown();
+        for (Future<StockLedger.Append> append : appends) {
+            assertTrue(append.get(1, TimeUnit.MINUTES).isApplied());
+        }
+        executor.shutdown();
+        
+        int rows = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM stock_movements WHERE product_id = ?", Integer.class, id);
+        int delta = jdbcTemplate.queryForObject(
+            "SELECT SUM(delta) FROM stock_movements WHERE product_id = ?", Integer.class, id);
+        int lastQuantity = jdbcTemplate.queryForObject(
+            "SELECT quantity_after FROM stock_movements WHERE product_id = ? ORDER BY id DESC LIMIT 1", Integer.class, id);
+        assertTrue(rows < THREADS, THREADS + " changes were written as " + rows + " rows");
+        assertEquals(THREADS, delta);
+        assertEquals(100 + THREADS, lastQuantity);
+    }
+}
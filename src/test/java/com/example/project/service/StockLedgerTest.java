@@ -0,0 +1,137 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.entity.StockMovement;
+import com.example.project.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+class StockLedgerTest {
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private StockLedgerQuantityListener quantityListener;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void refusesAChangeThatWouldGoBelowZero() {
+        Long id = createProduct(3);
+        
+        StockLedger.Append append = stockLedger.add(id, -5, StockMovement.Type.REMOVE);
+        
+        assertEquals(StockMutationResult.Status.INSUFFICIENT_STOCK, append.getStatus());
+        assertEquals(3, append.getBefore());
+        assertEquals(3, append.getAfter());
+        assertEquals(0, movements(id));
+        assertEquals(StockMutationResult.Status.NOT_FOUND,
+            stockLedger.add(Long.MAX_VALUE, 1, StockMovement.Type.ADD).getStatus());
+    }
+    
+    @Test
+    void theFloorCountsMovementsWrittenByAnotherInstance() {
+        Long id = createProduct(10);
+        assertEquals(6, stockLedger.add(id, -4, StockMovement.Type.REMOVE).getAfter());
+        
+        // Another instance sold 5 more; this instance's cache still says 6
+        jdbcTemplate.update("INSERT INTO stock_movements (product_id, delta, quantity_after, type, created_at, compacted) " +
+            "VALUES (?, -5, 1, 'REMOVE', ?, FALSE)", id, Timestamp.valueOf(LocalDateTime.now()));
+        
+        StockLedger.Append append = stockLedger.add(id, -2, StockMovement.Type.REMOVE);
+        
+        assertEquals(StockMutationResult.Status.INSUFFICIENT_STOCK, append.getStatus());
+        assertEquals(1, append.getBefore());
+        assertEquals(1, stockLedger.getCurrentQuantity(id));
+    }
+    
+    @Test
+    void anAcknowledgedChangeIsAlreadyWritten() {
+        Long id = createProduct(10);
+        
+        StockLedger.Append append = stockLedger.add(id, 7, StockMovement.Type.ADD);
+        
+        assertEquals(17, append.getAfter());
+        assertEquals(List.of(7), jdbcTemplate.queryForList(
+            "SELECT delta FROM stock_movements WHERE product_id = ?", Integer.class, id));
+    }
+    
+    @Test
+    void compactionFoldsMovementsIntoTheStoredQuantity() {
+        Long id = createProduct(10);
+        stockLedger.add(id, 5, StockMovement.Type.ADD);
+        stockLedger.add(id, -12, StockMovement.Type.REMOVE);
+        stockLedger.set(id, 0, StockMovement.Type.SET);
+        
+        stockLedger.settle();
+        
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = ?", Integer.class, id));
+        assertEquals("OUT", jdbcTemplate.queryForObject("SELECT stock_status FROM products WHERE id = ?", String.class, id));
+        assertEquals(3, movements(id));
+        assertFalse(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) > 0 FROM stock_movements WHERE product_id = ? AND compacted = FALSE", Boolean.class, id));
+    }
+    
+    @Test
+    void loadedProductsCarryTheLedgerQuantity() {
+        Long id = createProduct(10);
+        stockLedger.add(id, 25, StockMovement.Type.ADD);
+        
+        assertEquals(35, productRepository.findById(id).orElseThrow().getQuantity());
+        
+        Product stale = new Product("Stale", "STALE-1", new BigDecimal("1.00"), 10);
+        stale.setId(id);
+        quantityListener.overlayCurrentQuantity(stale);
+        assertEquals(35, stale.getQuantity());
+        
+        // Nothing cached: the stored value stands
+        Product unknown = new Product("Unknown", "UNKNOWN-1", new BigDecimal("1.00"), 10);
+        unknown.setId(Long.MAX_VALUE);
+        quantityListener.overlayCurrentQuantity(unknown);
+        assertEquals(10, unknown.getQuantity());
+    }
+    
+    @Test
+    void coalescingMergesRunsOfOneProductAndType() {
+        List<StockMovement> rows = StockLedger.coalesce(List.of(
+            new StockMovement(1L, 1, 11, StockMovement.Type.ADD),
+            new StockMovement(1L, 2, 13, StockMovement.Type.ADD),
+            new StockMovement(2L, 4, 4, StockMovement.Type.ADD),
+            new StockMovement(1L, -1, 12, StockMovement.Type.REMOVE),
+            new StockMovement(1L, 3, 15, StockMovement.Type.ADD)));
+        
+        assertEquals(List.of("1 ADD 3 13", "2 ADD 4 4", "1 REMOVE -1 12", "1 ADD 3 15"),
+            rows.stream().map(StockLedgerTest::describe).toList());
+    }
+    
+    private static String describe(StockMovement row) {
+        return row.getProductId() + " " + row.getType() + " " + row.getDelta() + " " + row.getQuantityAfter();
+    }
+    
+    private int movements(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_movements WHERE product_id = ?", Integer.class, productId);
+    }
+    
+    private Long createProduct(int quantity) {
+        Product product = new Product("Ledger product", "LEDGER-" + System.nanoTime() % 1_000_000_000L,
+                new BigDecimal("9.99"), quantity);
+        product.setMinQuantity(2);
+        return productRepository.save(product).getId();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.project.service;
+
+import com.example.project.entity.Product;
+import com.example.project.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Many threads hammering one hot product must not lose updates or oversell
+@SpringBootTest
+class StockServiceContentionTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(StockServiceContentionTest.class);
+    
+    private static final int OPERATIONS_PER_RUN = 6400;
+    
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @ParameterizedTest(name = "{0} threads")
+    @ValueSource(ints = {1, 8, 64})
+    void concurrentAddAndRemoveLoseNoUpdates(int threads) throws Exception {
+        int initialQuantity = 1_000_000;
+        Long id = createProduct(initialQuantity);
+        int operationsPerThread = OPERATIONS_PER_RUN / threads;
+        
+        // Each thread alternates +3 / -2, so every pair of operations nets +1
+        long elapsedNanos = runConcurrently(threads, () -> {
+            for (int i = 0; i < operationsPerThread; i++) {
+                StockMutationResult result = i % 2 == 0
+                    ? stockService.addStock(id, 3)
+                    : stockService.removeStock(id, 2);
+                assertTrue(result.isApplied(), result::toString);
+            }
+        });
+        
+        int expected = initialQuantity + threads * (operationsPerThread / 2);
+        assertEquals(expected, productRepository.findById(id).orElseThrow().getQuantity());
+        stockLedger.settle();
+        assertEquals(expected, productRepository.findQuantityById(id).orElseThrow());
+        report(threads, threads * operationsPerThread, elapsedNanos);
+    }
+    
+    @Test
+    void concurrentRemovesNeverOversell() throws Exception {
+        int initialQuantity = 100;
+        Long id = createProduct(initialQuantity);
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        
+        runConcurrently(64, () -> {
+            for (int i = 0; i < 5; i++) {
+                StockMutationResult result = stockService.removeStock(id, 1);
+                if (result.isApplied()) {
+                    applied.incrementAndGet();
+                } else {
+                    assertEquals(StockMutationResult.Status.INSUFFICIENT_STOCK, result.getStatus());
+                    refused.incrementAndGet();
+                }
+            }
+        });
+        
+        assertEquals(initialQuantity, applied.get());
+        assertEquals(64 * 5 - initialQuantity, refused.get());
+        assertEquals(0, productRepository.findById(id).orElseThrow().getQuantity());
+        stockLedger.settle();
+        assertEquals(0, productRepository.findQuantityById(id).orElseThrow());
+    }
+    
+    @Test
+    void unknownProductIsReportedAsNotFound() {
+        StockMutationResult result = stockService.removeStock(Long.MAX_VALUE, 1);
+        
+        assertEquals(StockMutationResult.Status.NOT_FOUND, result.getStatus());
+    }
+    
+    private Long createProduct(int quantity) {
+        Product product = new Product("Hot product", "HOT-" + System.nanoTime() % 1_000_000_000L,
+                new BigDecimal("9.99"), quantity);
+        product.setMinQuantity(10);
+        return productRepository.save(product).getId();
+    }
+    
+    // Start all workers at once and return the wall-clock time until the last one finishes
+    private long runConcurrently(int threads, Runnable work) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                work.run();
+                return null;
+            }));
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+        return elapsedNanos;
+    }
+    
+    private void report(int threads, int operations, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        log.info("Stock contention: {} threads, {} operations in {} s ({} ops/s)",
+                threads, operations, String.format("%.2f", seconds), Math.round(operations / seconds));
+    }
+}